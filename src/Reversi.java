@@ -1,20 +1,35 @@
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
 
-//import model.SquareReversi;
-import model.SquareReversi;
+import model.BitboardHexagonReversi;
+import model.BitboardSquareReversi;
+import model.ConcurrentReversiModel;
 import provider.strategy.AsManyAsPossible;
 import provider.StrategyAdapter;
 import controller.ReversiController;
-import model.HexagonReversi;
+import controller.TurnScheduler;
 import model.Player;
 import model.PlayerImpl;
 import model.ReversiModel;
+import strategy.AlphaBetaStrategy;
 import strategy.AvoidCornerNeighborStrategy;
+import strategy.BookStrategy;
 import strategy.CaptureMaxCellsThisMove;
 import strategy.CheckCornersFirstStrategy;
+import strategy.EndgameStrategy;
 import strategy.GoForCornersStrategy;
-import strategy.MiniMaxStrategy;
+import strategy.IterativeDeepeningStrategy;
+import strategy.LazySmpStrategy;
+import strategy.MonteCarloTreeSearchStrategy;
+import strategy.OpeningBook;
+import strategy.PatternSearchStrategy;
+import strategy.PatternWeights;
 import strategy.RandomValidMoveStrategy;
+import strategy.ReversiStrategy;
 import view.AbstractGUI;
 import view.HexagonGUI;
 import view.SquareGUI;
@@ -26,6 +41,15 @@ import view.ViewInterface;
 
 public class Reversi {
 
+  //how long an iterative or mcts player thinks about each move, unless told otherwise
+  private static final long DEFAULT_MOVE_BUDGET_MILLIS = 1000;
+
+  //searching players solve the game exactly once this few cells are empty
+  private static final int ENDGAME_EMPTIES = 12;
+
+  //tuned weights and opening books are read from here, set with -Dreversi.data=<directory>
+  private static final String DATA_DIRECTORY = System.getProperty("reversi.data", "data");
+
   /**
    * The main method for reversi.
    *
@@ -36,8 +60,10 @@ public class Reversi {
     if (args.length != 3) {
       System.out.println("Usage: Reversi <gameType> <playerType1> <playerType2> \n"
               + "Possible game types: square, hexagon \n"
-              + "Possible player types: human, minimax, avoidcornerneighbor, capturemaxcells, "
-              + "checkcornersfirst, goforcorners, randomvalidmove");
+              + "Possible player types: human, minimax, alphabeta, avoidcornerneighbor, "
+              + "capturemaxcells, checkcornersfirst, goforcorners, randomvalidmove, "
+              + "iterative[:<milliseconds per move>], lazysmp, mcts[:<milliseconds per move>], "
+              + "pattern");
       System.exit(1);
     }
 
@@ -48,7 +74,8 @@ public class Reversi {
     Player player1 = createPlayer(player1Type, 1);
     Player player2 = createPlayer(player2Type, 2);
 
-    ReversiModel model = createGameType(gameType);
+    //the views paint on the Swing thread, so they read snapshots of the game
+    ReversiModel model = new ConcurrentReversiModel(createGameType(gameType));
     //start game
     model.startGame(4, 2);
 
@@ -74,8 +101,15 @@ public class Reversi {
       throw new IllegalArgumentException("Unknown game type: " + gameType);
     }
 
-    ReversiController controller1 = new ReversiController(model, player1, view1);
-    ReversiController controller2 = new ReversiController(model, player2, view2);
+    //computer players think on their own thread, and every move is played on the Swing thread
+    ExecutorService searchThread = Executors.newSingleThreadExecutor(task -> {
+      Thread thread = new Thread(task, "reversi-search");
+      thread.setDaemon(true);
+      return thread;
+    });
+    TurnScheduler scheduler = new TurnScheduler(searchThread, SwingUtilities::invokeLater);
+    ReversiController controller1 = new ReversiController(model, player1, view1, scheduler);
+    ReversiController controller2 = new ReversiController(model, player2, view2, scheduler);
 
     view1.addFeatures(controller1);
     view2.addFeatures(controller2);
@@ -93,14 +127,46 @@ public class Reversi {
     frame2.setSize(500, 500);
     frame2.add(g2);
     frame2.setVisible(true);
+
+    //the game started before anyone was listening, so tell the first player it is their turn
+    scheduler.schedule(model::notifyObserverTurn);
   }
 
   private static Player createPlayer(String playerType, int playerNumber) {
-    switch (playerType.toLowerCase()) {
+    //a player that searches against the clock may carry its own time budget, as in
+    // iterative:500, which has to be a positive number of milliseconds
+    String[] parts = playerType.split(":", 2);
+    String type = parts[0].toLowerCase();
+    long budgetMillis = DEFAULT_MOVE_BUDGET_MILLIS;
+    if (parts.length == 2) {
+      if (!type.equals("iterative") && !type.equals("mcts")) {
+        throw new IllegalArgumentException("Unknown player type: " + playerType);
+      }
+      try {
+        budgetMillis = Long.parseLong(parts[1]);
+      }
+      catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Unknown player type: " + playerType);
+      }
+      if (budgetMillis <= 0) {
+        throw new IllegalArgumentException("Unknown player type: " + playerType);
+      }
+    }
+
+    switch (type) {
       case "human":
         return new PlayerImpl(null, playerNumber);
       case "minimax":
-        return new PlayerImpl(new MiniMaxStrategy(5), playerNumber);
+        return new PlayerImpl(new AlphaBetaStrategy(5), playerNumber);
+      case "alphabeta":
+        //the same search, with the opening book before it and the solver after it
+        return searchingPlayer(new AlphaBetaStrategy(5), playerNumber);
+      case "pattern":
+        return searchingPlayer(new PatternSearchStrategy(6,
+                PatternWeights.evaluators(Paths.get(DATA_DIRECTORY))), playerNumber);
+      case "lazysmp":
+        return searchingPlayer(new LazySmpStrategy(5, Runtime.getRuntime().availableProcessors()),
+                playerNumber);
       case "avoidcornerneighbor":
         return new PlayerImpl(new AvoidCornerNeighborStrategy(), playerNumber);
       case "capturemaxcells":
@@ -111,6 +177,10 @@ public class Reversi {
         return new PlayerImpl(new GoForCornersStrategy(), playerNumber);
       case "randomvalidmove":
         return new PlayerImpl(new RandomValidMoveStrategy(), playerNumber);
+      case "iterative":
+        return searchingPlayer(new IterativeDeepeningStrategy(budgetMillis), playerNumber);
+      case "mcts":
+        return new PlayerImpl(new MonteCarloTreeSearchStrategy(budgetMillis), playerNumber);
       case "providerstrategy1":
         return new PlayerImpl(new StrategyAdapter(new AsManyAsPossible()), playerNumber);
       default:
@@ -119,12 +189,18 @@ public class Reversi {
 
   }
 
+  //helper: a player that plays from the opening book, then searches, then solves the end
+  private static Player searchingPlayer(ReversiStrategy search, int playerNumber) {
+    return new PlayerImpl(new BookStrategy(OpeningBook.books(Paths.get(DATA_DIRECTORY)),
+            new EndgameStrategy(search, ENDGAME_EMPTIES)), playerNumber);
+  }
+
   private static ReversiModel createGameType(String gameType) {
     switch (gameType.toLowerCase()) {
       case "hexagon":
-        return new HexagonReversi();
+        return new BitboardHexagonReversi();
       case "square":
-        return new SquareReversi();
+        return new BitboardSquareReversi();
       default:
         throw new IllegalArgumentException("Unknown game type: " + gameType);
     }
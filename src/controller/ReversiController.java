@@ -18,6 +18,7 @@ public class ReversiController implements ControllerFeatures, ObserverInterface
   protected Player player;
   protected ViewInterface view;
   private boolean gameOverDisplayed;
+  private final TurnScheduler scheduler; // may be null, then turns run inside notifications
 
 
   /**
@@ -28,9 +29,25 @@ public class ReversiController implements ControllerFeatures, ObserverInterface
    * @param view   the view that the controller is working with.
    */
   public ReversiController(ReversiModel model, Player player, ViewInterface view) {
+    this(model, player, view, null);
+  }
+
+  /**
+   * Constructor for a controller whose turns are run by a scheduler, so computer players
+   * think off the game thread and a game never nests one turn inside another.
+   *
+   * @param model     the model that the controller will be using.
+   * @param player    the player either human or AI that this controller is for.
+   * @param view      the view that the controller is working with.
+   * @param scheduler runs the turns of every controller of the game, may be null to run
+   *                  each turn inside the notification that starts it.
+   */
+  public ReversiController(ReversiModel model, Player player, ViewInterface view,
+                           TurnScheduler scheduler) {
     this.model = model;
     this.player = player;
     this.view = view;
+    this.scheduler = scheduler;
     view.addFeatures(this);
     model.subscribe(this);
     gameOverDisplayed = false;
@@ -38,6 +55,17 @@ public class ReversiController implements ControllerFeatures, ObserverInterface
 
   @Override
   public void getNotifiedItsYourPlayersMove() {
+    if (scheduler == null) {
+      this.takeTurn();
+    }
+    else {
+      //the turn that notified us finishes first, so turns never pile up on the stack
+      scheduler.schedule(this::takeTurn);
+    }
+  }
+
+  //helper: shows the board, and lets a computer player choose and play its move
+  private void takeTurn() {
     //if your move, make player move based on player's strategy
     //ai player will make their move, human player would do nothing since their strat is null
     //System.out.println("Controller " + player.getPlayerNumber() + " notified!");
@@ -49,16 +77,39 @@ public class ReversiController implements ControllerFeatures, ObserverInterface
 
     //if player is computer
     if (player.getPlayerStrategy() != null) {
-      Coordinate playedCoordinate = player.play(model);
+      if (scheduler == null) {
+        this.playChosen(player.play(model));
+      }
+      else {
+        //the search reads its own copy, since the game thread keeps using the model
+        ReversiModel copy = model.clone();
+        long position = model.positionKey();
+        scheduler.think(() -> player.play(copy), coord -> {
+          //a result for a position the game has left is stale, and dropped
+          if (model.positionKey() == position) {
+            this.playChosen(coord);
+          }
+        }, error -> {
+          //a strategy that fails passes, so the game goes on instead of waiting forever
+          view.displayMessage("Player" + player.getPlayerNumber()
+                  + " could not choose a move: " + error.getMessage());
+          if (model.positionKey() == position) {
+            this.pass();
+          }
+        });
+      }
+    }
+  }
 
-      try {
-        this.move(playedCoordinate);
+  //helper: plays a computer player's move, passing if it has none
+  private void playChosen(Coordinate playedCoordinate) {
+    try {
+      this.move(playedCoordinate);
 
-      } catch (NullPointerException e) {
-        this.pass();
-      } catch (IllegalStateException ise) {
-        this.pass();
-      }
+    } catch (NullPointerException e) {
+      this.pass();
+    } catch (IllegalStateException ise) {
+      this.pass();
     }
   }
 
@@ -107,11 +158,13 @@ public class ReversiController implements ControllerFeatures, ObserverInterface
   @Override
   public int hintHelper(ReadonlyReversiModel model,
                         Coordinate selectedHexagon) {
+    //read one state of the game, in case a move is being played on another thread
+    ReadonlyReversiModel state = model.snapshot();
     //if it's not their turn, don't do anything
-    if (model.getCurrentTurn() != player.getPlayerNumber()) {
+    if (state.getCurrentTurn() != player.getPlayerNumber()) {
       return -1;
     }
-    return model.howManyCellsDoesThisMoveFlip(selectedHexagon, player.getPlayerNumber());
+    return state.howManyCellsDoesThisMoveFlip(selectedHexagon, player.getPlayerNumber());
   }
 
 
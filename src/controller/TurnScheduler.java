@@ -0,0 +1,127 @@
+package controller;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs the turns of a game one after another instead of inside each other.
+ * Without it, a move notifies the next controller, whose computer player moves and
+ * notifies the next one, so a whole game between computer players is one call stack that
+ * grows with every move. Here a turn only queues the next one, and the queue is drained by
+ * whichever call started it, so the stack stays the same depth however long the game is.
+ * Computer players think on a separate executor, and their moves are queued back onto the
+ * game executor, so the thread that plays moves, such as the Swing event thread, never
+ * waits on a search.
+ */
+public class TurnScheduler {
+  private final Executor searchExecutor;
+  private final Executor gameExecutor;
+
+  /**
+   * INVARIANT: draining is true exactly while some call of runInOrder is running turns.
+   * INTERPRETATION: pending holds the turns waiting to be played, in the order they were
+   * queued, and is only touched while holding its lock.
+   */
+  private final Queue<Runnable> pending;
+  private boolean draining;
+
+  /**
+   * Constructs a scheduler that plays moves on one executor and searches on another.
+   * @param searchExecutor runs the searches of computer players.
+   * @param gameExecutor runs turns and plays moves, one at a time and in the order they
+   *                     are given, such as SwingUtilities::invokeLater.
+   */
+  public TurnScheduler(Executor searchExecutor, Executor gameExecutor) {
+    this.searchExecutor = searchExecutor;
+    this.gameExecutor = gameExecutor;
+    this.pending = new ArrayDeque<>();
+    this.draining = false;
+  }
+
+  /**
+   * Constructs a scheduler that runs everything on the thread that starts a turn, still
+   * one turn after another, so a game between computer players finishes before the call
+   * that started it returns.
+   */
+  public TurnScheduler() {
+    this(Runnable::run, Runnable::run);
+  }
+
+  /**
+   * Queues a turn to run on the game executor once the turns before it are done.
+   * @param turn the turn to run.
+   */
+  public void schedule(Runnable turn) {
+    gameExecutor.execute(() -> this.runInOrder(turn));
+  }
+
+  /**
+   * Runs a search on the search executor, then queues what to do with its result as a turn.
+   * If the search fails, what to do about the failure is queued instead, so the game always
+   * gets a turn after a search and never waits on one that was lost in the executor.
+   * @param search the search, which should only read a copy of the game.
+   * @param then what to do with the result, run on the game executor.
+   * @param failed what to do if the search throws, run on the game executor.
+   * @param <T> the type of the result.
+   */
+  public <T> void think(Supplier<T> search, Consumer<T> then,
+                        Consumer<RuntimeException> failed) {
+    searchExecutor.execute(() -> {
+      T result;
+      try {
+        result = search.get();
+      }
+      catch (RuntimeException e) {
+        this.schedule(() -> failed.accept(e));
+        return;
+      }
+      this.schedule(() -> then.accept(result));
+    });
+  }
+
+  //helper: runs a turn, or queues it if a turn is already running further down the stack
+  // or on another thread, which then runs it next
+  private void runInOrder(Runnable turn) {
+    synchronized (pending) {
+      pending.add(turn);
+      if (draining) {
+        return;
+      }
+      draining = true;
+    }
+    this.drain();
+  }
+
+  //helper: runs the queued turns until there are none left, once this call is draining
+  private void drain() {
+    while (true) {
+      Runnable next;
+      synchronized (pending) {
+        next = pending.poll();
+        if (next == null) {
+          draining = false;
+          return;
+        }
+      }
+      try {
+        next.run();
+      }
+      catch (RuntimeException e) {
+        //a failed turn should not leave the queue stuck with nobody to drain it, so the
+        // turns behind it are handed to a new call on the game executor
+        boolean more;
+        synchronized (pending) {
+          more = !pending.isEmpty();
+          draining = more;
+        }
+        if (more) {
+          gameExecutor.execute(this::drain);
+        }
+        throw e;
+      }
+    }
+  }
+}
@@ -0,0 +1,200 @@
+package host;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import controller.ReversiController;
+import controller.TurnScheduler;
+import model.Player;
+import model.ReversiModel;
+
+/**
+ * Plays many games between computer players at once, with no window. Each game is a
+ * session of a model, a controller for each player and a HeadlessView. Where the runtime
+ * has virtual threads each game gets its own, so thousands of games cost little more than
+ * their boards, and at most a set number of them play at once while the rest wait for a
+ * slot. Otherwise games queue for a fixed pool of that many platform threads, so waiting
+ * games never hold a thread. The host counts every finished game and move,
+ * to report throughput over the time it has had games to play.
+ */
+public class GameHost {
+  private final Semaphore slots;
+  private final boolean recordMessages;
+  private final Executor runner;
+  private final boolean virtualThreads;
+
+  private final AtomicLong games = new AtomicLong();
+  private final AtomicLong moves = new AtomicLong();
+  //the games playing now, the System.nanoTime the host last went from idle to busy, and
+  // the time spent busy before that, so idle time between batches is not counted
+  private int busyGames;
+  private long busySince;
+  private long busyNanos;
+
+  /**
+   * Constructs a host.
+   * @param maxConcurrentGames the most games played at once.
+   * @param recordMessages true to keep the messages every game shows, see GameSession.
+   * @throws IllegalArgumentException if maxConcurrentGames is not positive.
+   */
+  public GameHost(int maxConcurrentGames, boolean recordMessages) {
+    if (maxConcurrentGames <= 0) {
+      throw new IllegalArgumentException("A host should play at least one game at once.");
+    }
+    this.slots = new Semaphore(maxConcurrentGames, true);
+    this.recordMessages = recordMessages;
+    ThreadFactory virtual = virtualThreadFactory();
+    this.virtualThreads = virtual != null;
+    if (virtual != null) {
+      this.runner = task -> virtual.newThread(task).start();
+    }
+    else {
+      this.runner = Executors.newFixedThreadPool(maxConcurrentGames, task -> {
+        Thread thread = new Thread(task, "reversi-game");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  /**
+   * Starts a game once there is a slot for it.
+   * Players must not be shared with other games, since strategies keep state while they
+   * search.
+   * @param newGame makes the model of the game, not yet started.
+   * @param sideLength the side length to start the game with.
+   * @param player1 the computer player who moves first.
+   * @param player2 the computer player who moves second.
+   * @return the session once the game is over, or the error that stopped it.
+   * @throws IllegalArgumentException if a player is not a computer player.
+   */
+  public CompletableFuture<GameSession> play(Supplier<ReversiModel> newGame, int sideLength,
+                                             Player player1, Player player2) {
+    if (player1.getPlayerStrategy() == null || player2.getPlayerStrategy() == null) {
+      throw new IllegalArgumentException("Only computer players can play without a window.");
+    }
+    CompletableFuture<GameSession> result = new CompletableFuture<>();
+    runner.execute(() -> {
+      //a pool of platform threads already runs no more games than there are slots
+      try {
+        slots.acquire();
+      }
+      catch (InterruptedException e) {
+        result.completeExceptionally(e);
+        return;
+      }
+      this.startedGame();
+      try {
+        result.complete(this.playGame(newGame, sideLength, player1, player2));
+      }
+      catch (RuntimeException e) {
+        result.completeExceptionally(e);
+      }
+      finally {
+        this.finishedGame();
+        slots.release();
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Checks if games are played on virtual threads.
+   * @return true if the runtime has virtual threads, false if games use platform threads.
+   */
+  public boolean usesVirtualThreads() {
+    return virtualThreads;
+  }
+
+  /**
+   * Gets the number of games finished so far.
+   * @return the number of games.
+   */
+  public long getGamesPlayed() {
+    return games.get();
+  }
+
+  /**
+   * Gets the number of moves played in the games finished so far.
+   * @return the number of moves.
+   */
+  public long getMovesPlayed() {
+    return moves.get();
+  }
+
+  /**
+   * Gets the games finished per second the host has been busy.
+   * @return the throughput in games per second, 0 if no time has been spent yet.
+   */
+  public double getGamesPerSecond() {
+    return perSecond(games.get());
+  }
+
+  /**
+   * Gets the moves played in finished games per second the host has been busy.
+   * @return the throughput in moves per second, 0 if no time has been spent yet.
+   */
+  public double getMovesPerSecond() {
+    return perSecond(moves.get());
+  }
+
+  //helper: plays a game on the calling thread, every turn one after another
+  private GameSession playGame(Supplier<ReversiModel> newGame, int sideLength,
+                               Player player1, Player player2) {
+    long start = System.nanoTime();
+    ReversiModel model = newGame.get();
+    model.startGame(sideLength, 2);
+    int startDiscs = model.getScore(1) + model.getScore(2);
+    HeadlessView view = new HeadlessView(recordMessages);
+    TurnScheduler turns = new TurnScheduler();
+    new ReversiController(model, player1, view, turns);
+    new ReversiController(model, player2, view, turns);
+    //the game started before anyone was listening, so tell the first player it is their
+    // turn, and the scheduler plays the whole game before this returns
+    turns.schedule(model::notifyObserverTurn);
+    if (!model.isGameOver()) {
+      throw new IllegalStateException("The game stopped before it was over.");
+    }
+    int played = model.getScore(1) + model.getScore(2) - startDiscs;
+    moves.addAndGet(played);
+    games.incrementAndGet();
+    return new GameSession(model, view, played, System.nanoTime() - start);
+  }
+
+  //helper: starts the busy clock when the first of a stretch of games starts
+  private synchronized void startedGame() {
+    if (busyGames++ == 0) {
+      busySince = System.nanoTime();
+    }
+  }
+
+  //helper: stops the busy clock when the last of a stretch of games finishes
+  private synchronized void finishedGame() {
+    if (--busyGames == 0) {
+      busyNanos += System.nanoTime() - busySince;
+    }
+  }
+
+  //helper: a count per second of busy time, including the stretch going on now
+  private synchronized double perSecond(long count) {
+    long nanos = busyNanos + (busyGames > 0 ? System.nanoTime() - busySince : 0);
+    return nanos == 0 ? 0 : count * 1e9 / nanos;
+  }
+
+  //helper: a factory of virtual threads, or null if this runtime has none
+  private static ThreadFactory virtualThreadFactory() {
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+      return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+    }
+    catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,540 @@
+package host;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import controller.ControllerFeatures;
+import controller.ReversiController;
+import model.BitboardHexagonReversi;
+import model.BitboardSquareReversi;
+import model.Coordinate;
+import model.PlayerImpl;
+import model.ReadonlyReversiModel;
+import model.ReversiModel;
+import view.ViewInterface;
+
+/**
+ * Serves games to players in other processes over TCP, speaking the Protocol.
+ * Every connection is a player: once two players join the same game, each gets a
+ * ReversiController, the requests it sends are played through that controller's move and
+ * pass, and the turn notifications and messages the controller gets are pushed back to it.
+ * Connections are non-blocking and shared out between a few selector threads, so one
+ * server can hold thousands of them. Each connection reads into and writes from its own
+ * direct buffer, which is reused for every message, and requests are parsed in place.
+ */
+public class GameServer implements Closeable {
+  private final ServerSocketChannel server;
+  private final int port;
+  private final SelectorLoop[] loops;
+  private final Map<Integer, Game> games;
+  private volatile boolean open;
+  private int nextLoop; // only used by the thread of loops[0], which accepts connections
+
+  /**
+   * Starts a server.
+   * @param address where to listen, such as 127.0.0.1 with port 0 for any free port.
+   * @param selectorThreads the number of threads that serve connections.
+   * @throws IOException if the server cannot listen there.
+   * @throws IllegalArgumentException if selectorThreads is not positive.
+   */
+  public GameServer(InetSocketAddress address, int selectorThreads) throws IOException {
+    if (selectorThreads <= 0) {
+      throw new IllegalArgumentException("A server needs at least one selector thread.");
+    }
+    this.games = new ConcurrentHashMap<>();
+    this.server = ServerSocketChannel.open();
+    server.bind(address);
+    server.configureBlocking(false);
+    this.port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+    this.open = true;
+    this.loops = new SelectorLoop[selectorThreads];
+    for (int i = 0; i < loops.length; i++) {
+      loops[i] = new SelectorLoop(i);
+    }
+    server.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+    for (SelectorLoop loop : loops) {
+      loop.thread.start();
+    }
+  }
+
+  /**
+   * Gets the port the server listens on.
+   * @return the port.
+   */
+  public int getPort() {
+    return port;
+  }
+
+  /**
+   * Gets the number of games waiting for a player or being played.
+   * @return the number of open games.
+   */
+  public int getOpenGames() {
+    return games.size();
+  }
+
+  @Override
+  public void close() throws IOException {
+    open = false;
+    for (SelectorLoop loop : loops) {
+      loop.selector.wakeup();
+    }
+    for (SelectorLoop loop : loops) {
+      try {
+        loop.thread.join();
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    server.close();
+  }
+
+  /**
+   * Serves games on a port of 127.0.0.1 until the process is stopped.
+   * @param args the port, and optionally the number of selector threads.
+   * @throws IOException if the server cannot listen on the port.
+   * @throws InterruptedException if the main thread is interrupted while serving.
+   */
+  public static void main(String[] args) throws IOException, InterruptedException {
+    if (args.length < 1 || args.length > 2) {
+      System.out.println("Usage: GameServer <port> [selectorThreads]");
+      System.exit(1);
+    }
+    int threads = args.length == 2 ? Integer.parseInt(args[1]) : 2;
+    GameServer server = new GameServer(
+            new InetSocketAddress("127.0.0.1", Integer.parseInt(args[0])), threads);
+    System.out.println("serving games on port " + server.getPort());
+    //the selector threads are daemons, so keep the process alive for as long as they serve
+    for (SelectorLoop loop : server.loops) {
+      loop.thread.join();
+    }
+  }
+
+  //helper: adds a player to a game, starting the game once it has two
+  private void join(Connection connection, byte shape, int sideLength, int id) {
+    if (connection.game != null) {
+      connection.sendMessage("Already in a game");
+      return;
+    }
+    Game game = games.computeIfAbsent(id, key -> new Game(key, shape, sideLength));
+    synchronized (game) {
+      if (game.over) {
+        connection.sendMessage("That game has ended");
+      }
+      else if (game.shape != shape || game.sideLength != sideLength) {
+        connection.sendMessage("That game is on another board");
+      }
+      else if (game.players[1] != null) {
+        connection.sendMessage("That game is full");
+      }
+      else {
+        int player = game.players[0] == null ? 1 : 2;
+        game.players[player - 1] = connection;
+        connection.game = game;
+        connection.sendJoined(player);
+        if (player == 2) {
+          game.start();
+        }
+      }
+    }
+  }
+
+  /**
+   * One game between two connections. Every change to it happens while holding its lock,
+   * since its players may be served by different selector threads.
+   */
+  private final class Game {
+    private final int id;
+    private final byte shape;
+    private final int sideLength;
+    private final Connection[] players = new Connection[2];
+    private ReversiModel model; // null until both players have joined
+    private boolean over;
+
+    Game(int id, byte shape, int sideLength) {
+      this.id = id;
+      this.shape = shape;
+      this.sideLength = sideLength;
+    }
+
+    //helper: makes the controllers and starts the game, which tells player 1 to move
+    void start() {
+      model = shape == Protocol.SQUARE ? new BitboardSquareReversi()
+              : new BitboardHexagonReversi();
+      //controllers are told of turns in the order they subscribe, so player 1 goes first
+      for (int player = 1; player <= 2; player++) {
+        Connection connection = players[player - 1];
+        connection.controller = new RemoteController(model, player, connection);
+      }
+      try {
+        model.startGame(sideLength, 2);
+      }
+      catch (IllegalArgumentException e) {
+        for (Connection connection : players) {
+          connection.sendMessage(e.getMessage());
+        }
+        this.end();
+      }
+    }
+
+    //helper: plays a request of one of the players through its controller
+    void play(Connection connection, int cell) {
+      if (model == null || over) {
+        connection.sendMessage("The game is not being played");
+        return;
+      }
+      if (cell == -1) {
+        connection.controller.pass();
+      }
+      else if (cell < 0 || cell >= model.getGeometry().size()) {
+        connection.sendMessage("Not a cell of the board");
+      }
+      else {
+        connection.controller.move(model.getGeometry().coordinateAt(cell));
+      }
+      if (model.isGameOver()) {
+        this.end();
+      }
+    }
+
+    //helper: tells both players the scores, if the game had started, and forgets the game
+    void end() {
+      if (over) {
+        return;
+      }
+      over = true;
+      games.remove(id, this);
+      if (model != null && model.isGameOver()) {
+        for (Connection connection : players) {
+          connection.sendGameOver(model.getScore(1), model.getScore(2));
+        }
+      }
+    }
+
+    //helper: ends the game early when a player leaves
+    void leave(Connection connection) {
+      if (!over) {
+        this.end();
+        for (Connection other : players) {
+          if (other != null && other != connection) {
+            other.sendMessage("Your opponent left");
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * The controller of a remote player, which pushes each turn to the player's connection
+   * instead of showing it in a window.
+   */
+  private static final class RemoteController extends ReversiController {
+    private final Connection connection;
+
+    RemoteController(ReversiModel model, int player, Connection connection) {
+      super(model, new PlayerImpl(null, player), connection);
+      this.connection = connection;
+    }
+
+    @Override
+    public void getNotifiedItsYourPlayersMove() {
+      if (!model.isGameOver()) {
+        connection.sendTurn(player.getPlayerNumber(), model);
+      }
+    }
+  }
+
+  /**
+   * A selector and the thread that serves its connections.
+   */
+  private final class SelectorLoop implements Runnable {
+    private final Selector selector;
+    private final Thread thread;
+    private final Queue<SocketChannel> accepted;
+
+    SelectorLoop(int number) throws IOException {
+      this.selector = Selector.open();
+      this.thread = new Thread(this, "reversi-server-" + number);
+      this.thread.setDaemon(true);
+      this.accepted = new ConcurrentLinkedQueue<>();
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (open) {
+          selector.select();
+          this.registerAccepted();
+          Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+          while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            this.serve(key);
+          }
+        }
+      }
+      catch (IOException e) {
+        //the selector itself failed, nothing more can be served on it
+      }
+      finally {
+        for (SelectionKey key : selector.keys()) {
+          if (key.attachment() instanceof Connection) {
+            ((Connection) key.attachment()).close();
+          }
+        }
+        try {
+          selector.close();
+        }
+        catch (IOException e) {
+          //closing anyway
+        }
+      }
+    }
+
+    //helper: serves one ready key, closing its connection if it fails
+    private void serve(SelectionKey key) {
+      if (!key.isValid()) {
+        return;
+      }
+      if (key.isAcceptable()) {
+        this.accept();
+        return;
+      }
+      Connection connection = (Connection) key.attachment();
+      try {
+        if (key.isReadable()) {
+          connection.read();
+        }
+        if (key.isValid() && key.isWritable()) {
+          connection.flush();
+        }
+      }
+      catch (IOException | RuntimeException e) {
+        //one broken connection is closed, the rest of the loop keeps serving
+        connection.close();
+      }
+    }
+
+    //helper: accepts waiting connections, and hands each to the next loop in turn
+    private void accept() {
+      try {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+          SelectorLoop loop = loops[nextLoop++ % loops.length];
+          loop.accepted.add(channel);
+          loop.selector.wakeup();
+        }
+      }
+      catch (IOException e) {
+        //the connection went away before it was accepted
+      }
+    }
+
+    //helper: starts serving the connections handed to this loop
+    private void registerAccepted() {
+      SocketChannel channel;
+      while ((channel = accepted.poll()) != null) {
+        try {
+          channel.configureBlocking(false);
+          channel.socket().setTcpNoDelay(true);
+          Connection connection = new Connection(channel, this);
+          connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        }
+        catch (IOException e) {
+          try {
+            channel.close();
+          }
+          catch (IOException ignored) {
+            //closing anyway
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * One player's connection. Requests are read and played on the thread of its loop, but
+   * messages may be pushed to it from the loop of its opponent, so its output buffer is
+   * only touched while holding its lock.
+   */
+  private final class Connection implements ViewInterface {
+    private final SocketChannel channel;
+    private final SelectorLoop loop;
+    private final ByteBuffer in;
+    private ByteBuffer out; // in fill mode: what is waiting to be sent lies before position
+    private SelectionKey key;
+    private Game game; // null until the player joins
+    private ReversiController controller; // null until the game starts
+
+    Connection(SocketChannel channel, SelectorLoop loop) {
+      this.channel = channel;
+      this.loop = loop;
+      this.in = ByteBuffer.allocateDirect(4 * (4 + Protocol.MAX_REQUEST_LENGTH));
+      this.out = ByteBuffer.allocateDirect(256);
+    }
+
+    //helper: reads what has arrived, and plays every complete request in it
+    void read() throws IOException {
+      if (channel.read(in) < 0) {
+        this.close();
+        return;
+      }
+      in.flip();
+      while (in.remaining() >= 4) {
+        int length = in.getInt(in.position());
+        if (length < 1 || length > Protocol.MAX_REQUEST_LENGTH) {
+          this.close();
+          return;
+        }
+        if (in.remaining() < 4 + length) {
+          break;
+        }
+        int end = in.position() + 4 + length;
+        in.position(in.position() + 4);
+        this.handle(in, length);
+        in.position(end);
+      }
+      in.compact();
+    }
+
+    //helper: plays one request of the given length, read straight from the input buffer
+    private void handle(ByteBuffer request, int length) {
+      byte type = request.get();
+      if (type == Protocol.JOIN && length == 7) {
+        byte shape = request.get();
+        int sideLength = request.get();
+        join(this, shape, sideLength, request.getInt());
+      }
+      else if ((type == Protocol.MOVE && length == 5) || (type == Protocol.PASS && length == 1)) {
+        if (game == null) {
+          this.sendMessage("Join a game first");
+          return;
+        }
+        int cell = type == Protocol.MOVE ? request.getInt() : -1;
+        synchronized (game) {
+          game.play(this, cell);
+        }
+      }
+      else {
+        this.sendMessage("Unknown request");
+      }
+    }
+
+    //helper: sends what is waiting, and stops waiting to write once it is all sent
+    synchronized void flush() throws IOException {
+      out.flip();
+      channel.write(out);
+      out.compact();
+      if (out.position() == 0 && key.isValid()) {
+        key.interestOps(SelectionKey.OP_READ);
+      }
+    }
+
+    synchronized void sendJoined(int player) {
+      this.startFrame(2, Protocol.JOINED).put((byte) player);
+      this.finishFrame();
+    }
+
+    synchronized void sendTurn(int player, ReadonlyReversiModel model) {
+      int cells = model.getGeometry().size();
+      ByteBuffer frame = this.startFrame(2 + cells, Protocol.TURN).put((byte) player);
+      for (int i = 0; i < cells; i++) {
+        frame.put((byte) model.getOwnerAt(i));
+      }
+      this.finishFrame();
+    }
+
+    synchronized void sendMessage(String message) {
+      byte[] text = message.getBytes(StandardCharsets.UTF_8);
+      this.startFrame(1 + text.length, Protocol.MESSAGE).put(text);
+      this.finishFrame();
+    }
+
+    synchronized void sendGameOver(int score1, int score2) {
+      this.startFrame(9, Protocol.GAME_OVER).putInt(score1).putInt(score2);
+      this.finishFrame();
+    }
+
+    //helper: makes room for a frame and writes its length and type, holding the lock
+    private ByteBuffer startFrame(int length, byte type) {
+      if (out.remaining() < 4 + length) {
+        int capacity = out.capacity();
+        while (capacity - out.position() < 4 + length) {
+          capacity *= 2;
+        }
+        ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+        out.flip();
+        grown.put(out);
+        out = grown;
+      }
+      return out.putInt(length).put(type);
+    }
+
+    //helper: asks the loop to send the frame, holding the lock
+    private void finishFrame() {
+      try {
+        if (key != null && key.isValid()) {
+          key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+          if (Thread.currentThread() != loop.thread) {
+            loop.selector.wakeup();
+          }
+        }
+      }
+      catch (CancelledKeyException e) {
+        //the player left between the check and the change, so there is nobody to send to
+      }
+    }
+
+    //helper: closes the connection, ending its game
+    void close() {
+      if (key != null) {
+        key.cancel();
+      }
+      try {
+        channel.close();
+      }
+      catch (IOException e) {
+        //closing anyway
+      }
+      if (game != null) {
+        synchronized (game) {
+          game.leave(this);
+        }
+      }
+    }
+
+    @Override
+    public Coordinate findCoordClicked(int mouseX, int mouseY) {
+      return null;
+    }
+
+    @Override
+    public void addFeatures(ControllerFeatures features) {
+      //requests arrive over the connection instead of from clicks
+    }
+
+    @Override
+    public void display() {
+      //the board is sent with each turn instead
+    }
+
+    @Override
+    public void displayMessage(String message) {
+      this.sendMessage(message);
+    }
+  }
+}
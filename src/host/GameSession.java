@@ -0,0 +1,54 @@
+package host;
+
+import java.util.List;
+
+import model.ReadonlyReversiModel;
+
+/**
+ * One finished game played by a GameHost.
+ */
+public final class GameSession {
+  private final ReadonlyReversiModel model;
+  private final HeadlessView view;
+  private final int moves;
+  private final long nanos;
+
+  GameSession(ReadonlyReversiModel model, HeadlessView view, int moves, long nanos) {
+    this.model = model;
+    this.view = view;
+    this.moves = moves;
+    this.nanos = nanos;
+  }
+
+  /**
+   * Gets the game as it ended.
+   * @return the model of the game.
+   */
+  public ReadonlyReversiModel getModel() {
+    return model;
+  }
+
+  /**
+   * Gets the messages the controllers showed, if the host keeps them.
+   * @return the messages in the order they were shown.
+   */
+  public List<String> getMessages() {
+    return view.getMessages();
+  }
+
+  /**
+   * Gets the number of discs placed in the game, not counting passes.
+   * @return the number of moves.
+   */
+  public int getMoves() {
+    return moves;
+  }
+
+  /**
+   * Gets how long the game took to play, not counting time waiting for a slot.
+   * @return the time in nanoseconds.
+   */
+  public long getNanos() {
+    return nanos;
+  }
+}
@@ -0,0 +1,55 @@
+package host;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import controller.ControllerFeatures;
+import model.Coordinate;
+import view.ViewInterface;
+
+/**
+ * A view for games nobody watches. It draws nothing and is never clicked, and it can keep
+ * the messages the controllers show, such as who won, to read once the game is over.
+ */
+public class HeadlessView implements ViewInterface {
+  private final List<String> messages; // null if messages are not kept
+
+  /**
+   * Constructs a view that shows nothing.
+   * @param recording true to keep every message the controllers show.
+   */
+  public HeadlessView(boolean recording) {
+    this.messages = recording ? new ArrayList<>() : null;
+  }
+
+  @Override
+  public Coordinate findCoordClicked(int mouseX, int mouseY) {
+    return null;
+  }
+
+  @Override
+  public void addFeatures(ControllerFeatures features) {
+    //there is nobody to click
+  }
+
+  @Override
+  public void display() {
+    //there is nothing to draw on
+  }
+
+  @Override
+  public void displayMessage(String message) {
+    if (messages != null) {
+      messages.add(message);
+    }
+  }
+
+  /**
+   * Gets the messages shown so far.
+   * @return the messages in the order they were shown, empty if they are not kept.
+   */
+  public List<String> getMessages() {
+    return messages == null ? Collections.emptyList() : Collections.unmodifiableList(messages);
+  }
+}
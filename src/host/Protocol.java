@@ -0,0 +1,43 @@
+package host;
+
+/**
+ * The messages a GameServer and its players send each other.
+ * Every message is a frame: a 4 byte big-endian length, then that many bytes of payload,
+ * the first of which is the type of the message. Cells are given by their index in the
+ * board's BoardGeometry, which both sides can build from the shape and side length.
+ * <ul>
+ *   <li>JOIN, to the server: a shape byte, a side length byte and a 4 byte game id. The
+ *   first to join an id moves first, and the game starts once a second player joins.</li>
+ *   <li>MOVE, to the server: the 4 byte index of the cell to play.</li>
+ *   <li>PASS, to the server: nothing more.</li>
+ *   <li>JOINED, to a player: the player's number byte.</li>
+ *   <li>TURN, to a player whose turn it is: the player's number byte, then one byte per
+ *   cell holding its owner, 0 for nobody.</li>
+ *   <li>MESSAGE, to a player: a UTF-8 message, such as why a move was refused.</li>
+ *   <li>GAME_OVER, to both players: the 4 byte scores of player 1 and player 2.</li>
+ * </ul>
+ */
+public final class Protocol {
+
+  /**
+   * The longest payload a player may send. Replies can be longer, since TURN holds a
+   * byte for every cell.
+   */
+  public static final int MAX_REQUEST_LENGTH = 16;
+
+  public static final byte JOIN = 1;
+  public static final byte MOVE = 2;
+  public static final byte PASS = 3;
+
+  public static final byte JOINED = 10;
+  public static final byte TURN = 11;
+  public static final byte MESSAGE = 12;
+  public static final byte GAME_OVER = 13;
+
+  public static final byte HEXAGON = 0;
+  public static final byte SQUARE = 1;
+
+  private Protocol() {
+    //only constants
+  }
+}
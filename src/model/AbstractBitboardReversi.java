@@ -0,0 +1,481 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import controller.ObserverInterface;
+
+/**
+ * Abstract class for Reversi models that store the board as bitboards.
+ * Every cell of the board has a dense index, and each player owns a bitmask spread over
+ * one or more longs where bit i is set if that player has a disc on cell i.
+ * Implements the same turn, pass and game over rules as AbstractReversi, so the
+ * implementations can be used anywhere a ReversiModel is expected.
+ */
+public abstract class AbstractBitboardReversi implements ReversiModel {
+
+  //shared cells handed out by getBoard, BasicCell is immutable
+  private static final Cell[] CELLS = {new BasicCell(0), new BasicCell(1), new BasicCell(2)};
+
+  /**
+   * INVARIANT: discs[0] and discs[1] never share a set bit, and only bits of cells
+   * on the board are set.
+   * INTERPRETATION: discs[p - 1] holds the cells owned by player p.
+   */
+  protected long[][] discs;
+
+  protected BoardGeometry geometry;
+  protected int words;
+
+  //the Zobrist key of the discs, the xor of geometry.cellKey over every owned cell
+  protected long discsKey;
+
+  protected int sideLength;
+
+  protected int currentPlayerTurn;
+  protected boolean gameStarted;
+  protected int numPasses;
+
+  protected int numPlayers;
+
+  protected List<ObserverInterface> controllersToNotify;
+
+  //legal moves of each player for the current discs, null until asked for, never mutated
+  private long[][] legalCache = new long[2][];
+
+  /**
+   * Constructs an AbstractBitboardReversi object.
+   */
+  public AbstractBitboardReversi() {
+    geometry = new BoardGeometry(new ArrayList<>());
+    gameStarted = false;
+    controllersToNotify = new ArrayList<>();
+  }
+
+  /**
+   * Copy constructor used when cloning, lookup tables are never mutated so they are shared.
+   *
+   * @param other the game to copy.
+   */
+  protected AbstractBitboardReversi(AbstractBitboardReversi other) {
+    if (other.discs != null) {
+      this.discs = new long[][] {other.discs[0].clone(), other.discs[1].clone()};
+    }
+    this.geometry = other.geometry;
+    this.words = other.words;
+    this.discsKey = other.discsKey;
+    this.sideLength = other.sideLength;
+    this.currentPlayerTurn = other.currentPlayerTurn;
+    this.gameStarted = other.gameStarted;
+    this.numPasses = other.numPasses;
+    this.numPlayers = other.numPlayers;
+    this.controllersToNotify = new ArrayList<>();
+    this.legalCache = other.legalCache.clone();
+  }
+
+  @Override
+  public abstract ReversiModel clone();
+
+  //helper: builds the lookup tables for this side length and places the starting discs
+  protected abstract void createBoard(int sideLength);
+
+  //helper: the dense index of a coordinate, or -1 if it is not on the board
+  protected abstract int indexOf(Coordinate c);
+
+  //helper: the discs that placing a disc for player p at index would flip
+  protected abstract long[] flipsFor(int index, int p);
+
+  //helper: every empty cell where player p can legally move
+  protected abstract long[] legalMoves(int p);
+
+  @Override
+  public void startGame(int sideLength, int p) {
+    if (gameStarted) {
+      throw new IllegalStateException("The game has already started.");
+    }
+    if (sideLength < 3) {
+      throw new IllegalArgumentException("Side length must be greater than 2 for a valid board");
+    }
+    if (p != 2) {
+      throw new IllegalArgumentException("There must be 2 players in the game");
+    }
+
+    currentPlayerTurn = 1;
+    numPlayers = p;
+    this.sideLength = sideLength;
+    this.createBoard(sideLength);
+    this.discsKey = hashDiscs();
+    this.discsChanged();
+    numPasses = 0;
+    gameStarted = true;
+
+    if (!controllersToNotify.isEmpty()) {
+      this.notifyObserverTurn();
+    }
+  }
+
+  @Override
+  public void flipCell(Coordinate c, int p) {
+    this.makeMove(c, p);
+  }
+
+  @Override
+  public MoveRecord makeMove(Coordinate c, int p) {
+    if (p != currentPlayerTurn) {
+      throw new IllegalStateException("Not your turn");
+    }
+    if (!gameStarted) {
+      throw new IllegalStateException("The game has not started yet.");
+    }
+    if (isGameOver()) {
+      throw new IllegalStateException("The game is over.");
+    }
+    int index = indexOf(c);
+    if (index < 0) {
+      throw new IllegalArgumentException("Not a valid coordinate");
+    }
+
+    long[] flips = isEmptyCell(index) ? flipsFor(index, currentPlayerTurn) : new long[words];
+    if (isEmpty(flips)) {
+      throw new IllegalArgumentException("Not a valid move");
+    }
+
+    int[] flipped = new int[count(flips)];
+    int numFlipped = 0;
+    long[] own = discs[currentPlayerTurn - 1];
+    long[] opp = discs[2 - currentPlayerTurn];
+    for (int w = 0; w < words; w++) {
+      own[w] |= flips[w];
+      opp[w] &= ~flips[w];
+      long word = flips[w];
+      while (word != 0) {
+        int cell = (w << 6) + Long.numberOfTrailingZeros(word);
+        discsKey ^= geometry.cellKey(cell, 1) ^ geometry.cellKey(cell, 2);
+        flipped[numFlipped++] = cell;
+        word &= word - 1;
+      }
+    }
+    setBit(own, index);
+    discsKey ^= geometry.cellKey(index, currentPlayerTurn);
+    this.discsChanged();
+    MoveRecord move = new MoveRecord(currentPlayerTurn, index, flipped,
+            currentPlayerTurn, numPasses);
+    numPasses = 0;
+
+    currentPlayerTurn = 3 - currentPlayerTurn; //the other player
+    if (!hasValidMoves(currentPlayerTurn)) {
+      if (!isGameOver()) {
+        this.passMove(currentPlayerTurn);
+      }
+    }
+    return move;
+  }
+
+  @Override
+  public void unmakeMove(MoveRecord move) {
+    int index = move.getPlacedIndex();
+    if (index < 0 || index >= geometry.size() || ownerOf(index) != move.getPlayer()) {
+      throw new IllegalArgumentException("Not the last move made");
+    }
+    long[] own = discs[move.getPlayer() - 1];
+    long[] opp = discs[2 - move.getPlayer()];
+    for (int i = 0; i < move.getFlipCount(); i++) {
+      int flipped = move.getFlippedIndex(i);
+      clearBit(own, flipped);
+      setBit(opp, flipped);
+      discsKey ^= geometry.cellKey(flipped, 1) ^ geometry.cellKey(flipped, 2);
+    }
+    clearBit(own, index);
+    discsKey ^= geometry.cellKey(index, move.getPlayer());
+    this.discsChanged();
+    currentPlayerTurn = move.getPreviousTurn();
+    numPasses = move.getPreviousPasses();
+  }
+
+  @Override
+  public void passMove(int p) {
+    if (p != currentPlayerTurn) {
+      throw new IllegalStateException("Not your turn");
+    }
+    if (!gameStarted) {
+      throw new IllegalStateException("The game has not started yet.");
+    }
+    if (isGameOver()) {
+      throw new IllegalStateException("The game is over.");
+    }
+    this.currentPlayerTurn = 3 - currentPlayerTurn;
+    numPasses++;
+    if (!hasValidMoves(currentPlayerTurn)) {
+      this.currentPlayerTurn = 3 - currentPlayerTurn;
+      numPasses++;
+    }
+  }
+
+  @Override
+  public boolean isGameOver() {
+    if (!gameStarted) {
+      throw new IllegalStateException("The game has not started yet.");
+    }
+    return (!hasValidMoves(currentPlayerTurn) && !hasValidMoves(3 - currentPlayerTurn))
+            || numPasses >= 2;
+  }
+
+  @Override
+  public int getScore(int p) {
+    if (!gameStarted) {
+      throw new IllegalStateException("The game has not started yet.");
+    }
+    if (p != 1 && p != 2) {
+      throw new IllegalArgumentException("Player does not exist in game");
+    }
+    return count(discs[p - 1]);
+  }
+
+  @Override
+  public int getSideLength() {
+    return this.sideLength;
+  }
+
+  @Override
+  public LinkedHashMap<Coordinate, Cell> getBoard() {
+    LinkedHashMap<Coordinate, Cell> board = new LinkedHashMap<>();
+    for (int i = 0; i < geometry.size(); i++) {
+      board.put(geometry.coordinateAt(i), CELLS[ownerOf(i)]);
+    }
+    return board;
+  }
+
+  @Override
+  public BoardGeometry getGeometry() {
+    return geometry;
+  }
+
+  @Override
+  public int getOwnerAt(Coordinate c) {
+    int index = indexOf(c);
+    if (index < 0) {
+      throw new IllegalArgumentException("Not a valid coordinate");
+    }
+    return ownerOf(index);
+  }
+
+  @Override
+  public int getOwnerAt(int index) {
+    if (index < 0 || index >= geometry.size()) {
+      throw new IllegalArgumentException("Not a valid cell index");
+    }
+    return ownerOf(index);
+  }
+
+  @Override
+  public boolean isMoveValid(Coordinate c, int playerTurn) {
+    int index = indexOf(c);
+    if (index < 0 || !isEmptyCell(index) || (playerTurn != 1 && playerTurn != 2)) {
+      return false;
+    }
+    return !isEmpty(flipsFor(index, playerTurn));
+  }
+
+  @Override
+  public List<Coordinate> getAvailableMoves(int p) {
+    List<Coordinate> available = new ArrayList<>();
+    if (!gameStarted || (p != 1 && p != 2)) {
+      return available;
+    }
+    long[] moves = cachedLegalMoves(p);
+    for (int w = 0; w < words; w++) {
+      long word = moves[w];
+      while (word != 0) {
+        available.add(geometry.coordinateAt((w << 6) + Long.numberOfTrailingZeros(word)));
+        word &= word - 1;
+      }
+    }
+    return available;
+  }
+
+  @Override
+  public int getCurrentTurn() {
+    return currentPlayerTurn;
+  }
+
+  @Override
+  public int howManyCellsDoesThisMoveFlip(Coordinate coord, int p) {
+    this.getScore(p);
+    if (!this.isMoveValid(coord, p)) {
+      return 0;
+    }
+    //mirrors playing the move on a clone, which only succeeds on this player's turn
+    if (p != currentPlayerTurn) {
+      throw new IllegalStateException("Not your turn");
+    }
+    if (isGameOver()) {
+      throw new IllegalStateException("The game is over.");
+    }
+    return flipCount(indexOf(coord), p);
+  }
+
+  @Override
+  public void countFlips(int p, int[] counts) {
+    this.getScore(p);
+    if (counts.length < geometry.size()) {
+      throw new IllegalArgumentException("Counts should have a slot for every cell");
+    }
+    Arrays.fill(counts, 0, geometry.size(), 0);
+    long[] moves = cachedLegalMoves(p);
+    for (int w = 0; w < words; w++) {
+      long word = moves[w];
+      while (word != 0) {
+        int index = (w << 6) + Long.numberOfTrailingZeros(word);
+        counts[index] = flipCount(index, p);
+        word &= word - 1;
+      }
+    }
+  }
+
+  @Override
+  public void generateMoves(int p, MoveList moves) {
+    this.getScore(p);
+    moves.clear();
+    long[] own = discs[p - 1];
+    long[] opponent = discs[2 - p];
+    long[] legalMoves = cachedLegalMoves(p);
+    for (int w = 0; w < words; w++) {
+      long word = legalMoves[w];
+      while (word != 0) {
+        int index = (w << 6) + Long.numberOfTrailingZeros(word);
+        moves.startMove(index);
+        for (int direction = 0; direction < geometry.directionCount(); direction++) {
+          int end = geometry.neighbor(index, direction);
+          while (end >= 0 && getBit(opponent, end)) {
+            end = geometry.neighbor(end, direction);
+          }
+          //only a line closed by the player's own disc is flipped
+          if (end >= 0 && getBit(own, end)) {
+            for (int current = geometry.neighbor(index, direction); current != end;
+                 current = geometry.neighbor(current, direction)) {
+              moves.addFlip(current);
+            }
+          }
+        }
+        word &= word - 1;
+      }
+    }
+  }
+
+  //helper: the number of discs player p's move at index flips, walking each line on the
+  // live bitboards, unlike flipsFor, which builds a new mask
+  private int flipCount(int index, int p) {
+    long[] own = discs[p - 1];
+    long[] opponent = discs[2 - p];
+    int count = 0;
+    for (int direction = 0; direction < geometry.directionCount(); direction++) {
+      int current = geometry.neighbor(index, direction);
+      int length = 0;
+      while (current >= 0 && getBit(opponent, current)) {
+        length++;
+        current = geometry.neighbor(current, direction);
+      }
+      if (current >= 0 && getBit(own, current)) {
+        count += length;
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public long positionKey() {
+    assert discsKey == hashDiscs() : "Position key is out of date";
+    return discsKey ^ geometry.turnKey(currentPlayerTurn);
+  }
+
+  //helper: the Zobrist key of the discs, computed from every cell
+  private long hashDiscs() {
+    long key = 0L;
+    for (int index = 0; index < geometry.size(); index++) {
+      key ^= geometry.cellKey(index, ownerOf(index));
+    }
+    return key;
+  }
+
+  @Override
+  public void notifyObserverTurn() {
+    controllersToNotify.get(currentPlayerTurn - 1).getNotifiedItsYourPlayersMove();
+  }
+
+  @Override
+  public void subscribe(ObserverInterface observer) {
+    controllersToNotify.add(observer);
+  }
+
+  //helper: determines if the player has any valid moves
+  protected boolean hasValidMoves(int playerTurn) {
+    if (playerTurn < 0 || playerTurn > numPlayers) {
+      throw new IllegalArgumentException("Not a valid player");
+    }
+    if (playerTurn == 0) {
+      return false;
+    }
+    return !isEmpty(cachedLegalMoves(playerTurn));
+  }
+
+  //helper: the legal moves of player p, computed at most once per position
+  private long[] cachedLegalMoves(int p) {
+    if (legalCache[p - 1] == null) {
+      legalCache[p - 1] = legalMoves(p);
+    }
+    return legalCache[p - 1];
+  }
+
+  //helper: forgets the cached legal moves, called whenever a disc is placed, flipped or removed
+  protected void discsChanged() {
+    legalCache[0] = null;
+    legalCache[1] = null;
+  }
+
+  //helper: the owner of the cell at the given index
+  protected int ownerOf(int index) {
+    if (getBit(discs[0], index)) {
+      return 1;
+    }
+    if (getBit(discs[1], index)) {
+      return 2;
+    }
+    return 0;
+  }
+
+  //helper: determines if nobody owns the cell at the given index
+  protected boolean isEmptyCell(int index) {
+    return !getBit(discs[0], index) && !getBit(discs[1], index);
+  }
+
+  protected static boolean isEmpty(long[] board) {
+    for (long word : board) {
+      if (word != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  protected static int count(long[] board) {
+    int count = 0;
+    for (long word : board) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  protected static boolean getBit(long[] board, int index) {
+    return (board[index >>> 6] & (1L << index)) != 0;
+  }
+
+  protected static void setBit(long[] board, int index) {
+    board[index >>> 6] |= 1L << index;
+  }
+
+  protected static void clearBit(long[] board, int index) {
+    board[index >>> 6] &= ~(1L << index);
+  }
+}
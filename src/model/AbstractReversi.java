@@ -1,6 +1,7 @@
 package model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 
@@ -17,7 +18,31 @@ public abstract class AbstractReversi implements ReversiModel {
    * INTERPRETATION: The number of players must be at most 2.
    */
 
-  protected LinkedHashMap<Coordinate, Cell> board;
+  //shared cells handed out by getBoard, BasicCell is immutable
+  private static final Cell[] CELLS = {new BasicCell(0), new BasicCell(1), new BasicCell(2)};
+
+  /**
+   * INVARIANT: cells.size() == geometry.size().
+   * INTERPRETATION: cells.get(i) is the owner of the cell at index i of the geometry,
+   * 0 if nobody owns it. The cells keep their own disc counts and Zobrist key up to date,
+   * and share their chunks with clones of this game until either side changes them.
+   * Running with assertions enabled (-ea) checks the counts and key against a full recount.
+   */
+  protected BoardGeometry geometry;
+  protected SharedCells cells;
+
+  /**
+   * INVARIANT: once movesKnown is true, every cell not marked in dirty has its bit set in
+   * frontier[p - 1] iff it is empty and borders a disc of the other player, and in
+   * legal[p - 1] iff player p can move there.
+   * INTERPRETATION: the candidate and legal moves of each player, cached between moves.
+   * setOwner marks the cells a change can affect as dirty, and refreshMoves rechecks only
+   * those, so the work per move follows the cells the move touched, not the board size.
+   */
+  private long[][] frontier;
+  private long[][] legal;
+  private long[] dirty;
+  private boolean movesKnown;
 
   protected int sideLength;
 
@@ -33,7 +58,8 @@ public abstract class AbstractReversi implements ReversiModel {
    * Constructs an AbstractReversi object.
    */
   public AbstractReversi() {
-    board = new LinkedHashMap<>();
+    BoardGeometry empty = new BoardGeometry(new ArrayList<>());
+    loadBoard(empty, new SharedCells(empty, new byte[0]));
     gameStarted = false;
     controllersToNotify = new ArrayList<>();
   }
@@ -41,12 +67,14 @@ public abstract class AbstractReversi implements ReversiModel {
   /**
    * Constructor to pass in fields.
    *
+   * @param geometry the geometry of the board.
+   * @param cells the owner of every cell of the board, which this game takes over.
    * @param sideLength the side length of the board.
    */
-  protected AbstractReversi(LinkedHashMap<Coordinate, Cell> board, int sideLength,
+  protected AbstractReversi(BoardGeometry geometry, SharedCells cells, int sideLength,
                             int currentPlayerTurn, boolean gameStarted, int numPasses,
                             int numPlayers) {
-    this.board = board;
+    loadBoard(geometry, cells);
     this.sideLength = sideLength;
     this.currentPlayerTurn = currentPlayerTurn;
     this.gameStarted = gameStarted;
@@ -54,21 +82,192 @@ public abstract class AbstractReversi implements ReversiModel {
     this.numPlayers = numPlayers;
   }
 
-  protected abstract ReversiModel cloneChild(LinkedHashMap<Coordinate,
-          Cell> board, int sideLength, int currentPlayerTurn,
+  protected abstract ReversiModel cloneChild(BoardGeometry geometry, SharedCells cells,
+                                             int sideLength, int currentPlayerTurn,
                                              boolean gameStarted, int numPasses, int numPlayers);
 
   @Override
   public ReversiModel clone() {
-    return this.cloneChild(board, sideLength,
+    ReversiModel child = this.cloneChild(geometry, cells.copy(), sideLength,
             currentPlayerTurn, gameStarted, numPasses, numPlayers);
+    if (movesKnown && child instanceof AbstractReversi) {
+      //the child has the same cells, so it starts from our moves instead of finding them
+      AbstractReversi copy = (AbstractReversi) child;
+      copy.frontier = new long[][] {frontier[0].clone(), frontier[1].clone()};
+      copy.legal = new long[][] {legal[0].clone(), legal[1].clone()};
+      copy.dirty = dirty.clone();
+      copy.movesKnown = true;
+    }
+    return child;
   }
 
 
   @Override
   public LinkedHashMap<Coordinate, Cell> getBoard() {
+    LinkedHashMap<Coordinate, Cell> board = new LinkedHashMap<>();
+    for (int i = 0; i < cells.size(); i++) {
+      board.put(geometry.coordinateAt(i), CELLS[cells.get(i)]);
+    }
+    return board;
+  }
 
-    return new LinkedHashMap<>(board);
+  @Override
+  public BoardGeometry getGeometry() {
+    return geometry;
+  }
+
+  @Override
+  public int getOwnerAt(Coordinate c) {
+    int index = geometry.indexOf(c);
+    if (index < 0) {
+      throw new IllegalArgumentException("Not a valid coordinate");
+    }
+    return cells.get(index);
+  }
+
+  @Override
+  public int getOwnerAt(int index) {
+    if (index < 0 || index >= cells.size()) {
+      throw new IllegalArgumentException("Not a valid cell index");
+    }
+    return cells.get(index);
+  }
+
+  /**
+   * Replaces the board with the given cells, building a geometry for them.
+   * Used to set a game up in an arbitrary position.
+   *
+   * @param board the cells of the new board, in board order.
+   */
+  protected void loadBoard(LinkedHashMap<Coordinate, Cell> board) {
+    byte[] owners = new byte[board.size()];
+    int index = 0;
+    for (Cell cell : board.values()) {
+      owners[index++] = (byte) cell.getOwner();
+    }
+    loadBoard(new BoardGeometry(new ArrayList<>(board.keySet())), owners);
+  }
+
+  /**
+   * Replaces the board with the given cells, and counts the discs on it.
+   *
+   * @param geometry the geometry of the new board.
+   * @param cells the owner of every cell of the new board.
+   */
+  protected void loadBoard(BoardGeometry geometry, byte[] cells) {
+    loadBoard(geometry, new SharedCells(geometry, cells));
+  }
+
+  /**
+   * Replaces the board with the given cells, which already know their counts.
+   *
+   * @param geometry the geometry of the new board.
+   * @param cells the owner of every cell of the new board, which this game takes over.
+   */
+  protected void loadBoard(BoardGeometry geometry, SharedCells cells) {
+    this.geometry = geometry;
+    this.cells = cells;
+    this.movesKnown = false;
+  }
+
+  //helper: sets the owner of the cell at the given coordinate
+  protected void setOwner(Coordinate c, int owner) {
+    setOwner(geometry.indexOf(c), owner);
+  }
+
+  //helper: sets the owner of the cell at the given index, which keeps the disc counts in step
+  protected void setOwner(int index, int owner) {
+    cells.set(index, owner);
+    if (movesKnown) {
+      markAffectedCells(index);
+    }
+  }
+
+  //helper: marks the changed cell, and the first empty cell along each line through it,
+  // since those are the only cells whose moves can depend on it
+  private void markAffectedCells(int index) {
+    setBit(dirty, index, true);
+    for (int direction = 0; direction < geometry.directionCount(); direction++) {
+      int current = geometry.neighbor(index, direction);
+      while (current >= 0 && cells.get(current) != 0) {
+        current = geometry.neighbor(current, direction);
+      }
+      if (current >= 0) {
+        setBit(dirty, current, true);
+      }
+    }
+  }
+
+  //helper: brings the cached frontier and legal moves up to date
+  private void refreshMoves() {
+    if (!movesKnown) {
+      int words = (cells.size() + 63) >>> 6;
+      frontier = new long[2][words];
+      legal = new long[2][words];
+      dirty = new long[words];
+      for (int index = 0; index < cells.size(); index++) {
+        refreshCell(index);
+      }
+      movesKnown = true;
+      return;
+    }
+    for (int w = 0; w < dirty.length; w++) {
+      long word = dirty[w];
+      while (word != 0) {
+        refreshCell((w << 6) + Long.numberOfTrailingZeros(word));
+        word &= word - 1;
+      }
+      dirty[w] = 0;
+    }
+  }
+
+  //helper: rechecks the frontier and legal move bits of one cell for both players
+  private void refreshCell(int index) {
+    for (int p = 1; p <= 2; p++) {
+      boolean candidate = cells.get(index) == 0 && bordersDisc(index, 3 - p);
+      setBit(frontier[p - 1], index, candidate);
+      setBit(legal[p - 1], index, candidate && isMoveValid(index, p));
+    }
+  }
+
+  //helper: determines if the cell at index is next to a disc of the given player
+  private boolean bordersDisc(int index, int owner) {
+    for (int direction = 0; direction < geometry.directionCount(); direction++) {
+      int next = geometry.neighbor(index, direction);
+      if (next >= 0 && cells.get(next) == owner) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void setBit(long[] bits, int index, boolean value) {
+    if (value) {
+      bits[index >>> 6] |= 1L << index;
+    }
+    else {
+      bits[index >>> 6] &= ~(1L << index);
+    }
+  }
+
+  //helper: the Zobrist key of the discs, computed from every cell
+  private long hashCells() {
+    long key = 0L;
+    for (int index = 0; index < cells.size(); index++) {
+      key ^= geometry.cellKey(index, cells.get(index));
+    }
+    return key;
+  }
+
+  //helper: counts the discs of one owner by looking at each cell
+  private int countDiscs(int owner) {
+    int count = 0;
+    for (int index = 0; index < cells.size(); index++) {
+      if (cells.get(index) == owner) {
+        count++;
+      }
+    }
+    return count;
   }
 
 
@@ -111,6 +310,17 @@ public abstract class AbstractReversi implements ReversiModel {
 
   @Override
   public void flipCell(Coordinate c, int p) {
+    this.makeMove(c, p);
+
+    //assume player1 is playing vs player2 and player1 just made a move.
+    //check if player2 has any valid moves available, and if they do, it is
+    //player2's turn. if player2 doesn't have any moves available, it skips
+    //player2's turn and it is now player1's turn again. if player1 doesn't
+    //have any more moves, the game is over.
+  }
+
+  @Override
+  public MoveRecord makeMove(Coordinate c, int p) {
 
     if (p != currentPlayerTurn) {
       throw new IllegalStateException("Not your turn");
@@ -125,49 +335,55 @@ public abstract class AbstractReversi implements ReversiModel {
       throw new IllegalStateException("The game is over.");
     }
     //checks to make sure that the cell is on the board
-    if (!isValidCoord(c)) {
+    int index = geometry.indexOf(c);
+    if (index < 0) {
       throw new IllegalArgumentException("Not a valid coordinate");
     }
+    if (!isMoveValid(index, currentPlayerTurn)) {
+      throw new IllegalArgumentException("Not a valid move");
+    }
 
-    // if flipping this cell is a valid move
-    if (isMoveValid(c, currentPlayerTurn)) {
-      //flip the cell of the players turn
-      board.put(c, new BasicCell(currentPlayerTurn));
-      numPasses = 0;
-      //flip all cells between this cell and same player cell,
-      // where either x,y,z is equal
-
-      for (Coordinate direction : c.getDirections()) { //gets the 6 directions
-        //slightly redundant FIX LATER
+    //count first, so the record holds exactly the flipped cells
+    int[] flipped = new int[flipCount(index, currentPlayerTurn)];
+    MoveRecord move = new MoveRecord(currentPlayerTurn, index, flipped,
+            currentPlayerTurn, numPasses);
 
-        if (hasStraightLine(c, direction, currentPlayerTurn)) {
-          //flip all cells in the direction
-          flipCellsInDirection(c, direction);
-        }
+    //flip the cell of the players turn
+    setOwner(index, currentPlayerTurn);
+    numPasses = 0;
+    //flip all cells between this cell and same player cell, recording each one
+    int numFlipped = 0;
+    for (int direction = 0; direction < geometry.directionCount(); direction++) {
+      int length = flipsInDirection(index, direction, currentPlayerTurn);
+      int current = index;
+      for (int i = 0; i < length; i++) {
+        current = geometry.neighbor(current, direction);
+        setOwner(current, currentPlayerTurn);
+        flipped[numFlipped++] = current;
       }
-    } else {
-      throw new IllegalArgumentException("Not a valid move");
     }
 
-
     currentPlayerTurn = 3 - currentPlayerTurn; //the other player
     if (!hasValidMoves(currentPlayerTurn)) {
       if (!isGameOver()) {
         this.passMove(currentPlayerTurn);
       }
-
     }
-    //showValidMoves(currentTurn);
-
-
-    //might be handled by another method:
-
-    //assume player1 is playing vs player2 and player1 just made a move.
-    //check if player2 has any valid moves available, and if they do, it is
-    //player2's turn. if player2 doesn't have any moves available, it skips
-    //player2's turn and it is now player1's turn again. if player1 doesn't
-    //have any more moves, the game is over.
+    return move;
+  }
 
+  @Override
+  public void unmakeMove(MoveRecord move) {
+    int index = move.getPlacedIndex();
+    if (index < 0 || index >= cells.size() || cells.get(index) != move.getPlayer()) {
+      throw new IllegalArgumentException("Not the last move made");
+    }
+    for (int i = 0; i < move.getFlipCount(); i++) {
+      setOwner(move.getFlippedIndex(i), 3 - move.getPlayer());
+    }
+    setOwner(index, 0);
+    currentPlayerTurn = move.getPreviousTurn();
+    numPasses = move.getPreviousPasses();
   }
 
   //helper: determines if the player has any valid moves
@@ -176,8 +392,12 @@ public abstract class AbstractReversi implements ReversiModel {
     if (playerTurn < 0 || playerTurn > numPlayers) {
       throw new IllegalArgumentException("Not a valid player");
     }
-    for (Coordinate coordinate : board.keySet()) {
-      if (isMoveValid(coordinate, playerTurn)) {
+    if (playerTurn == 0) {
+      return false;
+    }
+    refreshMoves();
+    for (long word : legal[playerTurn - 1]) {
+      if (word != 0) {
         return true;
       }
     }
@@ -196,12 +416,16 @@ public abstract class AbstractReversi implements ReversiModel {
 
   //helper: flips cells on an axis (x, y, z)
   protected void flipCellsInDirection(Coordinate c, Coordinate direction) {
+    flipCellsInDirection(geometry.indexOf(c), geometry.directionIndex(direction));
+  }
 
-    Coordinate currentCoord = c.add(direction);
+  //helper: flips cells from the cell at index, in direction, up to the next current player cell
+  protected void flipCellsInDirection(int index, int direction) {
+    int current = geometry.neighbor(index, direction);
 
-    while (board.get(currentCoord).getOwner() != currentPlayerTurn) {
-      board.put(currentCoord, new BasicCell(currentPlayerTurn));
-      currentCoord = currentCoord.add(direction);
+    while (current >= 0 && cells.get(current) != currentPlayerTurn) {
+      setOwner(current, currentPlayerTurn);
+      current = geometry.neighbor(current, direction);
     }
   }
 
@@ -254,13 +478,8 @@ public abstract class AbstractReversi implements ReversiModel {
     if (p != 1 && p != 2) {
       throw new IllegalArgumentException("Player does not exist in game");
     }
-    int score = 0;
-    for (Coordinate coordinate : board.keySet()) {
-      if (board.get(coordinate).getOwner() == p) {
-        score++;
-      }
-    }
-    return score;
+    assert cells.count(p) == countDiscs(p) : "Disc counts are out of date";
+    return cells.count(p);
   }
 
   //  @Override
@@ -283,12 +502,18 @@ public abstract class AbstractReversi implements ReversiModel {
   @Override
   public boolean isMoveValid(Coordinate c, int playerTurn) {
     // Check if the move is within the bounds of the board.
-    if (!this.isValidCoord(c) || board.get(c).getOwner() != 0) {
+    int index = geometry.indexOf(c);
+    return index >= 0 && isMoveValid(index, playerTurn);
+  }
+
+  //helper: determines if a move at the cell with the given index is valid
+  protected boolean isMoveValid(int index, int playerTurn) {
+    if (cells.get(index) != 0) {
       return false;
     }
 
-    for (Coordinate direction : c.getDirections()) { //gets the 6 directions
-      if (hasStraightLine(c, direction, playerTurn)) {
+    for (int direction = 0; direction < geometry.directionCount(); direction++) {
+      if (hasStraightLine(index, direction, playerTurn)) {
         return true;
       }
     }
@@ -297,45 +522,66 @@ public abstract class AbstractReversi implements ReversiModel {
 
   //helper: determines if there is potential for a straight line of the same player's cells
   protected boolean hasStraightLine(Coordinate c, Coordinate direction, int currentTurn) {
-    Coordinate currentCoord = c.add(direction);
+    int index = geometry.indexOf(c);
+    int d = geometry.directionIndex(direction);
+    return index >= 0 && d >= 0 && hasStraightLine(index, d, currentTurn);
+  }
 
-    if (!this.isValidCoord(currentCoord)) {
-      return false;
-    }
+  //helper: the same check on the cell with the given index, in the direction with that index
+  protected boolean hasStraightLine(int index, int direction, int currentTurn) {
+    int current = geometry.neighbor(index, direction);
 
     // if neighbor cell in this direction is owned by other player
-    if (board.get(currentCoord).getOwner() != 3 - currentTurn) { //e
+    if (current < 0 || cells.get(current) != 3 - currentTurn) {
       return false;
     }
 
     // goes in one direction until it finds same player cell
-    while (this.isValidCoord(currentCoord) && board.get(currentCoord).getOwner() != 0) {
-      currentCoord = currentCoord.add(direction);
+    while (cells.get(current) != 0) {
+      current = geometry.neighbor(current, direction);
 
-      //new check
-      if (!this.isValidCoord(currentCoord)) {
+      if (current < 0) {
         return false;
       }
 
-      if (board.get(currentCoord).getOwner() == currentTurn) {
+      if (cells.get(current) == currentTurn) {
         return true;
       }
     }
     return false; // No player's disc found at the far end.
   }
 
+  //helper: the number of opponent cells a disc at index would flip in direction, 0 if none
+  protected int flipsInDirection(int index, int direction, int currentTurn) {
+    int current = geometry.neighbor(index, direction);
+    int length = 0;
+
+    while (current >= 0 && cells.get(current) == 3 - currentTurn) {
+      length++;
+      current = geometry.neighbor(current, direction);
+    }
+    return current >= 0 && cells.get(current) == currentTurn ? length : 0;
+  }
+
 
   //helper: determines if the coordinate is on the board
   protected boolean isValidCoord(Coordinate c) {
-    return board.containsKey(c);
+    return geometry.indexOf(c) >= 0;
   }
 
   @Override
   public List<Coordinate> getAvailableMoves(int p) {
     List<Coordinate> available = new ArrayList<>();
-    for (Coordinate coord : this.board.keySet()) {
-      if (isMoveValid(coord, p)) {
-        available.add(coord);
+    if (p != 1 && p != 2) {
+      return available;
+    }
+    refreshMoves();
+    long[] moves = legal[p - 1];
+    for (int w = 0; w < moves.length; w++) {
+      long word = moves[w];
+      while (word != 0) {
+        available.add(geometry.coordinateAt((w << 6) + Long.numberOfTrailingZeros(word)));
+        word &= word - 1;
       }
     }
     return available;
@@ -346,6 +592,13 @@ public abstract class AbstractReversi implements ReversiModel {
     return currentPlayerTurn;
   }
 
+  @Override
+  public long positionKey() {
+    assert cells.key() == hashCells() : "Position key is out of date";
+    //the side to move is folded in here, so turn changes and passes cost nothing
+    return cells.key() ^ geometry.turnKey(currentPlayerTurn);
+  }
+
   @Override
   public void notifyObserverTurn() {
     controllersToNotify.get(currentPlayerTurn - 1).getNotifiedItsYourPlayersMove();
@@ -359,18 +612,72 @@ public abstract class AbstractReversi implements ReversiModel {
   @Override
   public int howManyCellsDoesThisMoveFlip(Coordinate coord, int p) {
 
-    int currentScore = this.getScore(p);
+    this.getScore(p);
 
-    if (this.isMoveValid(coord, p)) {
-      ReversiModel clonedModelToTestMove = this.clone();
+    if (!this.isMoveValid(coord, p)) {
+      return 0;
+    }
+    //mirrors playing the move, which only succeeds on this player's turn
+    if (p != currentPlayerTurn) {
+      throw new IllegalStateException("Not your turn");
+    }
+    if (isGameOver()) {
+      throw new IllegalStateException("The game is over.");
+    }
+    return flipCount(geometry.indexOf(coord), p);
+  }
 
-      clonedModelToTestMove.flipCell(coord, p);
-      return clonedModelToTestMove.getScore(p) - currentScore - 1;
+  @Override
+  public void countFlips(int p, int[] counts) {
+    this.getScore(p);
+    if (counts.length < cells.size()) {
+      throw new IllegalArgumentException("Counts should have a slot for every cell");
     }
-    else {
-      return 0;
+    Arrays.fill(counts, 0, cells.size(), 0);
+    refreshMoves();
+    long[] moves = legal[p - 1];
+    for (int w = 0; w < moves.length; w++) {
+      long word = moves[w];
+      while (word != 0) {
+        int index = (w << 6) + Long.numberOfTrailingZeros(word);
+        counts[index] = flipCount(index, p);
+        word &= word - 1;
+      }
     }
+  }
+
+  @Override
+  public void generateMoves(int p, MoveList moves) {
+    this.getScore(p);
+    moves.clear();
+    refreshMoves();
+    long[] legalMoves = legal[p - 1];
+    for (int w = 0; w < legalMoves.length; w++) {
+      long word = legalMoves[w];
+      while (word != 0) {
+        int index = (w << 6) + Long.numberOfTrailingZeros(word);
+        moves.startMove(index);
+        for (int direction = 0; direction < geometry.directionCount(); direction++) {
+          int length = flipsInDirection(index, direction, p);
+          int current = index;
+          for (int i = 0; i < length; i++) {
+            current = geometry.neighbor(current, direction);
+            moves.addFlip(current);
+          }
+        }
+        word &= word - 1;
+      }
+    }
+  }
 
+  //helper: the number of cells player p's move at index flips, walking each line on the
+  // live board without changing it
+  private int flipCount(int index, int p) {
+    int count = 0;
+    for (int direction = 0; direction < geometry.directionCount(); direction++) {
+      count += flipsInDirection(index, direction, p);
+    }
+    return count;
   }
 
 
@@ -3,6 +3,10 @@ package model;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import view.TextualView;
 
 
@@ -17,6 +21,11 @@ public class AbstractReversiPackageTests {
 
   private TextualView view = new TextualView(game);
 
+  //the number of empty cells and of each player's discs, as the cells keep them
+  private static int[] discCounts(AbstractReversi game) {
+    return new int[] {game.cells.count(0), game.cells.count(1), game.cells.count(2)};
+  }
+
   @Test
   public void testHasValidMoves() {
     game.startGame(3, 2);
@@ -86,4 +95,121 @@ public class AbstractReversiPackageTests {
     Assert.assertFalse(game.isValidCoord(new CubicCoordinate(5,0,-5)));
   }
 
-}
\ No newline at end of file
+
+  @Test
+  public void testGeometryMatchesBoardOrder() {
+    game.startGame(3, 2);
+    BoardGeometry geometry = game.getGeometry();
+    Assert.assertEquals(19, geometry.size());
+    Assert.assertEquals(new ArrayList<>(game.getBoard().keySet()),
+            geometry.getCoordinates());
+    for (int i = 0; i < geometry.size(); i++) {
+      Coordinate c = geometry.coordinateAt(i);
+      Assert.assertEquals(i, geometry.indexOf(c));
+      Assert.assertEquals(game.getBoard().get(c).getOwner(), game.getOwnerAt(i));
+    }
+    Assert.assertEquals(-1, geometry.indexOf(new CubicCoordinate(3, 0, -3)));
+    Assert.assertEquals(-1, geometry.indexOf(null));
+    Assert.assertSame(geometry, BoardGeometry.hexagon(3));
+  }
+
+  @Test
+  public void testGeometryNeighbors() {
+    BoardGeometry geometry = BoardGeometry.hexagon(3);
+    int center = geometry.indexOf(new CubicCoordinate(0, 0, 0));
+    int edge = geometry.indexOf(new CubicCoordinate(2, 0, -2));
+    int east = geometry.directionIndex(new CubicCoordinate(1, 0, -1));
+    Assert.assertEquals(new CubicCoordinate(1, 0, -1),
+            geometry.coordinateAt(geometry.neighbor(center, east)));
+    Assert.assertEquals(-1, geometry.neighbor(edge, east));
+    Assert.assertThrows(IllegalArgumentException.class, () -> game.getOwnerAt(0));
+  }
+
+  @Test
+  public void testDiscCountsFollowEveryChange() {
+    game.startGame(4, 2);
+    Assert.assertArrayEquals(new int[] {31, 3, 3}, discCounts(game));
+    game.flipCellsInDirection(new CubicCoordinate(-3,0,3), new CubicCoordinate(1,0,-1));
+    Assert.assertArrayEquals(new int[] {30, 4, 3}, discCounts(game));
+    Assert.assertEquals(4, game.getScore(1));
+
+    HexagonReversi copy = (HexagonReversi) game.clone();
+    MoveRecord move = copy.makeMove(copy.getAvailableMoves(1).get(0), 1);
+    Assert.assertEquals(5 + move.getFlipCount(), copy.getScore(1));
+    copy.unmakeMove(move);
+    Assert.assertArrayEquals(discCounts(game), discCounts(copy));
+  }
+
+  @Test
+  public void testCachedMovesFollowDirectChanges() {
+    game.startGame(4, 2);
+    game.getAvailableMoves(1);
+    //changes the board without a move, the cached moves must still catch up
+    game.flipCellsInDirection(new CubicCoordinate(-3,0,3), new CubicCoordinate(1,0,-1));
+    game.setOwner(new CubicCoordinate(0,0,0), 2);
+    for (int p = 1; p <= 2; p++) {
+      List<Coordinate> expected = new ArrayList<>();
+      for (Coordinate c : game.getGeometry().getCoordinates()) {
+        if (game.isMoveValid(c, p)) {
+          expected.add(c);
+        }
+      }
+      Assert.assertEquals(expected, game.getAvailableMoves(p));
+      Assert.assertEquals(!expected.isEmpty(), game.hasValidMoves(p));
+    }
+  }
+
+  @Test
+  public void testClonesShareCellsUntilChanged() {
+    game.startGame(5, 2);
+    game.getAvailableMoves(1);
+    HexagonReversi copy = (HexagonReversi) game.clone();
+    long key = game.positionKey();
+    List<Coordinate> moves = game.getAvailableMoves(1);
+    Assert.assertEquals(moves, copy.getAvailableMoves(1));
+
+    //a move on either game leaves the other as it was
+    copy.flipCell(moves.get(0), 1);
+    Assert.assertEquals(key, game.positionKey());
+    Assert.assertEquals(0, game.getOwnerAt(moves.get(0)));
+    game.flipCell(moves.get(moves.size() - 1), 1);
+    Assert.assertEquals(0, copy.getOwnerAt(moves.get(moves.size() - 1)));
+    Assert.assertEquals(1, copy.getOwnerAt(moves.get(0)));
+    Assert.assertEquals(copy.getScore(1), discCounts(copy)[1]);
+    Assert.assertEquals(copy.getAvailableMoves(2), copy.clone().getAvailableMoves(2));
+  }
+
+  @Test
+  public void testClonesFromTwoThreadsLeaveTheGameAlone() throws Exception {
+    game.startGame(6, 2);
+    List<Coordinate> moves = game.getAvailableMoves(1);
+    long key = game.positionKey();
+    List<Throwable> failures = new CopyOnWriteArrayList<>();
+    Runnable cloneAndPlay = () -> {
+      try {
+        for (int i = 0; i < 500; i++) {
+          ReversiModel copy = game.clone();
+          copy.flipCell(moves.get(i % moves.size()), 1);
+          Assert.assertEquals(1, copy.getOwnerAt(moves.get(i % moves.size())));
+          Assert.assertNotEquals(key, copy.positionKey());
+        }
+      }
+      catch (Throwable e) {
+        failures.add(e);
+      }
+    };
+    Thread first = new Thread(cloneAndPlay);
+    Thread second = new Thread(cloneAndPlay);
+    first.start();
+    second.start();
+    first.join();
+    second.join();
+
+    Assert.assertEquals(new ArrayList<Throwable>(), failures);
+    Assert.assertEquals(key, game.positionKey());
+    Assert.assertEquals(moves, game.getAvailableMoves(1));
+    for (Coordinate move : moves) {
+      Assert.assertEquals(0, game.getOwnerAt(move));
+    }
+  }
+}
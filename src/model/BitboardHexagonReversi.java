@@ -0,0 +1,182 @@
+package model;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents a hexagon reversi game, stored as bitboards.
+ * Cells are numbered densely row by row in the same order HexagonReversi creates its board,
+ * so a side length 8 board (169 cells) fits in three longs per player. For every cell and
+ * each of the six CubicCoordinate directions a ray mask is precomputed, which turns flip
+ * detection into a few mask intersections instead of a walk over coordinates.
+ */
+public class BitboardHexagonReversi extends AbstractBitboardReversi {
+
+  //lookup tables only depend on the side length, so every game of one size shares them
+  private static final Map<Integer, RayTables> TABLES = new HashMap<>();
+
+  private RayTables tables;
+
+  /**
+   * Constructs a hexagon reversi game backed by bitboards.
+   */
+  public BitboardHexagonReversi() {
+    super();
+  }
+
+  //copy constructor used by clone
+  private BitboardHexagonReversi(BitboardHexagonReversi other) {
+    super(other);
+    this.tables = other.tables;
+  }
+
+  @Override
+  public ReversiModel clone() {
+    return new BitboardHexagonReversi(this);
+  }
+
+  @Override
+  protected void createBoard(int sideLength) {
+    synchronized (TABLES) {
+      tables = TABLES.computeIfAbsent(sideLength, RayTables::new);
+    }
+    geometry = tables.geometry;
+    words = tables.words;
+    discs = new long[2][words];
+    this.setInitialColors();
+  }
+
+  //helper: sets the initial colors around the center, alternating like HexagonReversi
+  private void setInitialColors() {
+    int currentPlayer = 1;
+    List<Coordinate> neighbors = new CubicCoordinate(0, 0, 0).getNeighbors();
+    for (Coordinate coord : neighbors) {
+      setBit(discs[currentPlayer - 1], indexOf(coord));
+      currentPlayer = 3 - currentPlayer;
+    }
+  }
+
+  @Override
+  protected int indexOf(Coordinate c) {
+    return geometry.indexOf(c);
+  }
+
+  @Override
+  protected long[] flipsFor(int index, int p) {
+    long[] flips = new long[words];
+    for (int d = 0; d < RayTables.DIRECTIONS; d++) {
+      addFlipsInDirection(index, d, p, flips);
+    }
+    return flips;
+  }
+
+  @Override
+  protected long[] legalMoves(int p) {
+    long[] opp = discs[2 - p];
+    long[] moves = new long[words];
+    long[] scratch = new long[words];
+
+    for (int i = 0; i < geometry.size(); i++) {
+      if (!isEmptyCell(i) || !intersects(tables.neighbors[i], opp)) {
+        continue;
+      }
+      for (int d = 0; d < RayTables.DIRECTIONS; d++) {
+        if (addFlipsInDirection(i, d, p, scratch)) {
+          setBit(moves, i);
+          break;
+        }
+      }
+    }
+    return moves;
+  }
+
+  //helper: adds the discs flipped along one ray to flips, returns true if any were flipped
+  private boolean addFlipsInDirection(int index, int d, int p, long[] flips) {
+    long[] own = discs[p - 1];
+    long[] opp = discs[2 - p];
+    long[] ray = tables.rays[index][d];
+
+    //the first cell on the ray that is not the opponent's decides the line
+    int blocker = -1;
+    if (tables.ascending[d]) {
+      for (int w = 0; w < words && blocker < 0; w++) {
+        long stop = ray[w] & ~opp[w];
+        if (stop != 0) {
+          blocker = (w << 6) + Long.numberOfTrailingZeros(stop);
+        }
+      }
+    }
+    else {
+      for (int w = words - 1; w >= 0 && blocker < 0; w--) {
+        long stop = ray[w] & ~opp[w];
+        if (stop != 0) {
+          blocker = (w << 6) + 63 - Long.numberOfLeadingZeros(stop);
+        }
+      }
+    }
+    if (blocker < 0 || !getBit(own, blocker)) {
+      return false;
+    }
+
+    //everything on the ray before the blocker is the opponent's, so it flips
+    long[] beyond = tables.rays[blocker][d];
+    boolean flipped = false;
+    for (int w = 0; w < words; w++) {
+      long line = ray[w] & ~beyond[w] & opp[w];
+      flips[w] |= line;
+      flipped |= line != 0;
+    }
+    return flipped;
+  }
+
+  private static boolean intersects(long[] a, long[] b) {
+    for (int w = 0; w < a.length; w++) {
+      if ((a[w] & b[w]) != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * The ray masks and neighbor masks of a hexagon board of one side length.
+   */
+  private static final class RayTables {
+    private static final int DIRECTIONS = 6;
+
+    private final BoardGeometry geometry;
+    private final int words;
+
+    //rays[i][d] holds every cell from i (exclusive) to the edge of the board in direction d
+    private final long[][][] rays;
+    //true if stepping in direction d always moves to a higher index
+    private final boolean[] ascending;
+    private final long[][] neighbors;
+
+    private RayTables(int sideLength) {
+      this.geometry = BoardGeometry.hexagon(sideLength);
+      int cells = geometry.size();
+      this.words = (cells + 63) / 64;
+
+      this.rays = new long[cells][DIRECTIONS][words];
+      this.ascending = new boolean[DIRECTIONS];
+      this.neighbors = new long[cells][words];
+      for (int d = 0; d < DIRECTIONS; d++) {
+        //cells are numbered row by row, so the sign of a step is the same everywhere
+        Coordinate step = geometry.getDirection(d);
+        ascending[d] = step.getZ() > 0 || (step.getZ() == 0 && step.getX() > 0);
+        for (int i = 0; i < cells; i++) {
+          int next = geometry.neighbor(i, d);
+          if (next >= 0) {
+            setBit(neighbors[i], next);
+          }
+          while (next >= 0) {
+            setBit(rays[i][d], next);
+            next = geometry.neighbor(next, d);
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,226 @@
+package model;
+
+/**
+ * Represents a reversi game on a square board, stored as bitboards.
+ * Bit (x * sideLength + y) stands for CartesianCoordinate(x, y). A board with sideLength 8
+ * fits in a single long per player, larger even boards spread the same layout over several
+ * longs. Moves and flips are found by shifting and masking the bitboards instead of
+ * walking coordinates.
+ */
+public class BitboardSquareReversi extends AbstractBitboardReversi {
+
+  //the 8 directions as (dx, dy), in the same order as CartesianCoordinate.getDirections
+  private static final int[][] DIRECTIONS = {
+          {-1, 1}, {0, 1}, {1, 1}, {1, 0}, {1, -1}, {0, -1}, {-1, -1}, {-1, 0}
+  };
+
+  //per board size lookup tables, shared between clones
+  private long[] fullMask;
+  private int[] shifts;
+  private long[][] sourceMasks;
+
+  /**
+   * Constructs a square reversi game backed by bitboards.
+   */
+  public BitboardSquareReversi() {
+    super();
+  }
+
+  //copy constructor used by clone
+  private BitboardSquareReversi(BitboardSquareReversi other) {
+    super(other);
+    this.fullMask = other.fullMask;
+    this.shifts = other.shifts;
+    this.sourceMasks = other.sourceMasks;
+  }
+
+  @Override
+  public ReversiModel clone() {
+    return new BitboardSquareReversi(this);
+  }
+
+  @Override
+  protected void createBoard(int sideLength) {
+    //SQUARE REVERSI MUST HAVE AN EVEN SIDELENGTH
+    if (sideLength % 2 != 0) {
+      throw new IllegalArgumentException("Side length must be even and greater" +
+              "than or equal to 4");
+    }
+
+    int cells = sideLength * sideLength;
+    words = (cells + 63) / 64;
+    discs = new long[2][words];
+
+    //the geometry numbers CartesianCoordinate(x, y) as x * sideLength + y, same as the bits
+    geometry = BoardGeometry.square(sideLength);
+
+    fullMask = new long[words];
+    for (int i = 0; i < cells; i++) {
+      setBit(fullMask, i);
+    }
+
+    //a step in direction (dx, dy) moves bit i to bit i + dx * sideLength + dy. Cells on the
+    //edge the step would leave are masked out first, so rows never wrap into each other.
+    shifts = new int[DIRECTIONS.length];
+    sourceMasks = new long[DIRECTIONS.length][words];
+    for (int d = 0; d < DIRECTIONS.length; d++) {
+      int dx = DIRECTIONS[d][0];
+      int dy = DIRECTIONS[d][1];
+      shifts[d] = dx * sideLength + dy;
+      for (int i = 0; i < cells; i++) {
+        int x = i / sideLength + dx;
+        int y = i % sideLength + dy;
+        if (x >= 0 && x < sideLength && y >= 0 && y < sideLength) {
+          setBit(sourceMasks[d], i);
+        }
+      }
+    }
+    this.setInitialColors();
+  }
+
+  //helper: sets the initial colors of the board around the center, same as SquareReversi
+  private void setInitialColors() {
+    int half = sideLength / 2;
+    setBit(discs[0], (half - 1) * sideLength + half - 1);
+    setBit(discs[1], half * sideLength + half - 1);
+    setBit(discs[0], half * sideLength + half);
+    setBit(discs[1], (half - 1) * sideLength + half);
+  }
+
+  @Override
+  protected int indexOf(Coordinate c) {
+    if (discs == null || !(c instanceof CartesianCoordinate)) {
+      return -1;
+    }
+    int x = c.getX();
+    int y = c.getY();
+    if (x < 0 || x >= sideLength || y < 0 || y >= sideLength) {
+      return -1;
+    }
+    return x * sideLength + y;
+  }
+
+  @Override
+  protected long[] flipsFor(int index, int p) {
+    long[] own = discs[p - 1];
+    long[] opp = discs[2 - p];
+    long[] flips = new long[words];
+
+    if (words == 1) {
+      long start = 1L << index;
+      for (int d = 0; d < shifts.length; d++) {
+        long line = 0L;
+        long step = shiftWord(start, d);
+        while ((step & opp[0]) != 0) {
+          line |= step;
+          step = shiftWord(step, d);
+        }
+        if ((step & own[0]) != 0) {
+          flips[0] |= line;
+        }
+      }
+      return flips;
+    }
+
+    //larger boards walk the same rays bit by bit, the source masks stop at the edges
+    for (int d = 0; d < shifts.length; d++) {
+      long[] line = new long[words];
+      int current = index;
+      boolean closed = false;
+      while (getBit(sourceMasks[d], current)) {
+        current += shifts[d];
+        if (getBit(opp, current)) {
+          setBit(line, current);
+        }
+        else {
+          closed = getBit(own, current);
+          break;
+        }
+      }
+      if (closed) {
+        for (int w = 0; w < words; w++) {
+          flips[w] |= line[w];
+        }
+      }
+    }
+    return flips;
+  }
+
+  @Override
+  protected long[] legalMoves(int p) {
+    long[] own = discs[p - 1];
+    long[] opp = discs[2 - p];
+
+    if (words == 1) {
+      long empty = ~(own[0] | opp[0]) & fullMask[0];
+      long moves = 0L;
+      for (int d = 0; d < shifts.length; d++) {
+        long line = shiftWord(own[0], d) & opp[0];
+        for (int i = 0; i < sideLength - 3; i++) {
+          line |= shiftWord(line, d) & opp[0];
+        }
+        moves |= shiftWord(line, d) & empty;
+      }
+      return new long[] {moves};
+    }
+
+    long[] empty = new long[words];
+    for (int w = 0; w < words; w++) {
+      empty[w] = ~(own[w] | opp[w]) & fullMask[w];
+    }
+    long[] moves = new long[words];
+    for (int d = 0; d < shifts.length; d++) {
+      long[] line = shiftWords(own, d);
+      and(line, opp);
+      for (int i = 0; i < sideLength - 3; i++) {
+        long[] next = shiftWords(line, d);
+        and(next, opp);
+        for (int w = 0; w < words; w++) {
+          line[w] |= next[w];
+        }
+      }
+      long[] ends = shiftWords(line, d);
+      for (int w = 0; w < words; w++) {
+        moves[w] |= ends[w] & empty[w];
+      }
+    }
+    return moves;
+  }
+
+  //helper: moves every bit of a single word board one step in direction d
+  private long shiftWord(long board, int d) {
+    long source = board & sourceMasks[d][0];
+    int shift = shifts[d];
+    return shift > 0 ? (source << shift) & fullMask[0] : source >>> -shift;
+  }
+
+  //helper: moves every bit of a multi word board one step in direction d
+  private long[] shiftWords(long[] board, int d) {
+    int shift = shifts[d];
+    int wordShift = Math.abs(shift) >>> 6;
+    int bitShift = Math.abs(shift) & 63;
+    long[] result = new long[words];
+
+    for (int w = 0; w < words; w++) {
+      int from = shift > 0 ? w - wordShift : w + wordShift;
+      int carry = shift > 0 ? from - 1 : from + 1;
+      long value = 0L;
+      if (from >= 0 && from < words) {
+        long source = board[from] & sourceMasks[d][from];
+        value = shift > 0 ? source << bitShift : source >>> bitShift;
+      }
+      if (bitShift != 0 && carry >= 0 && carry < words) {
+        long source = board[carry] & sourceMasks[d][carry];
+        value |= shift > 0 ? source >>> (64 - bitShift) : source << (64 - bitShift);
+      }
+      result[w] = value & fullMask[w];
+    }
+    return result;
+  }
+
+  private static void and(long[] target, long[] mask) {
+    for (int w = 0; w < target.length; w++) {
+      target[w] &= mask[w];
+    }
+  }
+}
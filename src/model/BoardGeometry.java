@@ -0,0 +1,223 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Numbers every cell of a board with a dense index, in board order.
+ * A geometry maps a Coordinate to its index once, and precomputes which cell lies next to
+ * every cell in each direction, so game logic can work on plain int indices and arrays.
+ * Geometries are immutable, and the standard square and hexagon boards are cached per
+ * side length so every game of one size shares them.
+ */
+public final class BoardGeometry {
+
+  private static final Map<Integer, BoardGeometry> SQUARES = new HashMap<>();
+  private static final Map<Integer, BoardGeometry> HEXAGONS = new HashMap<>();
+
+  //fixed, so a position gets the same key in every run
+  private static final long ZOBRIST_SEED = 0x5DEECE66DL;
+
+  private final Coordinate[] coordinates;
+  private final List<Coordinate> coordinateList;
+  private final Map<Coordinate, Integer> indices;
+  private final Coordinate[] directions;
+
+  /**
+   * INVARIANT: neighbors[i][d] is -1 or a valid index.
+   * INTERPRETATION: neighbors[i][d] is the cell one step from cell i in direction d,
+   * or -1 if that step leaves the board.
+   */
+  private final int[][] neighbors;
+
+  /**
+   * INVARIANT: zobrist.length == 2 * size() + 1.
+   * INTERPRETATION: zobrist[2 * i + p - 1] is the random key of player p owning cell i, and
+   * the last entry is the key of it being player 2's turn.
+   */
+  private final long[] zobrist;
+
+  private final BoardSymmetry symmetry;
+
+  /**
+   * Constructs a geometry for a board made of the given cells.
+   * @param coordinates every cell of the board, in board order.
+   * @throws IllegalArgumentException if a coordinate appears twice.
+   */
+  public BoardGeometry(List<Coordinate> coordinates) {
+    this.coordinates = coordinates.toArray(new Coordinate[0]);
+    this.coordinateList = Collections.unmodifiableList(new ArrayList<>(coordinates));
+    this.indices = new HashMap<>();
+    for (int i = 0; i < this.coordinates.length; i++) {
+      if (indices.put(this.coordinates[i], i) != null) {
+        throw new IllegalArgumentException("Duplicate coordinate on the board");
+      }
+    }
+
+    List<Coordinate> directionList = this.coordinates.length == 0
+            ? new ArrayList<>() : this.coordinates[0].getDirections();
+    this.directions = directionList.toArray(new Coordinate[0]);
+    this.neighbors = new int[this.coordinates.length][directions.length];
+    for (int i = 0; i < this.coordinates.length; i++) {
+      for (int d = 0; d < directions.length; d++) {
+        neighbors[i][d] = indexOf(this.coordinates[i].add(directions[d]));
+      }
+    }
+
+    Random random = new Random(ZOBRIST_SEED);
+    this.zobrist = new long[2 * this.coordinates.length + 1];
+    for (int i = 0; i < zobrist.length; i++) {
+      zobrist[i] = random.nextLong();
+    }
+    this.symmetry = new BoardSymmetry(this);
+  }
+
+  /**
+   * Gets the geometry of a square board, numbered in the same order SquareReversi uses.
+   * @param sideLength the length of one edge of the board.
+   * @return the shared geometry for that side length.
+   */
+  public static BoardGeometry square(int sideLength) {
+    synchronized (SQUARES) {
+      return SQUARES.computeIfAbsent(sideLength, n -> {
+        List<Coordinate> cells = new ArrayList<>();
+        for (int x = 0; x < n; x++) {
+          for (int y = 0; y < n; y++) {
+            cells.add(new CartesianCoordinate(x, y));
+          }
+        }
+        return new BoardGeometry(cells);
+      });
+    }
+  }
+
+  /**
+   * Gets the geometry of a hexagon board, numbered in the same order HexagonReversi uses.
+   * @param sideLength the length of one edge of the board.
+   * @return the shared geometry for that side length.
+   */
+  public static BoardGeometry hexagon(int sideLength) {
+    synchronized (HEXAGONS) {
+      return HEXAGONS.computeIfAbsent(sideLength, n -> {
+        List<Coordinate> cells = new ArrayList<>();
+        for (int r = -n + 1; r < n; r++) {
+          for (int q = -n + 1; q < n; q++) {
+            for (int s = -n + 1; s < n; s++) {
+              if (r + q + s == 0) {
+                cells.add(new CubicCoordinate(q, s, r));
+              }
+            }
+          }
+        }
+        return new BoardGeometry(cells);
+      });
+    }
+  }
+
+  /**
+   * Gets the number of cells on the board.
+   * @return the number of cells.
+   */
+  public int size() {
+    return coordinates.length;
+  }
+
+  /**
+   * Gets the index of a coordinate.
+   * @param c the coordinate, may be null.
+   * @return the index of the cell, or -1 if the coordinate is not on the board.
+   */
+  public int indexOf(Coordinate c) {
+    Integer index = c == null ? null : indices.get(c);
+    return index == null ? -1 : index;
+  }
+
+  /**
+   * Gets the coordinate of the cell at an index.
+   * @param index the index of the cell.
+   * @return the coordinate of that cell.
+   */
+  public Coordinate coordinateAt(int index) {
+    return coordinates[index];
+  }
+
+  /**
+   * Gets every cell of the board in board order, without copying.
+   * @return an unmodifiable list of the coordinates on the board.
+   */
+  public List<Coordinate> getCoordinates() {
+    return coordinateList;
+  }
+
+  /**
+   * Gets the number of directions a line can run in on this board.
+   * @return the number of directions.
+   */
+  public int directionCount() {
+    return directions.length;
+  }
+
+  /**
+   * Gets a direction, in the order the coordinates report their directions.
+   * @param direction the index of the direction.
+   * @return the direction as a coordinate offset.
+   */
+  public Coordinate getDirection(int direction) {
+    return directions[direction];
+  }
+
+  /**
+   * Gets the index of a direction.
+   * @param direction the direction as a coordinate offset.
+   * @return the index of the direction, or -1 if it is not a direction of this board.
+   */
+  public int directionIndex(Coordinate direction) {
+    for (int d = 0; d < directions.length; d++) {
+      if (directions[d].equals(direction)) {
+        return d;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Gets the cell one step away from a cell.
+   * @param index the index of the cell.
+   * @param direction the index of the direction to step in.
+   * @return the index of the neighboring cell, or -1 if the step leaves the board.
+   */
+  public int neighbor(int index, int direction) {
+    return neighbors[index][direction];
+  }
+
+  /**
+   * Gets the Zobrist key of one owner on one cell.
+   * @param index the index of the cell.
+   * @param owner the owner of the cell, 0 if nobody owns it.
+   * @return the key to combine into a position key with xor, 0 for an empty cell.
+   */
+  public long cellKey(int index, int owner) {
+    return owner == 0 ? 0L : zobrist[2 * index + owner - 1];
+  }
+
+  /**
+   * Gets the Zobrist key of the side to move.
+   * @param player the player whose turn it is.
+   * @return the key to combine into a position key with xor, 0 for player 1.
+   */
+  public long turnKey(int player) {
+    return player == 2 ? zobrist[zobrist.length - 1] : 0L;
+  }
+
+  /**
+   * Gets the rotations and reflections that map the board onto itself.
+   * @return the symmetries of the board.
+   */
+  public BoardSymmetry getSymmetry() {
+    return symmetry;
+  }
+}
@@ -0,0 +1,199 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * The rotations and reflections that map a board onto itself: 8 for a square board and 12
+ * for a hexagon board. Positions that one of them maps onto each other play the same, so
+ * caches can file them under one canonical key, the smallest key of any of their images,
+ * and map moves to and from the orientation that key was taken in.
+ * Symmetries are found by trying every rotation and reflection of the coordinates and
+ * keeping those that land every cell on the board, so an odd board just has fewer.
+ */
+public final class BoardSymmetry {
+
+  private final BoardGeometry geometry;
+
+  /**
+   * INVARIANT: images[0] is the identity, and images[t] is a permutation of 0 .. size - 1.
+   * INTERPRETATION: images[t][i] is the cell that symmetry t moves cell i to, and
+   * preimages[t] is the inverse permutation.
+   */
+  private final int[][] images;
+  private final int[][] preimages;
+
+  //helper: finds the symmetries of a board, called once its cells and keys are set up
+  BoardSymmetry(BoardGeometry geometry) {
+    this.geometry = geometry;
+    List<int[]> found = new ArrayList<>();
+    for (UnaryOperator<Coordinate> candidate : candidates(geometry)) {
+      int[] image = imageOf(geometry, candidate);
+      if (image != null) {
+        found.add(image);
+      }
+    }
+    this.images = found.toArray(new int[0][]);
+    this.preimages = new int[images.length][geometry.size()];
+    for (int t = 0; t < images.length; t++) {
+      for (int i = 0; i < geometry.size(); i++) {
+        preimages[t][images[t][i]] = i;
+      }
+    }
+  }
+
+  //helper: where a candidate moves every cell, or null if it moves one off the board
+  private static int[] imageOf(BoardGeometry geometry, UnaryOperator<Coordinate> candidate) {
+    int[] image = new int[geometry.size()];
+    for (int i = 0; i < image.length; i++) {
+      image[i] = geometry.indexOf(candidate.apply(geometry.coordinateAt(i)));
+      if (image[i] < 0) {
+        return null;
+      }
+    }
+    return image;
+  }
+
+  //helper: every rotation and reflection of the board's kind of coordinate, identity first
+  private static List<UnaryOperator<Coordinate>> candidates(BoardGeometry geometry) {
+    List<UnaryOperator<Coordinate>> candidates = new ArrayList<>();
+    if (geometry.size() == 0) {
+      candidates.add(c -> c);
+    }
+    else if (geometry.coordinateAt(0) instanceof CubicCoordinate) {
+      //every reordering of the three axes, with or without negating all of them
+      int[][] orders = {{0, 1, 2}, {1, 2, 0}, {2, 0, 1}, {1, 0, 2}, {0, 2, 1}, {2, 1, 0}};
+      for (int sign : new int[] {1, -1}) {
+        for (int[] order : orders) {
+          candidates.add(c -> {
+            int[] axes = {c.getX(), c.getY(), c.getZ()};
+            return new CubicCoordinate(sign * axes[order[0]], sign * axes[order[1]],
+                    sign * axes[order[2]]);
+          });
+        }
+      }
+    }
+    else {
+      //works on coordinates doubled around the center, so boards of any size have one
+      int minX = Integer.MAX_VALUE;
+      int minY = Integer.MAX_VALUE;
+      int maxX = Integer.MIN_VALUE;
+      int maxY = Integer.MIN_VALUE;
+      for (Coordinate c : geometry.getCoordinates()) {
+        minX = Math.min(minX, c.getX());
+        minY = Math.min(minY, c.getY());
+        maxX = Math.max(maxX, c.getX());
+        maxY = Math.max(maxY, c.getY());
+      }
+      int centerX = minX + maxX;
+      int centerY = minY + maxY;
+      for (boolean swap : new boolean[] {false, true}) {
+        for (int signX : new int[] {1, -1}) {
+          for (int signY : new int[] {1, -1}) {
+            candidates.add(c -> {
+              int u = 2 * c.getX() - centerX;
+              int v = 2 * c.getY() - centerY;
+              int x = signX * (swap ? v : u) + centerX;
+              int y = signY * (swap ? u : v) + centerY;
+              //a swap on a board that is not square can land between cells
+              return x % 2 != 0 || y % 2 != 0 ? null : new CartesianCoordinate(x / 2, y / 2);
+            });
+          }
+        }
+      }
+    }
+    return candidates;
+  }
+
+  /**
+   * Gets the number of symmetries of the board, counting the identity.
+   * @return the number of symmetries, numbered from 0, the identity, up.
+   */
+  public int count() {
+    return images.length;
+  }
+
+  /**
+   * Gets the cell a symmetry moves a cell to.
+   * @param symmetry the symmetry.
+   * @param index the index of the cell.
+   * @return the index of the cell it is moved to.
+   */
+  public int image(int symmetry, int index) {
+    return images[symmetry][index];
+  }
+
+  /**
+   * Gets the cell a symmetry moves onto a cell, undoing image.
+   * @param symmetry the symmetry.
+   * @param index the index of the moved cell.
+   * @return the index of the cell that was moved there.
+   */
+  public int preimage(int symmetry, int index) {
+    return preimages[symmetry][index];
+  }
+
+  /**
+   * Gets the position key a position would have once a symmetry is applied to it.
+   * The identity gives the position's own positionKey.
+   * @param model the position, on this board.
+   * @param symmetry the symmetry to apply.
+   * @return the key of the moved position.
+   */
+  public long key(ReadonlyReversiModel model, int symmetry) {
+    long key = geometry.turnKey(model.getCurrentTurn());
+    for (int i = 0; i < images[symmetry].length; i++) {
+      key ^= geometry.cellKey(images[symmetry][i], model.getOwnerAt(i));
+    }
+    return key;
+  }
+
+  /**
+   * Gets the symmetry that moves a position to its canonical orientation, the one with the
+   * smallest key. A position that is itself symmetric gets the lowest such symmetry.
+   * @param model the position, on this board.
+   * @return the symmetry to apply to the position.
+   */
+  public int canonicalSymmetry(ReadonlyReversiModel model) {
+    long[] keys = this.keys(model);
+    int best = 0;
+    for (int t = 1; t < keys.length; t++) {
+      if (keys[t] < keys[best]) {
+        best = t;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Gets the key every symmetric copy of a position shares, the smallest of their keys.
+   * @param model the position, on this board.
+   * @return the canonical key of the position.
+   */
+  public long canonicalKey(ReadonlyReversiModel model) {
+    long best = Long.MAX_VALUE;
+    for (long key : this.keys(model)) {
+      best = Math.min(best, key);
+    }
+    return best;
+  }
+
+  //helper: the key of the position under every symmetry, reading each cell once
+  private long[] keys(ReadonlyReversiModel model) {
+    long[] keys = new long[images.length];
+    long turn = geometry.turnKey(model.getCurrentTurn());
+    for (int t = 0; t < keys.length; t++) {
+      keys[t] = turn;
+    }
+    for (int i = 0; i < geometry.size(); i++) {
+      int owner = model.getOwnerAt(i);
+      if (owner != 0) {
+        for (int t = 0; t < keys.length; t++) {
+          keys[t] ^= geometry.cellKey(images[t][i], owner);
+        }
+      }
+    }
+    return keys;
+  }
+}
@@ -0,0 +1,189 @@
+package model;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import controller.ObserverInterface;
+
+/**
+ * A game of Reversi that can be read from any thread while it is played on another.
+ * Moves are made one at a time on the game it wraps, and after each one a copy of that game
+ * is published as the current snapshot. A snapshot is never changed once published, so
+ * views, hints and spectators read it without locks and without copying the board, and a
+ * reader that makes several calls on one snapshot always sees one position.
+ * The wrapped game should only be used through this one from then on.
+ */
+public class ConcurrentReversiModel implements ReversiModel {
+  private final ReversiModel game;
+  private final Object writeLock;
+  private final List<ObserverInterface> controllersToNotify;
+
+  /**
+   * INVARIANT: snapshot is a copy of game as it was after the last change, whose lazily
+   * computed moves have already been worked out, and nothing changes it.
+   * INTERPRETATION: snapshot is the state of the game every reader sees.
+   */
+  private volatile ReversiModel snapshot;
+
+  /**
+   * Constructs a game that can be read from any thread.
+   * @param game the game to play, started or not, with no controllers subscribed to it.
+   */
+  public ConcurrentReversiModel(ReversiModel game) {
+    this.game = game;
+    this.writeLock = new Object();
+    this.controllersToNotify = new CopyOnWriteArrayList<>();
+    this.publish();
+  }
+
+  @Override
+  public ReadonlyReversiModel snapshot() {
+    return snapshot;
+  }
+
+  @Override
+  public void startGame(int sideLength, int p) {
+    synchronized (writeLock) {
+      game.startGame(sideLength, p);
+      this.publish();
+    }
+    //controllers are told outside the lock, once the started game can be read
+    if (!controllersToNotify.isEmpty()) {
+      this.notifyObserverTurn();
+    }
+  }
+
+  @Override
+  public void flipCell(Coordinate c, int p) {
+    synchronized (writeLock) {
+      game.flipCell(c, p);
+      this.publish();
+    }
+  }
+
+  @Override
+  public MoveRecord makeMove(Coordinate c, int p) {
+    synchronized (writeLock) {
+      MoveRecord move = game.makeMove(c, p);
+      this.publish();
+      return move;
+    }
+  }
+
+  @Override
+  public void unmakeMove(MoveRecord move) {
+    synchronized (writeLock) {
+      game.unmakeMove(move);
+      this.publish();
+    }
+  }
+
+  @Override
+  public void passMove(int p) {
+    synchronized (writeLock) {
+      game.passMove(p);
+      this.publish();
+    }
+  }
+
+  @Override
+  public void notifyObserverTurn() {
+    controllersToNotify.get(snapshot.getCurrentTurn() - 1).getNotifiedItsYourPlayersMove();
+  }
+
+  @Override
+  public void subscribe(ObserverInterface observer) {
+    controllersToNotify.add(observer);
+  }
+
+  /**
+   * Clones the current snapshot into a game of the wrapped kind, which is not shared.
+   * @return a copy of the game as it is now.
+   */
+  @Override
+  public ReversiModel clone() {
+    return snapshot.clone();
+  }
+
+  @Override
+  public LinkedHashMap<Coordinate, Cell> getBoard() {
+    return snapshot.getBoard();
+  }
+
+  @Override
+  public BoardGeometry getGeometry() {
+    return snapshot.getGeometry();
+  }
+
+  @Override
+  public int getOwnerAt(Coordinate c) {
+    return snapshot.getOwnerAt(c);
+  }
+
+  @Override
+  public int getOwnerAt(int index) {
+    return snapshot.getOwnerAt(index);
+  }
+
+  @Override
+  public boolean isGameOver() {
+    return snapshot.isGameOver();
+  }
+
+  @Override
+  public int getScore(int p) {
+    return snapshot.getScore(p);
+  }
+
+  @Override
+  public int getSideLength() {
+    return snapshot.getSideLength();
+  }
+
+  @Override
+  public boolean isMoveValid(Coordinate c, int playerTurn) {
+    return snapshot.isMoveValid(c, playerTurn);
+  }
+
+  @Override
+  public List<Coordinate> getAvailableMoves(int p) {
+    return snapshot.getAvailableMoves(p);
+  }
+
+  @Override
+  public int getCurrentTurn() {
+    return snapshot.getCurrentTurn();
+  }
+
+  @Override
+  public int howManyCellsDoesThisMoveFlip(Coordinate coord, int p) {
+    return snapshot.howManyCellsDoesThisMoveFlip(coord, p);
+  }
+
+  @Override
+  public void countFlips(int p, int[] counts) {
+    snapshot.countFlips(p, counts);
+  }
+
+  @Override
+  public void generateMoves(int p, MoveList moves) {
+    snapshot.generateMoves(p, moves);
+  }
+
+  @Override
+  public long positionKey() {
+    return snapshot.positionKey();
+  }
+
+  //helper: publishes a copy of the game, with the moves of both players already found so
+  // readers on other threads never fill in a cache of it
+  private void publish() {
+    ReversiModel copy = game.clone();
+    if (copy.getGeometry().size() > 0) {
+      copy.getAvailableMoves(1);
+      copy.getAvailableMoves(2);
+    }
+    snapshot = copy;
+  }
+}
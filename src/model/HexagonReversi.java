@@ -1,6 +1,5 @@
 package model;
 
-import java.util.LinkedHashMap;
 import java.util.List;
 
 /**
@@ -17,17 +16,18 @@ public class HexagonReversi extends AbstractReversi {
 
   /**
    * Constructor for passing in the fields.
-   * @param board the game board.
+   * @param geometry the geometry of the board.
+   * @param cells the owner of every cell of the board.
    * @param sideLength the length of one edge of the board.
    * @param currentPlayerTurn the current players turn.
    * @param gameStarted if the game has started.
    * @param numPasses number of passes in a row so far.
    * @param numPlayers number of players in the game.
    */
-  private HexagonReversi(LinkedHashMap<Coordinate, Cell> board,
+  private HexagonReversi(BoardGeometry geometry, SharedCells cells,
                          int sideLength, int currentPlayerTurn,
                          boolean gameStarted, int numPasses, int numPlayers) {
-    super(new LinkedHashMap<>(board), sideLength, currentPlayerTurn,
+    super(geometry, cells, sideLength, currentPlayerTurn,
             gameStarted, numPasses, numPlayers);
   }
 
@@ -37,15 +37,8 @@ public class HexagonReversi extends AbstractReversi {
    */
   @Override
   protected void createBoard(int sideLength) {
-    for (int r = -sideLength + 1; r < sideLength; r++) {
-      for (int q = -sideLength + 1; q < sideLength; q++) {
-        for (int s = -sideLength + 1; s < sideLength; s++) {
-          if (r + q + s == 0) {
-            board.put(new CubicCoordinate(q, s, r), new BasicCell());
-          }
-        }
-      }
-    }
+    BoardGeometry board = BoardGeometry.hexagon(sideLength);
+    loadBoard(board, new byte[board.size()]);
     this.setInitialColors();
   }
 
@@ -59,17 +52,17 @@ public class HexagonReversi extends AbstractReversi {
 
     //loop through list
     for (Coordinate coord : neighbors) {
-      board.put(coord, new BasicCell(currentPlayer));
+      setOwner(coord, currentPlayer);
       currentPlayer = 3 - currentPlayer;
     }
   }
 
 
-  protected ReversiModel cloneChild(LinkedHashMap<Coordinate, Cell> board,
+  protected ReversiModel cloneChild(BoardGeometry geometry, SharedCells cells,
                                     int sideLength, int currentPlayerTurn,
                                     boolean gameStarted, int numPasses, int numPlayers) {
 
-    return new HexagonReversi(board, sideLength, currentPlayerTurn, gameStarted, numPasses,
-            numPlayers);
+    return new HexagonReversi(geometry, cells, sideLength, currentPlayerTurn, gameStarted,
+            numPasses, numPlayers);
   }
 }
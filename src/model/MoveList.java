@@ -0,0 +1,127 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * A reusable buffer of the legal moves of one player in one position, filled by
+ * ReadonlyReversiModel.generateMoves. For every move it holds the cell played and the
+ * cells the move flips, as a range of one array shared by all the moves, so a strategy can
+ * see what each move does without playing it. Moves are kept in board order.
+ * Filling a list again reuses its arrays, so a caller that keeps its lists allocates
+ * nothing once they have grown to fit.
+ */
+public final class MoveList {
+
+  /**
+   * INVARIANT: 0 <= size <= cells.length == flipEnds.length, flipEnds never decreases over
+   * the first size entries, and flipEnds[size - 1] <= flipped.length.
+   * INTERPRETATION: move i plays cell cells[i], and flips the cells
+   * flipped[flipStart(i) .. flipEnds[i] - 1], where a move's flips start where the flips
+   * of the move before it end.
+   */
+  private int size;
+  private int[] cells;
+  private int[] flipEnds;
+  private int[] flipped;
+
+  /**
+   * Constructs an empty move list.
+   */
+  public MoveList() {
+    this.cells = new int[16];
+    this.flipEnds = new int[16];
+    this.flipped = new int[64];
+  }
+
+  /**
+   * Gets the number of moves in the list.
+   * @return the number of legal moves.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gets the cell a move is played on.
+   * @param move the move, from 0 to size() - 1.
+   * @return the index of the cell in the board's geometry.
+   */
+  public int cellAt(int move) {
+    checkMove(move);
+    return cells[move];
+  }
+
+  /**
+   * Gets the number of cells a move flips.
+   * @param move the move, from 0 to size() - 1.
+   * @return the number of flipped cells, at least 1.
+   */
+  public int flipCount(int move) {
+    checkMove(move);
+    return flipEnds[move] - flipStart(move);
+  }
+
+  /**
+   * Gets one of the cells a move flips.
+   * @param move the move, from 0 to size() - 1.
+   * @param flip which flipped cell, from 0 to flipCount(move) - 1.
+   * @return the index of the flipped cell in the board's geometry.
+   */
+  public int flippedAt(int move, int flip) {
+    if (flip < 0 || flip >= flipCount(move)) {
+      throw new IllegalArgumentException("Not a flip of this move");
+    }
+    return flipped[flipStart(move) + flip];
+  }
+
+  /**
+   * Finds the move played on a cell.
+   * @param cell the index of the cell in the board's geometry.
+   * @return the move, or -1 if the player cannot move there.
+   */
+  public int indexOf(int cell) {
+    for (int move = 0; move < size; move++) {
+      if (cells[move] == cell) {
+        return move;
+      }
+    }
+    return -1;
+  }
+
+  //helper: empties the list, keeping its arrays
+  void clear() {
+    size = 0;
+  }
+
+  //helper: adds a move on a cell, whose flips are then added with addFlip
+  void startMove(int cell) {
+    if (size == cells.length) {
+      cells = Arrays.copyOf(cells, size * 2);
+      flipEnds = Arrays.copyOf(flipEnds, size * 2);
+    }
+    flipEnds[size] = size == 0 ? 0 : flipEnds[size - 1];
+    cells[size++] = cell;
+  }
+
+  //helper: adds a cell the last added move flips
+  void addFlip(int cell) {
+    int end = flipEnds[size - 1];
+    if (end == flipped.length) {
+      flipped = Arrays.copyOf(flipped, end * 2);
+    }
+    flipped[end] = cell;
+    flipEnds[size - 1] = end + 1;
+  }
+
+  //helper: where the flips of a move start in flipped
+  private int flipStart(int move) {
+    return move == 0 ? 0 : flipEnds[move - 1];
+  }
+
+  //helper: checks a move is in the list
+  private void checkMove(int move) {
+    if (move < 0 || move >= size) {
+      throw new IllegalArgumentException("Not a move in the list");
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package model;
+
+/**
+ * Represents a move made with ReversiModel.makeMove, holding everything needed to take it back.
+ * Cells are stored as indices of the board's geometry, so a record is only meaningful
+ * for the game that made it.
+ */
+public final class MoveRecord {
+  private final int player;
+  private final int placed;
+  private final int[] flipped;
+  private final int previousTurn;
+  private final int previousPasses;
+
+  /**
+   * Constructs a record of a move.
+   * @param player the player that made the move.
+   * @param placed the index of the cell the disc was placed on.
+   * @param flipped the indices of the cells that were flipped, which this record takes over.
+   * @param previousTurn the player whose turn it was before the move.
+   * @param previousPasses the number of passes in a row before the move.
+   */
+  MoveRecord(int player, int placed, int[] flipped, int previousTurn, int previousPasses) {
+    this.player = player;
+    this.placed = placed;
+    this.flipped = flipped;
+    this.previousTurn = previousTurn;
+    this.previousPasses = previousPasses;
+  }
+
+  /**
+   * Gets the player that made the move.
+   * @return the player id.
+   */
+  public int getPlayer() {
+    return player;
+  }
+
+  /**
+   * Gets the cell the disc was placed on.
+   * @return the index of the cell in the board's geometry.
+   */
+  public int getPlacedIndex() {
+    return placed;
+  }
+
+  /**
+   * Gets the number of discs the move flipped, not counting the placed disc.
+   * @return the number of flipped discs.
+   */
+  public int getFlipCount() {
+    return flipped.length;
+  }
+
+  /**
+   * Gets one of the cells the move flipped.
+   * @param i which flipped cell, from 0 to getFlipCount() - 1.
+   * @return the index of the cell in the board's geometry.
+   */
+  public int getFlippedIndex(int i) {
+    return flipped[i];
+  }
+
+  //the player whose turn it was before the move
+  int getPreviousTurn() {
+    return previousTurn;
+  }
+
+  //the number of passes in a row before the move
+  int getPreviousPasses() {
+    return previousPasses;
+  }
+}
@@ -5,6 +5,10 @@ import java.util.List;
 
 /**
  * Gives us the guaranteed observer methods in a game of reversi.
+ * A game is meant for one thread at a time, even just to read it: queries such as
+ * getAvailableMoves and isGameOver may fill in caches of the moves. Only clone never
+ * changes the game it copies. To read a game from other threads while it is played, wrap it
+ * in a ConcurrentReversiModel and read its snapshots.
  */
 public interface ReadonlyReversiModel {
 
@@ -14,6 +18,29 @@ public interface ReadonlyReversiModel {
    */
   LinkedHashMap<Coordinate, Cell> getBoard();
 
+  /**
+   * Gets the geometry of the board, which gives every cell a dense index in board order.
+   * Iterating the geometry does not copy the board the way getBoard does.
+   * @return the geometry of the board, with no cells if the game has not started.
+   */
+  BoardGeometry getGeometry();
+
+  /**
+   * Gets the owner of the cell at a coordinate without copying the board.
+   * @param c the coordinate of the cell.
+   * @return 0 if the cell is empty, otherwise the player who owns it.
+   * @throws IllegalArgumentException if the coordinate is not on the board.
+   */
+  int getOwnerAt(Coordinate c);
+
+  /**
+   * Gets the owner of the cell at an index of the board geometry.
+   * @param index the index of the cell.
+   * @return 0 if the cell is empty, otherwise the player who owns it.
+   * @throws IllegalArgumentException if the index is not on the board.
+   */
+  int getOwnerAt(int index);
+
   /**
    * Determines if the game is over.
    * @return true if the game is over, false otherwise.
@@ -50,7 +77,8 @@ public interface ReadonlyReversiModel {
   // What are the contents of a cell at a given coordinate? (in cell class)
 
   /**
-   * Clones the game of Reversi.
+   * Clones the game of Reversi, without changing this game, so a game no thread is changing
+   * can be cloned from several threads at once.
    * @return a clone of this game.
    */
   ReversiModel clone();
@@ -75,4 +103,58 @@ public interface ReadonlyReversiModel {
    * @return the number of cells that would be flipped if the given move were made.
    */
   int howManyCellsDoesThisMoveFlip(Coordinate coord, int p);
+
+  /**
+   * Counts the cells every legal move of a player would flip, in one pass over the board
+   * and without changing the model.
+   * @param p the player whose moves to count.
+   * @param counts filled with the number of cells a move on each cell would flip, by cell
+   *               index in the geometry, or 0 where the player cannot move. It should hold
+   *               at least as many cells as the board.
+   * @throws IllegalStateException if the game has not started.
+   * @throws IllegalArgumentException if the player does not exist, or counts is too short.
+   */
+  void countFlips(int p, int[] counts);
+
+  /**
+   * Finds every legal move of a player and the cells each one flips, in one pass over the
+   * board and without changing the model.
+   * @param p the player whose moves to find.
+   * @param moves the list to fill, emptied first, with the moves in board order.
+   * @throws IllegalStateException if the game has not started.
+   * @throws IllegalArgumentException if the player does not exist.
+   */
+  void generateMoves(int p, MoveList moves);
+
+  /**
+   * Finds every legal move of a player and the cells each one flips, into a new list.
+   * @param p the player whose moves to find.
+   * @return the moves, in board order.
+   * @throws IllegalStateException if the game has not started.
+   * @throws IllegalArgumentException if the player does not exist.
+   */
+  default MoveList generateMoves(int p) {
+    MoveList moves = new MoveList();
+    this.generateMoves(p, moves);
+    return moves;
+  }
+
+  /**
+   * Gets a 64-bit Zobrist key of the position, covering who owns every cell and whose turn
+   * it is. Equal positions on boards of the same geometry always get equal keys, and
+   * different positions get different keys with overwhelming probability.
+   * @return the key of the current position.
+   */
+  long positionKey();
+
+  /**
+   * Gets the state of the game as it is now, which does not change while it is read.
+   * A reader that makes several calls, such as a view painting the board, should make them
+   * on one snapshot, so a move made by another thread cannot land between them. A model
+   * that is only used from one thread can return itself.
+   * @return the current state of the game, to read from.
+   */
+  default ReadonlyReversiModel snapshot() {
+    return this;
+  }
 }
\ No newline at end of file
@@ -33,6 +33,28 @@ public interface ReversiModel extends ReadonlyReversiModel {
 
   void flipCell(Coordinate c, int p);
 
+  /**
+   * Makes the same move as flipCell, and returns a record to take it back with.
+   * Lets a search walk a single board instead of cloning it for every move it looks at.
+   * @param c the coordinate of the cell to be flipped.
+   * @param p the player id that is attempting to make the move.
+   * @return a record of the move, including any passes that followed it.
+   * @throws IllegalStateException if the game has not started yet.
+   * @throws IllegalStateException if the game is over.
+   * @throws IllegalStateException if player attempts to make move when it's not their turn.
+   * @throws IllegalArgumentException if the coordinate is not on the board.
+   * @throws IllegalArgumentException if the move is invalid.
+   */
+  MoveRecord makeMove(Coordinate c, int p);
+
+  /**
+   * Takes back a move made with makeMove, restoring the board, turn and passes exactly.
+   * Moves must be taken back in the reverse order they were made.
+   * @param move the record returned by makeMove.
+   * @throws IllegalArgumentException if the move is not the last move made on this board.
+   */
+  void unmakeMove(MoveRecord move);
+
   /**
    * Passes the turn to the next player.
    * @param p the player id that is attempting to make the move.
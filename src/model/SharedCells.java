@@ -0,0 +1,141 @@
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The owner of every cell of a board, stored in small chunks that copies share.
+ * A copy only copies the references to the chunks, and the first change to a chunk after
+ * that copies just that chunk, so copying a board costs a reference per chunk and each move
+ * on a copy copies only the chunks the move touches. The disc counts and Zobrist key of the
+ * cells are kept up to date by every change, so a copy never has to count them again.
+ * Copying never writes to the cells being copied, so cells nobody is changing can be copied
+ * from several threads at once. Changing them is for one thread at a time.
+ */
+public final class SharedCells {
+  private static final int CHUNK_BITS = 4;
+  private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+
+  private final BoardGeometry geometry;
+
+  /**
+   * INVARIANT: chunks[i >>> CHUNK_BITS][i & CHUNK_MASK] is the owner of cell i, and a chunk
+   * is only written in place while stamps[c] equals generation, which every copy of these
+   * cells and of their copies moves on, so a chunk another copy may hold is never written.
+   * INTERPRETATION: the owners of the cells, in chunks that are shared until changed.
+   * generation is shared by all copies of one board, stamps[c] is the generation in which
+   * chunk c was last made private to these cells.
+   */
+  private final byte[][] chunks;
+  private final long[] stamps;
+  private final AtomicLong generation;
+
+  /**
+   * INVARIANT: counts[p] is the number of cells owned by p, and key is the xor of
+   * geometry.cellKey(i, owner of i) over every cell i.
+   * INTERPRETATION: counts[0] is the number of empty cells, and counts[p] is the score of
+   * player p.
+   */
+  private final int[] counts;
+  private long key;
+
+  /**
+   * Constructs the cells of a board.
+   * @param geometry the geometry of the board.
+   * @param owners the owner of every cell, by index in the geometry, 0 for nobody.
+   * @throws IllegalArgumentException if there is not exactly one owner for every cell.
+   */
+  public SharedCells(BoardGeometry geometry, byte[] owners) {
+    if (owners.length != geometry.size()) {
+      throw new IllegalArgumentException("Every cell of the board needs an owner");
+    }
+    this.geometry = geometry;
+    this.chunks = new byte[(owners.length + CHUNK_MASK) >>> CHUNK_BITS][];
+    this.stamps = new long[chunks.length];
+    this.generation = new AtomicLong(1);
+    for (int chunk = 0; chunk < chunks.length; chunk++) {
+      chunks[chunk] = Arrays.copyOfRange(owners, chunk << CHUNK_BITS,
+              Math.min(owners.length, (chunk + 1) << CHUNK_BITS));
+      stamps[chunk] = 1;
+    }
+    this.counts = new int[3];
+    for (int index = 0; index < owners.length; index++) {
+      counts[owners[index]]++;
+      key ^= geometry.cellKey(index, owners[index]);
+    }
+  }
+
+  //copy constructor used by copy, which shares every chunk and owns none of them
+  private SharedCells(SharedCells other) {
+    this.geometry = other.geometry;
+    this.chunks = other.chunks.clone();
+    this.stamps = new long[chunks.length];
+    this.generation = other.generation;
+    this.counts = other.counts.clone();
+    this.key = other.key;
+  }
+
+  /**
+   * Copies the cells, sharing every chunk with the copy until one of them changes it.
+   * @return cells with the same owners, which change independently of these.
+   */
+  public SharedCells copy() {
+    //the chunks are shared from now on, so moving the generation on stops every copy of
+    // the board from writing the chunks it had in place, without touching these cells
+    generation.incrementAndGet();
+    return new SharedCells(this);
+  }
+
+  /**
+   * Gets the number of cells.
+   * @return the number of cells of the board.
+   */
+  public int size() {
+    return geometry.size();
+  }
+
+  /**
+   * Gets the owner of a cell.
+   * @param index the index of the cell in the geometry.
+   * @return 0 if the cell is empty, otherwise the player who owns it.
+   */
+  public int get(int index) {
+    return chunks[index >>> CHUNK_BITS][index & CHUNK_MASK];
+  }
+
+  /**
+   * Sets the owner of a cell, copying its chunk first if a copy shares it.
+   * @param index the index of the cell in the geometry.
+   * @param owner 0 for nobody, otherwise the player who owns it.
+   */
+  public void set(int index, int owner) {
+    int chunk = index >>> CHUNK_BITS;
+    long now = generation.get();
+    if (stamps[chunk] != now) {
+      chunks[chunk] = chunks[chunk].clone();
+      stamps[chunk] = now;
+    }
+    int previous = chunks[chunk][index & CHUNK_MASK];
+    counts[previous]--;
+    counts[owner]++;
+    key ^= geometry.cellKey(index, previous) ^ geometry.cellKey(index, owner);
+    chunks[chunk][index & CHUNK_MASK] = (byte) owner;
+  }
+
+  /**
+   * Gets the number of cells an owner has.
+   * @param owner 0 for the empty cells, otherwise a player.
+   * @return the number of cells with that owner.
+   */
+  public int count(int owner) {
+    return counts[owner];
+  }
+
+  /**
+   * Gets the Zobrist key of the owners of the cells, without the side to move.
+   * @return the xor of geometry.cellKey over every cell and its owner.
+   */
+  public long key() {
+    return key;
+  }
+}
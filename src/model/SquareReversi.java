@@ -1,7 +1,6 @@
 package model;
 
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
 
 /**
@@ -18,27 +17,28 @@ public class SquareReversi extends AbstractReversi {
 
   /**
    * Constructor for passing in the fields.
-   * @param board the game board.
+   * @param geometry the geometry of the board.
+   * @param cells the owner of every cell of the board.
    * @param sideLength the length of one edge of the board.
    * @param currentPlayerTurn the current players turn.
    * @param gameStarted if the game has started.
    * @param numPasses number of passes in a row so far.
    * @param numPlayers number of players in the game.
    */
-  private SquareReversi(LinkedHashMap<Coordinate, Cell> board,
+  private SquareReversi(BoardGeometry geometry, SharedCells cells,
                          int sideLength, int currentPlayerTurn,
                          boolean gameStarted, int numPasses, int numPlayers) {
-    super(new LinkedHashMap<>(board), sideLength, currentPlayerTurn,
+    super(geometry, cells, sideLength, currentPlayerTurn,
             gameStarted, numPasses, numPlayers);
   }
 
   @Override
-  protected ReversiModel cloneChild(LinkedHashMap<Coordinate, Cell> board,
+  protected ReversiModel cloneChild(BoardGeometry geometry, SharedCells cells,
                                     int sideLength, int currentPlayerTurn,
                                     boolean gameStarted,
                                     int numPasses, int numPlayers) {
-    return new SquareReversi(board, sideLength, currentPlayerTurn, gameStarted, numPasses,
-            numPlayers);
+    return new SquareReversi(geometry, cells, sideLength, currentPlayerTurn, gameStarted,
+            numPasses, numPlayers);
   }
 
   @Override
@@ -49,12 +49,8 @@ public class SquareReversi extends AbstractReversi {
               "than or equal to 4");
     }
 
-
-    for (int x = 0; x < sideLength; x++) {
-      for (int y = 0; y < sideLength; y++) {
-        board.put(new CartesianCoordinate(x, y), new BasicCell());
-      }
-    }
+    BoardGeometry board = BoardGeometry.square(sideLength);
+    loadBoard(board, new byte[board.size()]);
     this.setInitialColors();
   }
 
@@ -73,7 +69,7 @@ public class SquareReversi extends AbstractReversi {
 
     //loop through list
     for (CartesianCoordinate coord : startingFour) {
-      board.put(coord, new BasicCell(currentPlayer));
+      setOwner(coord, currentPlayer);
       currentPlayer = 3 - currentPlayer;
     }
   }
@@ -101,10 +101,15 @@ public class ModelToProviderModelAdapter implements ReversiModel {
   @Override
   public int getSimulatedScore(HexCoordinate c, PlayerColor p) {
 
-    model.ReversiModel clone = model.clone();
-    clone.flipCell(new CoordinateAdapter().convertToCubic(c.getRow(), c.getCol(), sidelength),
+    //counts the flips on the live board instead of playing the move on a clone
+    int flips = model.howManyCellsDoesThisMoveFlip(
+            new CoordinateAdapter().convertToCubic(c.getRow(), c.getCol(), sidelength),
             convertColorToInt(p));
-    return model.getScore(convertColorToInt(p));
+    if (flips == 0) {
+      throw new IllegalArgumentException("Not a valid move");
+    }
+    //the placed disc counts too
+    return flips + 1;
   }
 
   @Override
@@ -97,10 +97,15 @@ public class ReadOnlyModelToProviderReadOnlyAdapter implements ReadonlyReversiMo
   @Override
   public int getSimulatedScore(HexCoordinate c, PlayerColor p) {
 
-    model.ReversiModel clone = readOnlyModel.clone();
-    clone.flipCell(new CoordinateAdapter().convertToCubic(c.getRow(), c.getCol(), sidelength),
+    //counts the flips on the live board instead of playing the move on a clone
+    int flips = readOnlyModel.howManyCellsDoesThisMoveFlip(
+            new CoordinateAdapter().convertToCubic(c.getRow(), c.getCol(), sidelength),
             convertColorToInt(p));
-    return readOnlyModel.getScore(convertColorToInt(p));
+    if (flips == 0) {
+      throw new IllegalArgumentException("Not a valid move");
+    }
+    //the placed disc counts too
+    return flips + 1;
   }
 
 
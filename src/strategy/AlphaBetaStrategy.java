@@ -0,0 +1,313 @@
+package strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import model.Coordinate;
+import model.MoveRecord;
+import model.Pair;
+import model.ReadonlyReversiModel;
+import model.ReversiModel;
+
+/**
+ * This Reversi strategy picks exactly the move MiniMaxStrategy picks, but prunes the tree
+ * with alpha-beta search instead of scoring every position up to the max depth.
+ * Moves are searched in the order a MoveOrdering gives. The ordering only changes how
+ * much of the tree is skipped: at the top of the tree ties are still broken by board
+ * order, the same way minimax breaks them.
+ */
+public class AlphaBetaStrategy extends MiniMaxStrategy {
+  private final MoveOrdering ordering;
+  private final TranspositionTable table; // may be null, then nothing is remembered
+
+  //mixed into position keys, since a score also depends on who is asked to move and for whom
+  private static final long OFF_TURN_SALT = 0x9E3779B97F4A7C15L;
+  private static final long SECOND_PLAYER_SALT = 0xC2B2AE3D27D4EB4FL;
+
+  //the System.nanoTime after which a search gives up, if timed, see chooseCoordBefore
+  private boolean timed;
+  private long deadline;
+  private AtomicBoolean stop; // may be null, see chooseCoordUntil
+
+  /**
+   * Alpha-beta strategy for reversi takes in a depth, an opponent strategy and an ordering.
+   * @param depth the max number of moves it looks down for a particular possible move.
+   * @param opponentStrategy the strategy of the opponent, used at the max depth.
+   * @param ordering the order moves are searched in.
+   */
+  public AlphaBetaStrategy(int depth, ReversiStrategy opponentStrategy, MoveOrdering ordering) {
+    this(depth, opponentStrategy, ordering, null);
+  }
+
+  /**
+   * Alpha-beta strategy for reversi that remembers positions in a transposition table.
+   * The table can be kept between moves, but should only be shared between searches that
+   * use the same opponent strategy.
+   * @param depth the max number of moves it looks down for a particular possible move.
+   * @param opponentStrategy the strategy of the opponent, used at the max depth.
+   * @param ordering the order moves are searched in.
+   * @param table the table to look positions up in and store them to.
+   */
+  public AlphaBetaStrategy(int depth, ReversiStrategy opponentStrategy, MoveOrdering ordering,
+                           TranspositionTable table) {
+    super(depth, opponentStrategy);
+    this.ordering = ordering;
+    this.table = table;
+  }
+
+  /**
+   * Alpha-beta strategy for reversi takes in a depth and an ordering.
+   * @param depth the max number of moves it looks down for a particular possible move.
+   * @param ordering the order moves are searched in.
+   */
+  public AlphaBetaStrategy(int depth, MoveOrdering ordering) {
+    super(depth);
+    this.ordering = ordering;
+    this.table = null;
+  }
+
+  /**
+   * Alpha-beta strategy for reversi takes in a depth, and searches corners first.
+   * @param depth the max number of moves it looks down for a particular possible move.
+   */
+  public AlphaBetaStrategy(int depth) {
+    this(depth, new CornersFirstOrdering());
+  }
+
+  /**
+   * Chooses a coord like chooseCoord, but gives up once the deadline passes.
+   * @param model the model for the game, which is not changed.
+   * @param player the player choosing the coord.
+   * @param deadline the System.nanoTime value after which to stop searching.
+   * @return the coord minimax would choose.
+   * @throws SearchTimeoutException if the deadline passes before the search is done.
+   */
+  Coordinate chooseCoordBefore(ReadonlyReversiModel model, int player, long deadline) {
+    this.timed = true;
+    this.deadline = deadline;
+    try {
+      return this.chooseCoord(model, player);
+    }
+    finally {
+      this.timed = false;
+    }
+  }
+
+  /**
+   * Chooses a coord like chooseCoord, but gives up once another thread sets the flag.
+   * @param model the model for the game, which is not changed.
+   * @param player the player choosing the coord.
+   * @param stop set by another thread to end the search early.
+   * @return the coord minimax would choose.
+   * @throws SearchTimeoutException if the flag is set before the search is done.
+   */
+  Coordinate chooseCoordUntil(ReadonlyReversiModel model, int player, AtomicBoolean stop) {
+    this.stop = stop;
+    try {
+      return this.chooseCoord(model, player);
+    }
+    finally {
+      this.stop = null;
+    }
+  }
+
+  //the top of the tree, and the positions reached from it by passing, still need the move
+  // that minimax would return, so ties between equal moves are settled by board order here
+  @Override
+  protected Pair<Coordinate, Integer> miniMax(ReversiModel model, int player, int depth) {
+    this.visitNode();
+    List<Coordinate> availablePlayer = model.getAvailableMoves(player);
+    if (depth >= this.depth) {
+      return this.horizon(model, player, availablePlayer);
+    }
+    List<Coordinate> availableOpponent = model.getAvailableMoves(3 - player);
+    if (availablePlayer.isEmpty() && availableOpponent.isEmpty()) {
+      return new Pair<>(null, miniMaxScore(model, player));
+    }
+    else if (availablePlayer.isEmpty()) {
+      return miniMax(model, 3 - player, depth + 1);
+    }
+    return this.searchRootMoves(model, player, depth, availablePlayer);
+  }
+
+  /**
+   * Scores every move at the top of the tree, and picks the one minimax would pick.
+   * @param model the game, which is left as it was found.
+   * @param player the player to move.
+   * @param depth how deep in the tree the position is, 0 unless reached by passing.
+   * @param availablePlayer the moves of the player, in board order.
+   * @return the best move, and its score.
+   */
+  protected Pair<Coordinate, Integer> searchRootMoves(ReversiModel model, int player, int depth,
+                                                      List<Coordinate> availablePlayer) {
+    boolean maximize = model.getCurrentTurn() == this.player;
+    Coordinate bestMove = null;
+    int bestIndex = -1;
+    int bestScore = 0;
+    for (Coordinate coord : ordering.order(model, availablePlayer, player)) {
+      //a window one wider than the best so far keeps scores that tie with it exact
+      int alpha = Integer.MIN_VALUE;
+      int beta = Integer.MAX_VALUE;
+      if (bestMove != null && maximize) {
+        alpha = bestScore - 1;
+      }
+      else if (bestMove != null) {
+        beta = bestScore + 1;
+      }
+
+      MoveRecord move = model.makeMove(coord, player);
+      int score = alphaBeta(model, 3 - player, depth + 1, alpha, beta);
+      model.unmakeMove(move);
+
+      int index = availablePlayer.indexOf(coord);
+      if (bestMove == null || (maximize ? score > bestScore : score < bestScore)
+              || (score == bestScore && index < bestIndex)) {
+        bestMove = coord;
+        bestIndex = index;
+        bestScore = score;
+      }
+    }
+    ordering.bestMoveFound(model, bestMove);
+    return new Pair<>(bestMove, bestScore);
+  }
+
+  /**
+   * Scores one move at the top of the tree, for searches that split the top of the tree
+   * between several boards and strategies.
+   * @param model a board owned by the caller, which is left as it was found.
+   * @param rootPlayer the player the whole search is choosing a move for.
+   * @param coord the move to score.
+   * @param player the player making the move.
+   * @param depth how deep in the tree the move is made.
+   * @param alpha the score the maximizing side is already sure of.
+   * @param beta the score the minimizing side is already sure of.
+   * @return the score of the move if it lies between alpha and beta, otherwise a score on
+   *         the same side of the window as the real one.
+   */
+  int searchMove(ReversiModel model, int rootPlayer, Coordinate coord, int player, int depth,
+                 int alpha, int beta) {
+    this.player = rootPlayer;
+    MoveRecord move = model.makeMove(coord, player);
+    int score = alphaBeta(model, 3 - player, depth + 1, alpha, beta);
+    model.unmakeMove(move);
+    return score;
+  }
+
+  /**
+   * Gets the move ordering of this strategy.
+   * @return the ordering moves are searched in.
+   */
+  protected MoveOrdering getOrdering() {
+    return ordering;
+  }
+
+  //helper: the minimax score of the position if it lies between alpha and beta, otherwise
+  // a score on the same side of the window as the real one
+  private int alphaBeta(ReversiModel model, int player, int depth, int alpha, int beta) {
+    this.visitNode();
+    //scores are only reused from searches of the same depth, so the result stays exactly
+    // what minimax finds. Deeper or shallower entries still suggest a move to try first.
+    int remaining = this.depth - depth;
+    boolean remember = table != null && remaining >= 0 && remaining <= 255;
+    long key = remember ? this.searchKey(model, player) : 0L;
+    long entry = remember ? table.probe(key) : TranspositionTable.NO_ENTRY;
+    if (entry != TranspositionTable.NO_ENTRY
+            && TranspositionTable.depthOf(entry) == remaining) {
+      int score = TranspositionTable.scoreOf(entry);
+      int bound = TranspositionTable.boundOf(entry);
+      if (bound == TranspositionTable.EXACT
+              || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+              || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+        return score;
+      }
+    }
+
+    List<Coordinate> availablePlayer = model.getAvailableMoves(player);
+    if (depth >= this.depth) {
+      Pair<Coordinate, Integer> result = this.horizon(model, player, availablePlayer);
+      if (remember) {
+        table.store(key, 0, TranspositionTable.EXACT, result.second(),
+                model.getGeometry().indexOf(result.first()));
+      }
+      return result.second();
+    }
+    List<Coordinate> availableOpponent = model.getAvailableMoves(3 - player);
+    if (availablePlayer.isEmpty() && availableOpponent.isEmpty()) {
+      return miniMaxScore(model, player);
+    }
+    else if (availablePlayer.isEmpty()) {
+      return alphaBeta(model, 3 - player, depth + 1, alpha, beta);
+    }
+
+    List<Coordinate> ordered = ordering.order(model, availablePlayer, player);
+    if (entry != TranspositionTable.NO_ENTRY && TranspositionTable.moveOf(entry) >= 0) {
+      Coordinate remembered = model.getGeometry().coordinateAt(TranspositionTable.moveOf(entry));
+      ordered = new ArrayList<>(ordered);
+      if (ordered.remove(remembered)) {
+        ordered.add(0, remembered);
+      }
+    }
+
+    int originalAlpha = alpha;
+    int originalBeta = beta;
+    boolean maximize = model.getCurrentTurn() == this.player;
+    int bestScore = maximize ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+    Coordinate bestMove = null;
+    for (Coordinate coord : ordered) {
+      MoveRecord move = model.makeMove(coord, player);
+      int score = alphaBeta(model, 3 - player, depth + 1, alpha, beta);
+      model.unmakeMove(move);
+
+      if (maximize ? score > bestScore : score < bestScore) {
+        bestScore = score;
+        bestMove = coord;
+      }
+      if (maximize) {
+        alpha = Math.max(alpha, bestScore);
+      }
+      else {
+        beta = Math.min(beta, bestScore);
+      }
+      //the other player would never let the game get here, so the rest can be skipped
+      if (alpha >= beta) {
+        break;
+      }
+    }
+    ordering.bestMoveFound(model, bestMove);
+    if (remember) {
+      int bound = TranspositionTable.EXACT;
+      if (bestScore <= originalAlpha) {
+        bound = TranspositionTable.UPPER_BOUND;
+      }
+      else if (bestScore >= originalBeta) {
+        bound = TranspositionTable.LOWER_BOUND;
+      }
+      table.store(key, remaining, bound, bestScore, model.getGeometry().indexOf(bestMove));
+    }
+    return bestScore;
+  }
+
+  //helper: the key of a position as this search sees it
+  private long searchKey(ReversiModel model, int player) {
+    long key = model.positionKey();
+    if (player != model.getCurrentTurn()) {
+      key ^= OFF_TURN_SALT;
+    }
+    if (this.player == 2) {
+      key ^= SECOND_PLAYER_SALT;
+    }
+    return key;
+  }
+
+  //helper: counts a node, and checks the clock and the stop flag every few nodes
+  private void visitNode() {
+    nodeCount++;
+    if ((nodeCount & 15) != 0) {
+      return;
+    }
+    if ((timed && System.nanoTime() - deadline > 0) || (stop != null && stop.get())) {
+      throw new SearchTimeoutException();
+    }
+  }
+}
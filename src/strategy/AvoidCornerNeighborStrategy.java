@@ -18,7 +18,7 @@ public class AvoidCornerNeighborStrategy implements ReversiStrategy {
     List<Coordinate> allNeighborsOfCorners = getAllNeighborsOfCorners(model);
 
     // if there is a valid move that is not a neighbor of a corner, play that
-    for (Coordinate coord : model.getBoard().keySet()) {
+    for (Coordinate coord : model.getGeometry().getCoordinates()) {
       if (model.isMoveValid(coord, player) && !allNeighborsOfCorners.contains(coord)) {
         return coord;
       }
@@ -35,7 +35,7 @@ public class AvoidCornerNeighborStrategy implements ReversiStrategy {
 
     int maxCoordValue = model.getSideLength() - 1;
 
-    for (Coordinate coord : model.getBoard().keySet()) {
+    for (Coordinate coord : model.getGeometry().getCoordinates()) {
 
       if ((coord.getX() == maxCoordValue
               || coord.getY() == maxCoordValue
@@ -0,0 +1,58 @@
+package strategy;
+
+import java.util.function.Function;
+
+import model.BoardGeometry;
+import model.Coordinate;
+import model.ReadonlyReversiModel;
+
+/**
+ * This Reversi strategy plays from an OpeningBook while the game is in it, and plays
+ * another strategy once the game leaves the book. A book move takes one lookup, so the
+ * opening, which every game starts the same way, costs no search at all.
+ */
+public class BookStrategy implements ReversiStrategy {
+  private final Function<BoardGeometry, OpeningBook> books;
+  private final ReversiStrategy fallbackStrategy;
+
+  private BoardGeometry bookGeometry; // the board the book was last opened for
+  private OpeningBook book; // may be null, if that board has no book
+
+  /**
+   * Book strategy for reversi takes in a way to find the book of a board, and the strategy
+   * to play outside the book.
+   * @param books gives the book of a board, or null if it has none.
+   * @param fallbackStrategy the strategy to play when the book has no move.
+   */
+  public BookStrategy(Function<BoardGeometry, OpeningBook> books,
+                      ReversiStrategy fallbackStrategy) {
+    this.books = books;
+    this.fallbackStrategy = fallbackStrategy;
+  }
+
+  /**
+   * Book strategy for reversi that plays from one book.
+   * @param book the book to play from.
+   * @param fallbackStrategy the strategy to play when the book has no move.
+   */
+  public BookStrategy(OpeningBook book, ReversiStrategy fallbackStrategy) {
+    this(geometry -> book.fits(geometry) ? book : null, fallbackStrategy);
+  }
+
+  @Override
+  public Coordinate chooseCoord(ReadonlyReversiModel model, int player) {
+    BoardGeometry geometry = model.getGeometry();
+    if (geometry != bookGeometry) {
+      bookGeometry = geometry;
+      book = books.apply(geometry);
+    }
+    //the key includes whose turn it is, so a player asked out of turn is never in the book
+    if (book != null && model.getCurrentTurn() == player) {
+      int move = book.lookup(model);
+      if (move != OpeningBook.NO_MOVE && model.isMoveValid(geometry.coordinateAt(move), player)) {
+        return geometry.coordinateAt(move);
+      }
+    }
+    return fallbackStrategy.chooseCoord(model, player);
+  }
+}
@@ -1,12 +1,9 @@
 package strategy;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import model.Coordinate;
 import model.CubicCoordinate;
+import model.MoveList;
 import model.ReadonlyReversiModel;
-import model.ReversiModel;
 
 /**
  * This Reversi strategy will capture as many pieces on this turn as possible.
@@ -18,22 +15,14 @@ public class CaptureMaxCellsThisMove implements ReversiStrategy {
     Coordinate maxCoord = new CubicCoordinate(0,0,0);
     int maxScore = 0;
 
-    List<Coordinate> keysList = new ArrayList<>(model.getBoard().keySet());
-    //Collections.reverse(keysList);
-    //for each valid move
-    //check how much the score will increase,
-    // if score > maxScore, score = maxScore, cell = maxCell
-    for (Coordinate coord : keysList) {
-      if (model.isMoveValid(coord, player)) {
-        ReversiModel clonedModelToTestMove = model.clone();
-
-        //try?
-        clonedModelToTestMove.flipCell(coord, player);
-        if (clonedModelToTestMove.getScore(player) > maxScore) {
-          maxScore = clonedModelToTestMove.getScore(player);
-          maxCoord = coord;
-          //System.out.println("Max score: " + maxScore);
-        }
+    //every legal move comes with its flips, so no move has to be tried on a copy
+    MoveList moves = model.generateMoves(player);
+    for (int move = 0; move < moves.size(); move++) {
+      //the score after a move only differs between moves by the cells it flips
+      int score = moves.flipCount(move);
+      if (score > maxScore) {
+        maxScore = score;
+        maxCoord = model.getGeometry().coordinateAt(moves.cellAt(move));
       }
     }
     return maxCoord;
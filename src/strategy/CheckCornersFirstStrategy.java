@@ -4,8 +4,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 import model.Coordinate;
+import model.MoveList;
 import model.ReadonlyReversiModel;
-import model.ReversiModel;
 
 /**
  * This strategy will first play in available corners. If no available corners,
@@ -18,18 +18,14 @@ public class CheckCornersFirstStrategy implements ReversiStrategy {
 
     List<Coordinate> allCorners = getAllCorners(model);
 
-    List<Coordinate> corners = new ArrayList<>();
-    // if there is a valid move that is a corner, play that
-    for (Coordinate coord : model.getBoard().keySet()) {
-      if (model.isMoveValid(coord, player) && allCorners.contains(coord)) {
-        ReversiModel clone = model.clone();
-        clone.flipCell(coord, player);
-        corners.add(coord);
+    // if there is a valid move that is a corner, play the first one in board order
+    MoveList moves = model.generateMoves(player);
+    for (int move = 0; move < moves.size(); move++) {
+      Coordinate coord = model.getGeometry().coordinateAt(moves.cellAt(move));
+      if (allCorners.contains(coord)) {
+        return coord;
       }
     }
-    if (!corners.isEmpty()) {
-      return corners.get(0);
-    }
 
     // if there are no valid corner moves, default to the AvoidCornerNeighborStrategy
     return new AvoidCornerNeighborStrategy().chooseCoord(model, player);
@@ -41,7 +37,7 @@ public class CheckCornersFirstStrategy implements ReversiStrategy {
 
     int maxCoordValue = model.getSideLength() - 1;
 
-    for (Coordinate coord : model.getBoard().keySet()) {
+    for (Coordinate coord : model.getGeometry().getCoordinates()) {
 
       if ((coord.getX() == maxCoordValue
               || coord.getY() == maxCoordValue
@@ -0,0 +1,44 @@
+package strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import model.BoardGeometry;
+import model.Coordinate;
+import model.ReversiModel;
+
+/**
+ * Searches moves on corners first, and the rest in board order.
+ * A corner is a cell with only three neighbors, which is true of the corners of both the
+ * hexagon and the square boards.
+ */
+public class CornersFirstOrdering implements MoveOrdering {
+
+  @Override
+  public List<Coordinate> order(ReversiModel model, List<Coordinate> moves, int player) {
+    BoardGeometry geometry = model.getGeometry();
+    List<Coordinate> ordered = new ArrayList<>(moves.size());
+    for (Coordinate move : moves) {
+      if (isCorner(geometry, geometry.indexOf(move))) {
+        ordered.add(move);
+      }
+    }
+    for (Coordinate move : moves) {
+      if (!isCorner(geometry, geometry.indexOf(move))) {
+        ordered.add(move);
+      }
+    }
+    return ordered;
+  }
+
+  //helper: determines if the cell at index has exactly three neighbors on the board
+  private boolean isCorner(BoardGeometry geometry, int index) {
+    int neighbors = 0;
+    for (int d = 0; d < geometry.directionCount(); d++) {
+      if (geometry.neighbor(index, d) >= 0) {
+        neighbors++;
+      }
+    }
+    return neighbors == 3;
+  }
+}
@@ -0,0 +1,446 @@
+package strategy;
+
+import model.BoardGeometry;
+import model.Coordinate;
+import model.Pair;
+import model.ReadonlyReversiModel;
+
+/**
+ * Solves the end of a game exactly: it searches every line to the last disc, and finds the
+ * move and final disc difference of perfect play by both players. Only worth it for the
+ * last few empty cells, since the work grows exponentially with them.
+ * The search runs on its own board that flips discs in place and takes them back, and
+ * tries moves in the order that prunes most: near the root, moves that leave the opponent
+ * fewest replies first, and everywhere, moves into empty regions of odd size first, since
+ * the player who moves last in a region tends to keep it. Below the root, the last four
+ * empty cells have solvers of their own that try the cells directly, since ordering that
+ * few moves costs more than it saves, and the last empty cell is settled without search.
+ */
+public class EndgameSolver {
+  //moves are ordered by the replies they leave only while this many cells are empty
+  private static final int FASTEST_FIRST_EMPTIES = 6;
+  private static final int INFINITY = 1 << 20;
+
+  private BoardGeometry geometry;
+  private int directions;
+
+  /**
+   * INVARIANT: empties[0 .. emptyCount - 1] are exactly the empty cells of cells, and
+   * emptyPos[empties[i]] == i for each of them.
+   * INTERPRETATION: cells[i] is the owner of cell i, 0 if it is empty. next[i * directions
+   * + d] is the neighbor of cell i in direction d, or -1 off the board. discDiff is the
+   * discs of player 1 minus the discs of player 2. flipStack holds the flipped cells of
+   * every move on the board, the latest on top.
+   */
+  private byte[] cells;
+  private int[] next;
+  private int[] empties;
+  private int[] emptyPos;
+  private int emptyCount;
+  private int discDiff;
+  private int[] flipStack;
+  private int flipTop;
+
+  //scratch space for ordering moves, one row per ply
+  private int[][] moves;
+  private int[][] keys;
+  private int[] regionOf;
+  private int[] regionSize;
+  private int[] queue;
+
+  private long nodeCount;
+
+  /**
+   * Finds the move of perfect play, and the disc difference it leads to.
+   * @param model the game, which is not changed.
+   * @param player the player to move.
+   * @return the best move, or null if the player has to pass, and the number of discs
+   *         the player ends with minus the opponent's when both play perfectly.
+   */
+  public Pair<Coordinate, Integer> solve(ReadonlyReversiModel model, int player) {
+    this.load(model);
+    nodeCount = 0;
+
+    int count = this.orderedMoves(player, 0);
+    if (count == 0) {
+      return new Pair<>(null, this.negamax(player, -INFINITY, INFINITY, 0, false));
+    }
+
+    //the window stays one wider than the best score, so ties are exact and go to board order
+    int bestMove = -1;
+    int bestScore = -INFINITY;
+    for (int i = 0; i < count; i++) {
+      int cell = moves[0][i];
+      int alpha = bestMove < 0 ? -INFINITY : bestScore - 1;
+      int flips = this.make(cell, player);
+      int score = -this.negamax(3 - player, -INFINITY, -alpha, 1, false);
+      this.undo(cell, player, flips);
+      if (score > bestScore || (score == bestScore && cell < bestMove)) {
+        bestScore = score;
+        bestMove = cell;
+      }
+    }
+    return new Pair<>(geometry.coordinateAt(bestMove), bestScore);
+  }
+
+  /**
+   * Gets the number of positions the last solve looked at.
+   * @return the node count of the last call to solve.
+   */
+  public long getNodeCount() {
+    return nodeCount;
+  }
+
+  //helper: copies the game onto the solver's board, reusing its arrays when it can
+  private void load(ReadonlyReversiModel model) {
+    BoardGeometry shape = model.getGeometry();
+    int size = shape.size();
+    if (shape != geometry) {
+      geometry = shape;
+      directions = shape.directionCount();
+      cells = new byte[size];
+      next = new int[size * directions];
+      for (int i = 0; i < size; i++) {
+        for (int d = 0; d < directions; d++) {
+          next[i * directions + d] = shape.neighbor(i, d);
+        }
+      }
+      empties = new int[size];
+      emptyPos = new int[size];
+      regionOf = new int[size];
+      regionSize = new int[size];
+      queue = new int[size];
+    }
+
+    emptyCount = 0;
+    discDiff = 0;
+    for (int i = 0; i < size; i++) {
+      cells[i] = (byte) model.getOwnerAt(i);
+      if (cells[i] == 0) {
+        emptyPos[i] = emptyCount;
+        empties[emptyCount++] = i;
+      }
+      discDiff += cells[i] == 1 ? 1 : cells[i] == 2 ? -1 : 0;
+    }
+    //every move fills a cell, and at most one pass comes between two moves
+    int plies = 2 * emptyCount + 2;
+    if (moves == null || moves.length < plies || moves[0].length < size) {
+      moves = new int[plies][size];
+      keys = new int[plies][size];
+    }
+    if (flipStack == null || flipStack.length < size * plies) {
+      flipStack = new int[size * plies];
+    }
+    flipTop = 0;
+  }
+
+  //helper: the final disc difference for player with perfect play, if it lies between
+  // alpha and beta, otherwise a score on the same side of the window as the real one
+  private int negamax(int player, int alpha, int beta, int ply, boolean passed) {
+    switch (emptyCount) {
+      case 1:
+        return this.lastEmpty(player, empties[0]);
+      case 2:
+        return this.solveTwo(player, alpha, beta, passed, empties[0], empties[1]);
+      case 3:
+        return this.solveThree(player, alpha, beta, passed, empties[0], empties[1], empties[2]);
+      case 4:
+        return this.solveFour(player, alpha, beta, passed,
+                empties[0], empties[1], empties[2], empties[3]);
+      default:
+        break;
+    }
+    nodeCount++;
+    int count = this.orderedMoves(player, ply);
+    if (count == 0) {
+      if (passed || emptyCount == 0) {
+        return this.diffFor(player);
+      }
+      return -this.negamax(3 - player, -beta, -alpha, ply + 1, true);
+    }
+
+    int best = -INFINITY;
+    for (int i = 0; i < count; i++) {
+      int cell = moves[ply][i];
+      int flips = this.make(cell, player);
+      int score = -this.negamax(3 - player, -beta, -alpha, ply + 1, false);
+      this.undo(cell, player, flips);
+      if (score > best) {
+        best = score;
+        alpha = Math.max(alpha, best);
+        if (alpha >= beta) {
+          break;
+        }
+      }
+    }
+    return best;
+  }
+
+  //helper: settles the game with one empty cell left without searching, whoever can
+  // still play there does, and the other player passes
+  private int lastEmpty(int player, int cell) {
+    nodeCount++;
+    int flips = this.countFlips(cell, player);
+    if (flips > 0) {
+      return this.diffFor(player) + 2 * flips + 1;
+    }
+    flips = this.countFlips(cell, 3 - player);
+    if (flips > 0) {
+      return this.diffFor(player) - 2 * flips - 1;
+    }
+    return this.diffFor(player);
+  }
+
+  //helper: negamax with the empty cells a and b left, which tries each of them in turn
+  private int solveTwo(int player, int alpha, int beta, boolean passed, int a, int b) {
+    nodeCount++;
+    int best = -INFINITY;
+    for (int i = 0; i < 2; i++) {
+      if (this.countFlips(a, player) > 0) {
+        int flips = this.make(a, player);
+        int score = -this.lastEmpty(3 - player, b);
+        this.undo(a, player, flips);
+        if (score > best) {
+          best = score;
+          if (best >= beta) {
+            return best;
+          }
+        }
+      }
+      int t = a;
+      a = b;
+      b = t;
+    }
+    if (best > -INFINITY) {
+      return best;
+    }
+    if (passed) {
+      return this.diffFor(player);
+    }
+    return -this.solveTwo(3 - player, -beta, -alpha, true, a, b);
+  }
+
+  //helper: negamax with the empty cells a, b and c left, which tries each of them in turn
+  // and leaves the other two to solveTwo
+  private int solveThree(int player, int alpha, int beta, boolean passed, int a, int b, int c) {
+    nodeCount++;
+    int best = -INFINITY;
+    for (int i = 0; i < 3; i++) {
+      if (this.countFlips(a, player) > 0) {
+        int flips = this.make(a, player);
+        int score = -this.solveTwo(3 - player, -beta, -alpha, false, b, c);
+        this.undo(a, player, flips);
+        if (score > best) {
+          best = score;
+          alpha = Math.max(alpha, best);
+          if (alpha >= beta) {
+            return best;
+          }
+        }
+      }
+      int t = a;
+      a = b;
+      b = c;
+      c = t;
+    }
+    if (best > -INFINITY) {
+      return best;
+    }
+    if (passed) {
+      return this.diffFor(player);
+    }
+    return -this.solveThree(3 - player, -beta, -alpha, true, a, b, c);
+  }
+
+  //helper: negamax with the empty cells a, b, c and d left, which tries each of them in
+  // turn and leaves the other three to solveThree
+  private int solveFour(int player, int alpha, int beta, boolean passed,
+                        int a, int b, int c, int d) {
+    nodeCount++;
+    int best = -INFINITY;
+    for (int i = 0; i < 4; i++) {
+      if (this.countFlips(a, player) > 0) {
+        int flips = this.make(a, player);
+        int score = -this.solveThree(3 - player, -beta, -alpha, false, b, c, d);
+        this.undo(a, player, flips);
+        if (score > best) {
+          best = score;
+          alpha = Math.max(alpha, best);
+          if (alpha >= beta) {
+            return best;
+          }
+        }
+      }
+      int t = a;
+      a = b;
+      b = c;
+      c = d;
+      d = t;
+    }
+    if (best > -INFINITY) {
+      return best;
+    }
+    if (passed) {
+      return this.diffFor(player);
+    }
+    return -this.solveFour(3 - player, -beta, -alpha, true, a, b, c, d);
+  }
+
+  //helper: the disc difference from the view of player
+  private int diffFor(int player) {
+    return player == 1 ? discDiff : -discDiff;
+  }
+
+  //helper: writes the legal moves of player into moves[ply] in the order to search them,
+  // and returns how many there are
+  private int orderedMoves(int player, int ply) {
+    int[] row = moves[ply];
+    int count = 0;
+    for (int i = 0; i < emptyCount; i++) {
+      if (this.countFlips(empties[i], player) > 0) {
+        row[count++] = empties[i];
+      }
+    }
+    if (count < 2) {
+      return count;
+    }
+
+    this.findRegions();
+    int[] key = keys[ply];
+    boolean fastestFirst = emptyCount > FASTEST_FIRST_EMPTIES;
+    for (int i = 0; i < count; i++) {
+      int cell = row[i];
+      int even = regionSize[regionOf[cell]] % 2 == 0 ? 1 : 0;
+      int replies = 0;
+      if (fastestFirst) {
+        int flips = this.make(cell, player);
+        replies = this.countMoves(3 - player);
+        this.undo(cell, player, flips);
+      }
+      key[i] = replies * 2 + even;
+    }
+
+    //insertion sort, the lists are short and ties keep board order
+    for (int i = 1; i < count; i++) {
+      int cell = row[i];
+      int k = key[i];
+      int j = i - 1;
+      while (j >= 0 && key[j] > k) {
+        row[j + 1] = row[j];
+        key[j + 1] = key[j];
+        j--;
+      }
+      row[j + 1] = cell;
+      key[j + 1] = k;
+    }
+    return count;
+  }
+
+  //helper: splits the empty cells into regions of cells that touch each other
+  private void findRegions() {
+    for (int i = 0; i < emptyCount; i++) {
+      regionOf[empties[i]] = -1;
+    }
+    int regions = 0;
+    for (int i = 0; i < emptyCount; i++) {
+      int start = empties[i];
+      if (regionOf[start] >= 0) {
+        continue;
+      }
+      int head = 0;
+      int tail = 0;
+      queue[tail++] = start;
+      regionOf[start] = regions;
+      while (head < tail) {
+        int cell = queue[head++];
+        for (int d = 0; d < directions; d++) {
+          int neighbor = next[cell * directions + d];
+          if (neighbor >= 0 && cells[neighbor] == 0 && regionOf[neighbor] < 0) {
+            regionOf[neighbor] = regions;
+            queue[tail++] = neighbor;
+          }
+        }
+      }
+      regionSize[regions++] = tail;
+    }
+  }
+
+  //helper: the number of legal moves of player
+  private int countMoves(int player) {
+    int count = 0;
+    for (int i = 0; i < emptyCount; i++) {
+      if (this.countFlips(empties[i], player) > 0) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  //helper: the number of discs a disc of player at the empty cell would flip
+  private int countFlips(int cell, int player) {
+    byte opp = (byte) (3 - player);
+    int total = 0;
+    for (int d = 0; d < directions; d++) {
+      int at = next[cell * directions + d];
+      int run = 0;
+      while (at >= 0 && cells[at] == opp) {
+        at = next[at * directions + d];
+        run++;
+      }
+      if (at >= 0 && cells[at] == player) {
+        total += run;
+      }
+    }
+    return total;
+  }
+
+  //helper: plays a legal move of player, and returns the number of discs it flipped
+  private int make(int cell, int player) {
+    byte own = (byte) player;
+    byte opp = (byte) (3 - player);
+    int flips = 0;
+    for (int d = 0; d < directions; d++) {
+      int at = next[cell * directions + d];
+      while (at >= 0 && cells[at] == opp) {
+        at = next[at * directions + d];
+      }
+      if (at < 0 || cells[at] != own) {
+        continue;
+      }
+      for (at = next[cell * directions + d]; cells[at] == opp; at = next[at * directions + d]) {
+        cells[at] = own;
+        flipStack[flipTop++] = at;
+        flips++;
+      }
+    }
+    cells[cell] = own;
+    discDiff += (player == 1 ? 1 : -1) * (2 * flips + 1);
+
+    //the cell leaves the empties, swapped out with the last one
+    int pos = emptyPos[cell];
+    int last = empties[--emptyCount];
+    empties[pos] = last;
+    emptyPos[last] = pos;
+    empties[emptyCount] = cell;
+    return flips;
+  }
+
+  //helper: takes back the latest move, which was player's at cell and flipped flips discs
+  private void undo(int cell, int player, int flips) {
+    byte opp = (byte) (3 - player);
+    for (int i = 0; i < flips; i++) {
+      cells[flipStack[--flipTop]] = opp;
+    }
+    cells[cell] = 0;
+    discDiff -= (player == 1 ? 1 : -1) * (2 * flips + 1);
+
+    //the cell goes back to where it was, and the one that took its place to the end
+    int pos = emptyPos[cell];
+    int moved = empties[pos];
+    empties[pos] = cell;
+    empties[emptyCount] = moved;
+    emptyPos[moved] = emptyCount;
+    emptyPos[cell] = pos;
+    emptyCount++;
+  }
+}
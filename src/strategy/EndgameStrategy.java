@@ -0,0 +1,54 @@
+package strategy;
+
+import model.Coordinate;
+import model.Pair;
+import model.ReadonlyReversiModel;
+
+/**
+ * This Reversi strategy plays another strategy until only a few cells are empty, and then
+ * plays perfectly with an EndgameSolver. Searches like minimax still guess at the end of
+ * the game from the score at their horizon, and can throw away a game that was won.
+ */
+public class EndgameStrategy implements ReversiStrategy {
+  private final ReversiStrategy midgameStrategy;
+  private final int maxEmpties;
+  private final EndgameSolver solver;
+
+  private Integer lastDifference; // the solved outcome of the last move, null if not solved
+
+  /**
+   * Endgame strategy for reversi takes in the strategy to play before the endgame, and the
+   * number of empty cells from which the game is solved.
+   * @param midgameStrategy the strategy to play while more cells are empty.
+   * @param maxEmpties the most empty cells to solve the game with.
+   */
+  public EndgameStrategy(ReversiStrategy midgameStrategy, int maxEmpties) {
+    if (maxEmpties < 0) {
+      throw new IllegalArgumentException("Empty cells should be 0 or more.");
+    }
+    this.midgameStrategy = midgameStrategy;
+    this.maxEmpties = maxEmpties;
+    this.solver = new EndgameSolver();
+  }
+
+  @Override
+  public Coordinate chooseCoord(ReadonlyReversiModel model, int player) {
+    int empty = model.getGeometry().size() - model.getScore(1) - model.getScore(2);
+    lastDifference = null;
+    if (empty > maxEmpties || model.getAvailableMoves(player).isEmpty()) {
+      return midgameStrategy.chooseCoord(model, player);
+    }
+    Pair<Coordinate, Integer> solved = solver.solve(model, player);
+    lastDifference = solved.second();
+    return solved.first();
+  }
+
+  /**
+   * Gets the final disc difference perfect play leads to from the last move chosen.
+   * @return the discs the player ends with minus the opponent's, or null if the last move
+   *         was chosen by the midgame strategy.
+   */
+  public Integer getLastDifference() {
+    return lastDifference;
+  }
+}
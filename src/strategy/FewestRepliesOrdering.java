@@ -0,0 +1,30 @@
+package strategy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import model.Coordinate;
+import model.MoveRecord;
+import model.ReversiModel;
+
+/**
+ * Searches first the moves that leave the opponent the fewest replies.
+ * Each move is played and taken back once to count the replies, moves with the same count
+ * stay in board order.
+ */
+public class FewestRepliesOrdering implements MoveOrdering {
+
+  @Override
+  public List<Coordinate> order(ReversiModel model, List<Coordinate> moves, int player) {
+    int[] replies = new int[model.getGeometry().size()];
+    for (Coordinate coord : moves) {
+      MoveRecord move = model.makeMove(coord, player);
+      replies[move.getPlacedIndex()] = model.getAvailableMoves(3 - player).size();
+      model.unmakeMove(move);
+    }
+    List<Coordinate> ordered = new ArrayList<>(moves);
+    ordered.sort(Comparator.comparingInt(c -> replies[model.getGeometry().indexOf(c)]));
+    return ordered;
+  }
+}
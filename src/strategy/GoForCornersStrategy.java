@@ -2,6 +2,7 @@ package strategy;
 
 
 import model.Coordinate;
+import model.MoveList;
 import model.ReadonlyReversiModel;
 
 
@@ -22,19 +23,20 @@ public class GoForCornersStrategy implements ReversiStrategy {
     //value of
     int closestCoordToZero = model.getSideLength() - 1;
 
-    for (Coordinate coord : model.getBoard().keySet()) {
-      if (model.isMoveValid(coord, player)) {
-        int sum = Math.abs(coord.getX()) + Math.abs(coord.getY()) + Math.abs(coord.getZ());
-        int coordClosestToZero = Math.min(Math.min(Math.abs(coord.getX()),
-                Math.abs(coord.getY())),
-                Math.abs(coord.getZ()));
-
-        // moves towards outer ring or corners
-        if (sum > maxSum || (sum == maxSum && coordClosestToZero < closestCoordToZero)) {
-          maxSum = sum;
-          closestCoordToZero = coordClosestToZero;
-          bestCoordinate = coord;
-        }
+    //only the legal moves are looked at, in board order, so ties still go to the first
+    MoveList moves = model.generateMoves(player);
+    for (int move = 0; move < moves.size(); move++) {
+      Coordinate coord = model.getGeometry().coordinateAt(moves.cellAt(move));
+      int sum = Math.abs(coord.getX()) + Math.abs(coord.getY()) + Math.abs(coord.getZ());
+      int coordClosestToZero = Math.min(Math.min(Math.abs(coord.getX()),
+              Math.abs(coord.getY())),
+              Math.abs(coord.getZ()));
+
+      // moves towards outer ring or corners
+      if (sum > maxSum || (sum == maxSum && coordClosestToZero < closestCoordToZero)) {
+        maxSum = sum;
+        closestCoordToZero = coordClosestToZero;
+        bestCoordinate = coord;
       }
     }
 
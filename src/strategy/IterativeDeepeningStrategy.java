@@ -0,0 +1,97 @@
+package strategy;
+
+import model.Coordinate;
+import model.ReadonlyReversiModel;
+
+/**
+ * This Reversi strategy searches like AlphaBetaStrategy, but within a time budget instead
+ * of to a fixed depth. It searches to depth 1, then 2, and so on, and when the budget runs
+ * out it plays the move of the deepest search that finished. Every search remembers the
+ * best move of each position it visits, so the next, deeper search looks at the previous
+ * principal variation first and prunes most of what it already knows is worse. Scored
+ * positions are kept in a transposition table for the whole game.
+ */
+public class IterativeDeepeningStrategy implements ReversiStrategy {
+  private static final int TABLE_MEGABYTES = 16;
+
+  private final long budgetMillis;
+  private final int maxDepth;
+  private final ReversiStrategy opponentStrategy;
+  private final MoveOrdering ordering;
+  private final TranspositionTable table; // kept for the whole game
+
+  private int lastDepth; // depth of the deepest search the last move finished
+
+  /**
+   * Iterative deepening strategy for reversi takes in a time budget, a max depth and the
+   * strategy of the opponent.
+   * @param budgetMillis how long to search for each move, in milliseconds.
+   * @param maxDepth the deepest search to try, even if time is left.
+   * @param opponentStrategy the strategy of the opponent, used at the max depth.
+   */
+  public IterativeDeepeningStrategy(long budgetMillis, int maxDepth,
+                                    ReversiStrategy opponentStrategy) {
+    if (budgetMillis <= 0) {
+      throw new IllegalArgumentException("Time budget should be positive.");
+    }
+    if (maxDepth < 0) {
+      throw new IllegalArgumentException("Depth should be 0 or more.");
+    }
+    this.budgetMillis = budgetMillis;
+    this.maxDepth = maxDepth;
+    this.opponentStrategy = opponentStrategy;
+    this.ordering = new PreviousBestOrdering();
+    this.table = new TranspositionTable(TABLE_MEGABYTES);
+  }
+
+  /**
+   * Iterative deepening strategy for reversi takes in a time budget, and searches as deep
+   * as it can in that time.
+   * @param budgetMillis how long to search for each move, in milliseconds.
+   */
+  public IterativeDeepeningStrategy(long budgetMillis) {
+    this(budgetMillis, Integer.MAX_VALUE, new GoForCornersStrategy());
+  }
+
+  @Override
+  public Coordinate chooseCoord(ReadonlyReversiModel model, int player) {
+    long deadline = System.nanoTime() + budgetMillis * 1_000_000L;
+
+    //depth 0 only asks another strategy, so there is always a move to fall back on
+    Coordinate best = new AlphaBetaStrategy(0, opponentStrategy, ordering)
+            .chooseCoord(model, player);
+    lastDepth = 0;
+
+    //searching past the last empty cell cannot change anything
+    int empty = model.getGeometry().size() - model.getScore(1) - model.getScore(2);
+    int depthLimit = Math.min(maxDepth, empty);
+    for (int depth = 1; depth <= depthLimit; depth++) {
+      AlphaBetaStrategy search =
+              new AlphaBetaStrategy(depth, opponentStrategy, ordering, table);
+      try {
+        best = search.chooseCoordBefore(model, player, deadline);
+        lastDepth = depth;
+      }
+      catch (SearchTimeoutException e) {
+        break;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Gets the depth of the deepest search that finished while choosing the last move.
+   * @return the depth reached by the last call to chooseCoord.
+   */
+  public int getLastDepth() {
+    return lastDepth;
+  }
+
+  /**
+   * Gets the transposition table this strategy keeps between moves, to read its counters.
+   * @return the table of the strategy.
+   */
+  public TranspositionTable getTable() {
+    return table;
+  }
+}
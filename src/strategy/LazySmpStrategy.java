@@ -0,0 +1,111 @@
+package strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import model.Coordinate;
+import model.ReadonlyReversiModel;
+
+/**
+ * This Reversi strategy picks exactly the move AlphaBetaStrategy picks, with helper threads
+ * that search the same position alongside it (lazy SMP). The helpers never talk to the
+ * main search or to each other except through one transposition table they all share,
+ * which they fill with positions the main search reaches later. Each helper searches in
+ * its own order, and every other one a move deeper, so they spread out over the tree
+ * instead of all scoring the same positions. Unlike splitting the moves at the top of the
+ * tree, no thread ever waits for another, however uneven the branches are.
+ * The opponent strategy is used by every thread at once, so it must not keep any state.
+ */
+public class LazySmpStrategy implements ReversiStrategy {
+  private static final int TABLE_MEGABYTES = 16;
+
+  private final int depth;
+  private final ReversiStrategy opponentStrategy;
+  private final int helpers;
+  private final ForkJoinPool pool; // null if there are no helpers
+  private final TranspositionTable table; // shared by every thread, kept for the whole game
+
+  /**
+   * Lazy SMP strategy for reversi takes in a depth, the strategy of the opponent and the
+   * number of threads, counting the one that calls chooseCoord.
+   * @param depth the max number of moves it looks down for a particular possible move.
+   * @param opponentStrategy the strategy of the opponent, used at the max depth.
+   * @param threads the number of threads to search with.
+   */
+  public LazySmpStrategy(int depth, ReversiStrategy opponentStrategy, int threads) {
+    if (depth < 0) {
+      throw new IllegalArgumentException("Depth should be 0 or more.");
+    }
+    if (threads < 1) {
+      throw new IllegalArgumentException("There must be at least one thread.");
+    }
+    this.depth = depth;
+    this.opponentStrategy = opponentStrategy;
+    this.helpers = threads - 1;
+    this.pool = helpers > 0 ? new ForkJoinPool(helpers) : null;
+    this.table = new TranspositionTable(TABLE_MEGABYTES);
+  }
+
+  /**
+   * Lazy SMP strategy for reversi takes in a depth and a number of threads.
+   * @param depth the max number of moves it looks down for a particular possible move.
+   * @param threads the number of threads to search with.
+   */
+  public LazySmpStrategy(int depth, int threads) {
+    this(depth, new GoForCornersStrategy(), threads);
+  }
+
+  @Override
+  public Coordinate chooseCoord(ReadonlyReversiModel model, int player) {
+    AtomicBoolean stop = new AtomicBoolean();
+    List<ForkJoinTask<?>> tasks = new ArrayList<>();
+    for (int i = 0; i < helpers; i++) {
+      //the model caches moves as it is read, so each helper gets a copy made on this thread
+      ReadonlyReversiModel board = model.clone();
+      AlphaBetaStrategy helper = new AlphaBetaStrategy(depth + (i + 1) % 2, opponentStrategy,
+              helperOrdering(i), table);
+      tasks.add(pool.submit(() -> {
+        try {
+          helper.chooseCoordUntil(board, player, stop);
+        }
+        catch (SearchTimeoutException e) {
+          //the main search finished first, which is how helpers usually end
+        }
+      }));
+    }
+
+    try {
+      return new AlphaBetaStrategy(depth, opponentStrategy, new CornersFirstOrdering(), table)
+              .chooseCoord(model, player);
+    }
+    finally {
+      stop.set(true);
+      for (ForkJoinTask<?> task : tasks) {
+        task.join();
+      }
+    }
+  }
+
+  //helper: a different ordering for each helper, so they do not all walk the same path
+  private static MoveOrdering helperOrdering(int helper) {
+    switch (helper % 3) {
+      case 0:
+        return new FewestRepliesOrdering();
+      case 1:
+        return new PreviousBestOrdering();
+      default:
+        return new CornersFirstOrdering();
+    }
+  }
+
+  /**
+   * Gets the transposition table the threads share, to read its counters.
+   * @return the table of the strategy.
+   */
+  public TranspositionTable getTable() {
+    return table;
+  }
+}
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import model.Coordinate;
+import model.MoveRecord;
 import model.Pair;
 import model.ReadonlyReversiModel;
 import model.ReversiModel;
@@ -16,11 +17,13 @@ import model.ReversiModel;
  *
  */
 public class MiniMaxStrategy implements ReversiStrategy {
-  private int player; // the player whose score you are trying to maximize
+  protected int player; // the player whose score you are trying to maximize
 
-  private final int depth;
+  protected final int depth;
 
-  private ReversiStrategy opponentStrategy;
+  protected ReversiStrategy opponentStrategy;
+
+  protected long nodeCount; // positions looked at by the last search
 
   /**
    * MiniMax strategy for reversi takes in a depth.
@@ -51,41 +54,23 @@ public class MiniMaxStrategy implements ReversiStrategy {
       throw new IllegalArgumentException("Depth should be 0 or more.");
     }
     this.player = player;
+    this.nodeCount = 0;
 
-    //return choice;
-    return miniMax(model, player, 0).first();
+    //the search plays and takes back moves on a single copy of the game
+    return miniMax(model.clone(), player, 0).first();
   }
 
-  protected Pair<Coordinate, Integer> miniMax(ReadonlyReversiModel model,
+  protected Pair<Coordinate, Integer> miniMax(ReversiModel model,
                                                    int player, int depth) {
 
+    nodeCount++;
     // get the list of possible moves for each player
     List<Coordinate> availablePlayer = model.getAvailableMoves(player);
     List<Coordinate> availableOpponent = model.getAvailableMoves(3 - player);
 
     //max depth reached
     if (depth >= this.depth) {
-      // if ME has no moves
-      // return null pair with score eval, use global PLAYER - other player for score calc
-      if (availablePlayer.isEmpty()) {
-        return new Pair<>(null, miniMaxScore(model, player));
-      }
-      // we are at our turn, and cant look any further, so we play a move and return its result
-      // return pair of move and score after that move, clone before u mutate model
-      else if (player == this.player) {
-        ReversiModel possibleGame = model.clone();
-        Coordinate move = new AvoidCornerNeighborStrategy().chooseCoord(possibleGame, player);
-        possibleGame.flipCell(move, player);
-        return new Pair<>(move, miniMaxScore(possibleGame, player));
-      }
-      // we are at other turn, play opponents return pair of coord and score,
-      // clone the model then mutate it and evaluate the score
-      else {
-        ReversiModel possibleGame = model.clone();
-        Coordinate move = this.opponentStrategy.chooseCoord(possibleGame, player);
-        possibleGame.flipCell(move, player);
-        return new Pair<>(move, miniMaxScore(possibleGame, player));
-      }
+      return this.horizon(model, player, availablePlayer);
     }
 
     // case: both lists are empty, then game is over
@@ -112,14 +97,14 @@ public class MiniMaxStrategy implements ReversiStrategy {
       //      System.out.println("Moving for " + coord);
       //      System.out.println("Before: \n" + new TextualView(model));
       //      System.out.println(model.getCurrentTurn());
-      ReversiModel possibleGame = model.clone();
-      possibleGame.flipCell(coord, player);
-      //      System.out.println("After: \n" + new TextualView(possibleGame));
-      //      System.out.println(possibleGame.getCurrentTurn());
+      MoveRecord move = model.makeMove(coord, player);
+      //      System.out.println("After: \n" + new TextualView(model));
+      //      System.out.println(model.getCurrentTurn());
 
       int nextPlayer = 3 - player;
-      coordScorePairs.add(new Pair<>(coord, miniMax(possibleGame, nextPlayer,
+      coordScorePairs.add(new Pair<>(coord, miniMax(model, nextPlayer,
               depth + 1).second())); //recursion down each available move
+      model.unmakeMove(move);
     }
     //    System.out.println("Finished iterating over moves at detpth " + depth);
 
@@ -164,6 +149,44 @@ public class MiniMaxStrategy implements ReversiStrategy {
     return bestPair;
   }
 
+  //helper: the result of a position at the max depth, where the search cannot look further
+  protected Pair<Coordinate, Integer> horizon(ReversiModel model, int player,
+                                              List<Coordinate> availablePlayer) {
+    // if ME has no moves
+    // return null pair with score eval, use global PLAYER - other player for score calc
+    if (availablePlayer.isEmpty()) {
+      return new Pair<>(null, miniMaxScore(model, player));
+    }
+    // we are at our turn, and cant look any further, so we play a move and return its result
+    // return pair of move and score after that move, then take the move back
+    else if (player == this.player) {
+      Coordinate move = new AvoidCornerNeighborStrategy().chooseCoord(model, player);
+      return new Pair<>(move, scoreAfterMove(model, move, player));
+    }
+    // we are at other turn, play opponents return pair of coord and score,
+    // mutate the model, evaluate the score, then take the move back
+    else {
+      Coordinate move = this.opponentStrategy.chooseCoord(model, player);
+      return new Pair<>(move, scoreAfterMove(model, move, player));
+    }
+  }
+
+  /**
+   * Gets the number of positions the last call to chooseCoord looked at.
+   * @return the number of positions searched.
+   */
+  public long getNodeCount() {
+    return nodeCount;
+  }
+
+  //helper: the score after player makes the given move, leaving the model as it was
+  private int scoreAfterMove(ReversiModel model, Coordinate coord, int player) {
+    MoveRecord move = model.makeMove(coord, player);
+    int score = miniMaxScore(model, player);
+    model.unmakeMove(move);
+    return score;
+  }
+
   //score is called when a base case is hit
   //
   protected int miniMaxScore(ReadonlyReversiModel model, int player) {
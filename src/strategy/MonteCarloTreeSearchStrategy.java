@@ -0,0 +1,302 @@
+package strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import model.BoardGeometry;
+import model.Coordinate;
+import model.ReadonlyReversiModel;
+
+/**
+ * This Reversi strategy plays out many random games from the current position, and plays
+ * the move whose games went best (Monte Carlo tree search with UCT). Unlike minimax it
+ * needs no way to score a position, and it looks deepest at the moves that look best, so
+ * it still plays sensibly on boards far too big to search to any useful depth.
+ * The tree is kept in one preallocated pool of nodes that is reused for every move, and
+ * playouts run on a bare board with their own random numbers, so the search allocates
+ * almost nothing while it runs. Several threads can grow the same tree at once: a thread
+ * walking down the tree counts a loss on every node it passes until its playout is back
+ * (virtual loss), which steers the other threads towards different moves.
+ */
+public class MonteCarloTreeSearchStrategy implements ReversiStrategy {
+  private static final int NODE_CAPACITY = 1 << 20;
+  private static final double EXPLORATION = 1.4;
+  private static final int VIRTUAL_LOSS = 1;
+
+  private final int maxPlayouts;
+  private final long budgetMillis;
+  private final int threads;
+  private final long seed;
+  private final ForkJoinPool pool; // null if the calling thread searches alone
+  private final NodePool tree;
+
+  private int lastPlayouts; // playouts the last move was chosen with
+
+  /**
+   * MCTS strategy for reversi takes in a number of playouts, a time budget, the number of
+   * threads and a seed for its random playouts. It stops at whichever limit comes first.
+   * @param maxPlayouts the most games to play out for each move.
+   * @param budgetMillis the longest to search for each move, in milliseconds.
+   * @param threads the number of threads to search with, counting the calling one.
+   * @param seed the seed of the random playouts.
+   */
+  public MonteCarloTreeSearchStrategy(int maxPlayouts, long budgetMillis, int threads,
+                                      long seed) {
+    if (maxPlayouts <= 0 || budgetMillis <= 0) {
+      throw new IllegalArgumentException("Playouts and time budget should be positive.");
+    }
+    if (threads < 1) {
+      throw new IllegalArgumentException("There must be at least one thread.");
+    }
+    this.maxPlayouts = maxPlayouts;
+    this.budgetMillis = budgetMillis;
+    this.threads = threads;
+    this.seed = seed;
+    this.pool = threads > 1 ? new ForkJoinPool(threads - 1) : null;
+    this.tree = new NodePool(NODE_CAPACITY);
+  }
+
+  /**
+   * MCTS strategy for reversi that plays out as many games as it can in the time budget,
+   * on every processor.
+   * @param budgetMillis how long to search for each move, in milliseconds.
+   */
+  public MonteCarloTreeSearchStrategy(long budgetMillis) {
+    this(Integer.MAX_VALUE, budgetMillis, Runtime.getRuntime().availableProcessors(),
+            System.nanoTime());
+  }
+
+  @Override
+  public Coordinate chooseCoord(ReadonlyReversiModel model, int player) {
+    BoardGeometry geometry = model.getGeometry();
+    PlayoutBoard root = new PlayoutBoard(geometry);
+    root.load(model, player);
+    tree.reset();
+    tree.expand(NodePool.ROOT, root, new int[geometry.size()]);
+    lastPlayouts = 0;
+
+    //a forced move, or no move at all, needs no search
+    int rootChildren = tree.childCount[NodePool.ROOT];
+    int onlyMove = tree.move[tree.firstChild[NodePool.ROOT]];
+    if (rootChildren == 1) {
+      return onlyMove < 0 ? null : geometry.coordinateAt(onlyMove);
+    }
+
+    long deadline = System.nanoTime() + budgetMillis * 1_000_000L;
+    AtomicInteger playouts = new AtomicInteger();
+    List<ForkJoinTask<Integer>> tasks = new ArrayList<>();
+    for (int t = 1; t < threads; t++) {
+      Worker worker = new Worker(root, seed + t);
+      tasks.add(pool.submit(() -> worker.run(playouts, deadline)));
+    }
+    lastPlayouts = new Worker(root, seed).run(playouts, deadline);
+    for (ForkJoinTask<Integer> task : tasks) {
+      lastPlayouts += task.join();
+    }
+
+    //the most played move is the one the search trusts most, ties go to board order
+    int best = -1;
+    for (int c = tree.firstChild[NodePool.ROOT]; c < tree.firstChild[NodePool.ROOT]
+            + rootChildren; c++) {
+      if (best < 0 || tree.visits.get(c) > tree.visits.get(best)) {
+        best = c;
+      }
+    }
+    return geometry.coordinateAt(tree.move[best]);
+  }
+
+  /**
+   * Gets the number of games played out while choosing the last move.
+   * @return the playouts of the last call to chooseCoord, 0 if the move was forced.
+   */
+  public int getLastPlayouts() {
+    return lastPlayouts;
+  }
+
+  /**
+   * One thread of the search, with its own board, buffers and random numbers.
+   */
+  private final class Worker {
+    private final PlayoutBoard root;
+    private final PlayoutBoard board;
+    private final int[] moves;
+    private final int[] path;
+    private final int[] movers; // movers[i] is the player who made the move into path[i]
+    private long random;
+
+    private Worker(PlayoutBoard root, long seed) {
+      this.root = root;
+      this.board = new PlayoutBoard(root.getGeometry());
+      int cells = root.getGeometry().size();
+      this.moves = new int[cells];
+      //every move fills a cell, and there are never two passes in a row inside the tree
+      this.path = new int[2 * cells + 2];
+      this.movers = new int[2 * cells + 2];
+      //xorshift needs a state other than 0
+      this.random = seed == 0 ? 1 : seed;
+    }
+
+    //helper: plays out games until a limit is reached, returns how many it played
+    private int run(AtomicInteger playouts, long deadline) {
+      int played = 0;
+      while (playouts.getAndIncrement() < maxPlayouts && System.nanoTime() - deadline < 0) {
+        this.playout();
+        played++;
+      }
+      return played;
+    }
+
+    //helper: walks down the tree, grows it by one node, plays the game out at random and
+    // records the result on the way back up
+    private void playout() {
+      board.copyFrom(root);
+      int length = 0;
+      int node = NodePool.ROOT;
+      path[length] = node;
+      movers[length++] = 3 - board.getTurn();
+
+      while (!board.isOver()) {
+        if (tree.state.get(node) == NodePool.LEAF && !tree.expand(node, board, moves)) {
+          break;
+        }
+        if (tree.state.get(node) != NodePool.EXPANDED) {
+          break;
+        }
+        int child = tree.select(node);
+        tree.visits.addAndGet(child, VIRTUAL_LOSS);
+        movers[length] = board.getTurn();
+        path[length++] = child;
+        if (tree.move[child] < 0) {
+          board.pass();
+        }
+        else {
+          board.play(tree.move[child]);
+        }
+        node = child;
+        if (tree.visits.get(child) == VIRTUAL_LOSS) {
+          break; // the first visit to a node is decided by a playout
+        }
+      }
+
+      while (!board.isOver()) {
+        int count = board.legalMoves(moves);
+        if (count == 0) {
+          board.pass();
+        }
+        else {
+          board.play(moves[this.nextInt(count)]);
+        }
+      }
+
+      int winner = board.winner();
+      for (int i = 0; i < length; i++) {
+        int points = winner == movers[i] ? 2 : winner == 0 ? 1 : 0;
+        tree.score.addAndGet(path[i], points);
+        tree.visits.addAndGet(path[i], i == 0 ? 1 : 1 - VIRTUAL_LOSS);
+      }
+    }
+
+    //helper: a random number from 0 to bound - 1, by xorshift
+    private int nextInt(int bound) {
+      random ^= random << 13;
+      random ^= random >>> 7;
+      random ^= random << 17;
+      return (int) (((random >>> 32) * bound) >>> 32);
+    }
+  }
+
+  /**
+   * The nodes of a search tree, stored in parallel arrays instead of objects. Children of
+   * a node take up consecutive slots, handed out in order, so freeing the whole tree is
+   * just starting over from the first slot.
+   */
+  private static final class NodePool {
+    private static final int ROOT = 0;
+    private static final int LEAF = 0;
+    private static final int EXPANDING = 1;
+    private static final int EXPANDED = 2;
+
+    /**
+     * INVARIANT: every array has the same length, the capacity of the pool.
+     * INTERPRETATION: node i was reached by playing cell move[i], or by passing if it is
+     * -1. Its children are the childCount[i] nodes from firstChild[i]. score[i] counts two
+     * points for each won playout through it and one for each draw, for the player who
+     * made its move, out of visits[i] playouts. A thread only reads firstChild, childCount
+     * and the moves of the children after it sees the node EXPANDED.
+     */
+    private final int[] move;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final AtomicIntegerArray state;
+    private final AtomicIntegerArray visits;
+    private final AtomicIntegerArray score;
+    private final AtomicInteger size;
+
+    private NodePool(int capacity) {
+      this.move = new int[capacity];
+      this.firstChild = new int[capacity];
+      this.childCount = new int[capacity];
+      this.state = new AtomicIntegerArray(capacity);
+      this.visits = new AtomicIntegerArray(capacity);
+      this.score = new AtomicIntegerArray(capacity);
+      this.size = new AtomicInteger();
+    }
+
+    //helper: frees every node, leaving only an unvisited root
+    private void reset() {
+      size.set(1);
+      move[ROOT] = -1;
+      state.set(ROOT, LEAF);
+      visits.set(ROOT, 0);
+      score.set(ROOT, 0);
+    }
+
+    //helper: gives a leaf a child for each move on the board, or a pass if it has none;
+    // returns false if another thread got there first or the pool is full
+    private boolean expand(int node, PlayoutBoard board, int[] moves) {
+      if (!state.compareAndSet(node, LEAF, EXPANDING)) {
+        return false;
+      }
+      int count = board.legalMoves(moves);
+      int children = Math.max(count, 1);
+      int first = size.getAndAdd(children);
+      if (first + children > move.length) {
+        return false; // stays EXPANDING, so it is played out from now on
+      }
+      for (int i = 0; i < children; i++) {
+        move[first + i] = count == 0 ? -1 : moves[i];
+        state.set(first + i, LEAF);
+        visits.set(first + i, 0);
+        score.set(first + i, 0);
+      }
+      firstChild[node] = first;
+      childCount[node] = children;
+      state.set(node, EXPANDED);
+      return true;
+    }
+
+    //helper: the child to try next, by the UCT formula, unvisited children first
+    private int select(int node) {
+      int first = firstChild[node];
+      double logParent = Math.log(Math.max(visits.get(node), 1));
+      int best = first;
+      double bestValue = Double.NEGATIVE_INFINITY;
+      for (int c = first; c < first + childCount[node]; c++) {
+        int n = visits.get(c);
+        if (n == 0) {
+          return c;
+        }
+        double value = score.get(c) / (2.0 * n) + EXPLORATION * Math.sqrt(logParent / n);
+        if (value > bestValue) {
+          bestValue = value;
+          best = c;
+        }
+      }
+      return best;
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package strategy;
+
+import java.util.List;
+
+import model.Coordinate;
+import model.ReadonlyReversiModel;
+import model.ReversiModel;
+
+/**
+ * A policy for the order a tree search looks at moves in.
+ * The order never changes which move a search picks, but the sooner the best move is
+ * searched, the more of the tree alpha-beta pruning can skip.
+ */
+public interface MoveOrdering {
+
+  /**
+   * Orders the moves of a player, the most promising first.
+   * @param model the game being searched, any move tried on it must be taken back.
+   * @param moves the legal moves of the player in board order, which are not modified.
+   * @param player the player about to move.
+   * @return the same moves, in the order to search them.
+   */
+  List<Coordinate> order(ReversiModel model, List<Coordinate> moves, int player);
+
+  /**
+   * Tells the ordering which move a search found best in a position.
+   * Orderings that learn from earlier searches remember it, the rest ignore it.
+   * @param model the game, in the position that was searched.
+   * @param move the best move found, null if the position had no moves.
+   */
+  default void bestMoveFound(ReadonlyReversiModel model, Coordinate move) {
+    //most orderings do not learn
+  }
+}
@@ -0,0 +1,240 @@
+package strategy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Function;
+
+import model.BoardGeometry;
+import model.BoardSymmetry;
+import model.ReadonlyReversiModel;
+
+/**
+ * A book of moves to play in known positions, read straight from a file.
+ * The file holds a header naming its board, then one entry per position sorted by
+ * canonical key, each with the index of the move to play and the score it was chosen with.
+ * Positions are filed in their canonical orientation, see BoardSymmetry, so one entry
+ * covers every rotation and reflection of a position, and moves are turned back to the
+ * orientation of the game they are looked up for.
+ * The file is mapped into memory instead of read, so opening a book costs nothing however
+ * big it is, and a lookup is a binary search that only touches the entries it compares.
+ */
+public final class OpeningBook {
+
+  /**
+   * Returned by lookup when the book has no move for a position.
+   */
+  public static final int NO_MOVE = -1;
+
+  private static final int MAGIC = 0x5256424B; // "RVBK"
+  private static final int VERSION = 2;
+  private static final int HEADER_BYTES = 20;
+  private static final int ENTRY_BYTES = 16;
+
+  private final MappedByteBuffer buffer;
+  private final int cells;
+  private final int directions;
+  private final int entries;
+
+  private OpeningBook(MappedByteBuffer buffer) {
+    this.buffer = buffer;
+    if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC
+            || buffer.getInt(4) != VERSION) {
+      throw new IllegalArgumentException("Not an opening book.");
+    }
+    this.cells = buffer.getInt(8);
+    this.directions = buffer.getInt(12);
+    this.entries = buffer.getInt(16);
+    if (buffer.capacity() != HEADER_BYTES + (long) entries * ENTRY_BYTES) {
+      throw new IllegalArgumentException("Opening book is cut short.");
+    }
+  }
+
+  /**
+   * Opens a book file.
+   * @param file the book to open.
+   * @return the book.
+   * @throws IOException if the file cannot be read.
+   * @throws IllegalArgumentException if the file is not an opening book.
+   */
+  public static OpeningBook open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      //the mapping stays valid after the channel is closed
+      return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Writes a book file, replacing it at once so a reader never maps half a file.
+   * @param file where to write the book.
+   * @param geometry the board the positions are on.
+   * @param keys the keys of the positions, in increasing order with no repeats.
+   * @param moves the index of the move to play in each position.
+   * @param scores the score each move was chosen with.
+   * @throws IOException if the file cannot be written.
+   * @throws IllegalArgumentException if the keys are not in increasing order.
+   */
+  public static void write(Path file, BoardGeometry geometry, long[] keys, int[] moves,
+                           int[] scores) throws IOException {
+    for (int i = 1; i < keys.length; i++) {
+      if (keys[i - 1] >= keys[i]) {
+        throw new IllegalArgumentException("Keys should be in increasing order.");
+      }
+    }
+    ByteBuffer bytes = ByteBuffer.allocate(HEADER_BYTES + keys.length * ENTRY_BYTES);
+    bytes.putInt(MAGIC).putInt(VERSION).putInt(geometry.size())
+            .putInt(geometry.directionCount()).putInt(keys.length);
+    for (int i = 0; i < keys.length; i++) {
+      bytes.putLong(keys[i]).putInt(moves[i]).putInt(scores[i]);
+    }
+    Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+    Files.write(temporary, bytes.array());
+    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Gets the name of the book file of a board, such as hexagon-37.book.
+   * @param geometry the board.
+   * @return the file name.
+   */
+  public static String fileName(BoardGeometry geometry) {
+    String shape = geometry.directionCount() == 6 ? "hexagon" : "square";
+    return shape + "-" + geometry.size() + ".book";
+  }
+
+  /**
+   * Makes a way to open the book of a board from a directory.
+   * @param directory the directory holding book files.
+   * @return a function giving the book of a board, or null if it has none there.
+   * @throws UncheckedIOException if a book file exists but cannot be read.
+   */
+  public static Function<BoardGeometry, OpeningBook> books(Path directory) {
+    return geometry -> {
+      Path file = directory.resolve(fileName(geometry));
+      if (!Files.exists(file)) {
+        return null;
+      }
+      try {
+        return open(file);
+      }
+      catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    };
+  }
+
+  /**
+   * Gets the key a position is filed under in a book, the same for all its symmetric copies.
+   * @param model the position.
+   * @return the canonical key of the position.
+   */
+  public static long keyOf(ReadonlyReversiModel model) {
+    return model.getGeometry().getSymmetry().canonicalKey(model);
+  }
+
+  /**
+   * Gets the index a move is filed under in a book, in the canonical orientation of the
+   * position it is played in.
+   * @param model the position.
+   * @param move the index of the move in the position as it is.
+   * @return the index of the move once the position is in its canonical orientation.
+   */
+  public static int moveOf(ReadonlyReversiModel model, int move) {
+    BoardSymmetry symmetry = model.getGeometry().getSymmetry();
+    return symmetry.image(symmetry.canonicalSymmetry(model), move);
+  }
+
+  /**
+   * Checks if the book was made for a board.
+   * @param geometry the board.
+   * @return true if the book's positions are on that board.
+   */
+  public boolean fits(BoardGeometry geometry) {
+    return geometry.size() == cells && geometry.directionCount() == directions;
+  }
+
+  /**
+   * Gets the number of positions in the book.
+   * @return the number of entries.
+   */
+  public int size() {
+    return entries;
+  }
+
+  /**
+   * Finds the move for a position.
+   * @param key the key of the position, see keyOf.
+   * @return the index of the move in the canonical orientation of the position, or NO_MOVE
+   *         if it is not known.
+   */
+  public int lookup(long key) {
+    int entry = this.find(key);
+    return entry < 0 ? NO_MOVE : this.moveAt(entry);
+  }
+
+  /**
+   * Finds the move for a position, turned to fit the position as it is.
+   * @param model the position, on the board of the book.
+   * @return the index of the move in the board's geometry, or NO_MOVE if it is not known.
+   */
+  public int lookup(ReadonlyReversiModel model) {
+    BoardSymmetry symmetry = model.getGeometry().getSymmetry();
+    int canonical = symmetry.canonicalSymmetry(model);
+    int entry = this.find(symmetry.key(model, canonical));
+    return entry < 0 ? NO_MOVE : symmetry.preimage(canonical, this.moveAt(entry));
+  }
+
+  /**
+   * Gets the key of an entry, to read the whole book in order.
+   * @param entry the entry, from 0 to size() - 1.
+   * @return the key of the position of the entry.
+   */
+  public long keyAt(int entry) {
+    return buffer.getLong(HEADER_BYTES + entry * ENTRY_BYTES);
+  }
+
+  /**
+   * Gets the move of an entry.
+   * @param entry the entry, from 0 to size() - 1.
+   * @return the index of the move in the canonical orientation of its position.
+   */
+  public int moveAt(int entry) {
+    return buffer.getInt(HEADER_BYTES + entry * ENTRY_BYTES + 8);
+  }
+
+  /**
+   * Gets the score the move of an entry was chosen with.
+   * @param entry the entry, from 0 to size() - 1.
+   * @return the score, from the view of the player to move, or 0 if it was not scored.
+   */
+  public int scoreAt(int entry) {
+    return buffer.getInt(HEADER_BYTES + entry * ENTRY_BYTES + 12);
+  }
+
+  //helper: the entry of a key by binary search, or -1 if it is not in the book
+  private int find(long key) {
+    int low = 0;
+    int high = entries - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      long found = this.keyAt(middle);
+      if (found < key) {
+        low = middle + 1;
+      }
+      else if (found > key) {
+        high = middle - 1;
+      }
+      else {
+        return middle;
+      }
+    }
+    return -1;
+  }
+}
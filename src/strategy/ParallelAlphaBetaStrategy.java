@@ -0,0 +1,147 @@
+package strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import model.Coordinate;
+import model.Pair;
+import model.ReadonlyReversiModel;
+import model.ReversiModel;
+
+/**
+ * This Reversi strategy picks exactly the move AlphaBetaStrategy picks, but splits the moves
+ * at the top of the tree between the threads of a ForkJoinPool.
+ * The first move is searched alone to get a good bound (young brothers wait), then every
+ * other move is searched at once, each by its own strategy on its own copy of the game.
+ * The workers share the best score so far through one atomic long, which packs the score
+ * with the board order of its move, so ties are settled the same way the serial search
+ * settles them no matter which thread finishes first.
+ * The opponent strategy is used by every worker at once, so it must not keep any state.
+ */
+public class ParallelAlphaBetaStrategy extends AlphaBetaStrategy {
+  private static final long NO_MOVE = Long.MIN_VALUE;
+
+  private final ForkJoinPool pool;
+  private final Supplier<MoveOrdering> orderings;
+
+  /**
+   * Parallel alpha-beta strategy for reversi takes in a depth, an opponent strategy, a way
+   * to make the move ordering of each worker and the number of threads.
+   * @param depth the max number of moves it looks down for a particular possible move.
+   * @param opponentStrategy the strategy of the opponent, used at the max depth.
+   * @param orderings makes a new ordering for each worker, since orderings may keep state.
+   * @param threads the number of threads to search with.
+   */
+  public ParallelAlphaBetaStrategy(int depth, ReversiStrategy opponentStrategy,
+                                   Supplier<MoveOrdering> orderings, int threads) {
+    super(depth, opponentStrategy, orderings.get());
+    if (threads < 1) {
+      throw new IllegalArgumentException("There must be at least one thread.");
+    }
+    this.orderings = orderings;
+    this.pool = new ForkJoinPool(threads);
+  }
+
+  /**
+   * Parallel alpha-beta strategy for reversi takes in a depth and a number of threads.
+   * @param depth the max number of moves it looks down for a particular possible move.
+   * @param threads the number of threads to search with.
+   */
+  public ParallelAlphaBetaStrategy(int depth, int threads) {
+    this(depth, new GoForCornersStrategy(), CornersFirstOrdering::new, threads);
+  }
+
+  @Override
+  protected Pair<Coordinate, Integer> searchRootMoves(ReversiModel model, int player, int depth,
+                                                      List<Coordinate> availablePlayer) {
+    boolean maximize = model.getCurrentTurn() == this.player;
+    List<Coordinate> ordered = getOrdering().order(model, availablePlayer, player);
+    AtomicLong best = new AtomicLong(NO_MOVE);
+    AtomicLong nodes = new AtomicLong();
+
+    //the eldest brother is searched first, so the others start with a real bound
+    searchInWorker(model, player, depth, ordered.get(0), availablePlayer, maximize, best, nodes);
+
+    List<ForkJoinTask<?>> tasks = new ArrayList<>();
+    for (Coordinate coord : ordered.subList(1, ordered.size())) {
+      ReversiModel board = model.clone();
+      tasks.add(pool.submit(() -> searchInWorker(board, player, depth, coord, availablePlayer,
+              maximize, best, nodes)));
+    }
+    for (ForkJoinTask<?> task : tasks) {
+      task.join();
+    }
+    nodeCount += nodes.get();
+
+    long packed = best.get();
+    int bestScore = (int) (packed >> 32);
+    Coordinate bestMove = availablePlayer.get((int) (0xFFFFFFFFL - (packed & 0xFFFFFFFFL)));
+    bestScore = maximize ? bestScore : -bestScore;
+    getOrdering().bestMoveFound(model, bestMove);
+    return new Pair<>(bestMove, bestScore);
+  }
+
+  //helper: scores one move on a board the caller owns, and offers it as the best move
+  private void searchInWorker(ReversiModel board, int player, int depth, Coordinate coord,
+                              List<Coordinate> availablePlayer, boolean maximize,
+                              AtomicLong best, AtomicLong nodes) {
+    //a window one wider than the best so far keeps scores that tie with it exact
+    int alpha = Integer.MIN_VALUE;
+    int beta = Integer.MAX_VALUE;
+    long current = best.get();
+    if (current != NO_MOVE && maximize) {
+      alpha = (int) (current >> 32) - 1;
+    }
+    else if (current != NO_MOVE) {
+      beta = -(int) (current >> 32) + 1;
+    }
+
+    AlphaBetaStrategy worker = new AlphaBetaStrategy(this.depth, opponentStrategy, orderings.get());
+    int score = worker.searchMove(board, this.player, coord, player, depth, alpha, beta);
+    nodes.addAndGet(worker.getNodeCount());
+
+    //a score outside the window is only a bound, and cannot beat the best so far
+    if (score > alpha && score < beta) {
+      long offer = pack(maximize ? score : -score, availablePlayer.indexOf(coord));
+      best.accumulateAndGet(offer, Math::max);
+    }
+  }
+
+  //helper: orders by score, and then by board order with the earliest move largest
+  private static long pack(int score, int index) {
+    return ((long) score << 32) | (0xFFFFFFFFL - index);
+  }
+
+  /**
+   * Times the same search with more and more threads, and reports how well it scales.
+   * Efficiency is the speedup over one thread divided by the number of threads.
+   * @param model the position to search, which is not changed.
+   * @param player the player to choose a move for.
+   * @param depth the depth to search to.
+   * @param maxThreads the most threads to try, thread counts double up to it.
+   * @return a table with one line per thread count.
+   */
+  public static String scalingReport(ReadonlyReversiModel model, int player, int depth,
+                                     int maxThreads) {
+    StringBuilder report = new StringBuilder("threads millis speedup efficiency\n");
+    double baseline = 0;
+    for (int threads = 1; threads <= maxThreads; threads *= 2) {
+      ParallelAlphaBetaStrategy strategy = new ParallelAlphaBetaStrategy(depth, threads);
+      long start = System.nanoTime();
+      strategy.chooseCoord(model, player);
+      double millis = (System.nanoTime() - start) / 1e6;
+      strategy.pool.shutdown();
+      if (threads == 1) {
+        baseline = millis;
+      }
+      double speedup = baseline / millis;
+      report.append(String.format("%7d %6.1f %7.2f %10.2f%n", threads, millis, speedup,
+              speedup / threads));
+    }
+    return report.toString();
+  }
+}
@@ -0,0 +1,344 @@
+package strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import model.BoardGeometry;
+import model.MoveRecord;
+import model.ReadonlyReversiModel;
+
+/**
+ * Scores positions by looking up the discs of every line of the board in tables.
+ * The board is cut into straight lines along each axis (rows, columns and diagonals of a
+ * square board, the three cubic axes of a hexagon one), and long lines into segments of
+ * at most SEGMENT_LENGTH cells. The discs of a segment read as a base 3 number, which
+ * indexes a table of weights for that segment, so a table can value a whole arrangement
+ * of discs, like an edge anchored on an owned corner, not just single cells.
+ * The numbers are kept up to date as moves are made and taken back, so scoring a
+ * position is one table load per segment.
+ */
+public class PatternEvaluator {
+
+  /**
+   * The most cells in one segment. Each segment's table has 3 to this power entries.
+   */
+  public static final int SEGMENT_LENGTH = 8;
+
+  //weights of the default tables
+  private static final int CORNER = 10;
+  private static final int NEXT_TO_EMPTY_CORNER = -5;
+  private static final int EDGE = 0;
+  private static final int INSIDE = -1; // few discs inside leave the opponent few moves
+  private static final int ANCHORED = 2; // for each disc in a row from the end of a line
+
+  private final BoardGeometry geometry;
+  private final int axes;
+
+  /**
+   * INVARIANT: segmentStart has one more entry than there are segments, and
+   * index[s] < tables[s].length == 3 ^ (segmentStart[s + 1] - segmentStart[s]).
+   * INTERPRETATION: segment s is the cells segmentCells[segmentStart[s] ..
+   * segmentStart[s + 1] - 1] in order along segmentDirection[s]. The cell at position k
+   * of a segment adds owner * 3 ^ k to index[s]. Along axis a, cell i is in segment
+   * cellSegment[i * axes + a], or none if that is -1 because the line is too short to
+   * ever flip a disc, and cellPower[i * axes + a] is 3 to the power of its position.
+   * tables[s][index[s]] is the score of the segment for player 1.
+   */
+  private final int[] segmentCells;
+  private final int[] segmentStart;
+  private final int[] segmentDirection;
+  private final int[] cellSegment;
+  private final int[] cellPower;
+  private final int[] index;
+  private final short[][] tables;
+
+  /**
+   * Constructs an evaluator for a board with the default tables, which value corners and
+   * discs anchored to the end of a line, and fear cells next to empty corners.
+   * @param geometry the board to evaluate.
+   */
+  public PatternEvaluator(BoardGeometry geometry) {
+    this(geometry, null);
+  }
+
+  /**
+   * Constructs an evaluator for a board with the given tables, such as tuned ones.
+   * @param geometry the board to evaluate.
+   * @param tables one table for each segment of the board, or null for the default tables.
+   * @throws IllegalArgumentException if the tables do not fit the segments of the board.
+   */
+  public PatternEvaluator(BoardGeometry geometry, short[][] tables) {
+    this.geometry = geometry;
+    this.axes = geometry.directionCount() / 2;
+    this.cellSegment = new int[geometry.size() * axes];
+    this.cellPower = new int[geometry.size() * axes];
+
+    List<Integer> cells = new ArrayList<>();
+    List<Integer> starts = new ArrayList<>();
+    List<Integer> directions = new ArrayList<>();
+    int axis = 0;
+    for (int d = 0; d < geometry.directionCount(); d++) {
+      int back = this.opposite(d);
+      if (back < d) {
+        continue;
+      }
+      for (int i = 0; i < geometry.size(); i++) {
+        if (geometry.neighbor(i, back) < 0) {
+          this.addLine(i, d, axis, cells, starts, directions);
+        }
+      }
+      axis++;
+    }
+    starts.add(cells.size());
+
+    this.segmentCells = cells.stream().mapToInt(Integer::intValue).toArray();
+    this.segmentStart = starts.stream().mapToInt(Integer::intValue).toArray();
+    this.segmentDirection = directions.stream().mapToInt(Integer::intValue).toArray();
+    int segments = segmentStart.length - 1;
+    this.index = new int[segments];
+    if (tables == null) {
+      tables = new short[segments][];
+      for (int s = 0; s < segments; s++) {
+        tables[s] = this.defaultTable(s);
+      }
+    }
+    else if (tables.length != segments) {
+      throw new IllegalArgumentException("Tables do not fit the board.");
+    }
+    for (int s = 0; s < segments; s++) {
+      if (tables[s].length != pow3(segmentStart[s + 1] - segmentStart[s])) {
+        throw new IllegalArgumentException("Tables do not fit the board.");
+      }
+    }
+    this.tables = tables;
+  }
+
+  /**
+   * Gets the board this evaluator scores.
+   * @return the geometry of the board.
+   */
+  public BoardGeometry getGeometry() {
+    return geometry;
+  }
+
+  /**
+   * Gets the tables of weights, one for each segment. They are not copied, so changing
+   * them changes the scores of this evaluator.
+   * @return the tables, indexed by segment and then by the discs of the segment.
+   */
+  public short[][] getTables() {
+    return tables;
+  }
+
+  /**
+   * Gets the current discs of a segment as a base 3 number.
+   * @param segment the segment, from 0 to getTables().length - 1.
+   * @return the index into the segment's table.
+   */
+  public int getIndex(int segment) {
+    return index[segment];
+  }
+
+  /**
+   * Reads every disc of a game, replacing whatever position was known before.
+   * @param model a game on the board of this evaluator.
+   */
+  public void load(ReadonlyReversiModel model) {
+    for (int s = 0; s < index.length; s++) {
+      int value = 0;
+      for (int k = segmentStart[s + 1] - 1; k >= segmentStart[s]; k--) {
+        value = value * 3 + model.getOwnerAt(segmentCells[k]);
+      }
+      index[s] = value;
+    }
+  }
+
+  /**
+   * Updates the position with a move that was just made.
+   * @param move the record of the move.
+   */
+  public void apply(MoveRecord move) {
+    this.change(move, 1);
+  }
+
+  /**
+   * Updates the position with a move that was just taken back.
+   * @param move the record of the move.
+   */
+  public void undo(MoveRecord move) {
+    this.change(move, -1);
+  }
+
+  /**
+   * Scores the current position.
+   * @param player the player to score it for.
+   * @return the sum of the weights of every segment, higher is better for the player.
+   */
+  public int evaluate(int player) {
+    int score = 0;
+    for (int s = 0; s < index.length; s++) {
+      score += tables[s][index[s]];
+    }
+    return player == 1 ? score : -score;
+  }
+
+  //helper: adds or removes the discs a move placed and flipped
+  private void change(MoveRecord move, int sign) {
+    int player = move.getPlayer();
+    this.addOwner(move.getPlacedIndex(), sign * player);
+    //a flipped disc goes from the other player (3 - p) to p
+    for (int i = 0; i < move.getFlipCount(); i++) {
+      this.addOwner(move.getFlippedIndex(i), sign * (2 * player - 3));
+    }
+  }
+
+  //helper: adds delta to the owner of a cell in the index of every segment it is in
+  private void addOwner(int cell, int delta) {
+    for (int a = 0; a < axes; a++) {
+      int segment = cellSegment[cell * axes + a];
+      if (segment >= 0) {
+        index[segment] += delta * cellPower[cell * axes + a];
+      }
+    }
+  }
+
+  //helper: the direction that steps back from d
+  private int opposite(int d) {
+    for (int i = 0; i < geometry.size(); i++) {
+      int j = geometry.neighbor(i, d);
+      if (j < 0) {
+        continue;
+      }
+      for (int back = 0; back < geometry.directionCount(); back++) {
+        if (geometry.neighbor(j, back) == i) {
+          return back;
+        }
+      }
+    }
+    throw new IllegalStateException("Direction has no opposite.");
+  }
+
+  //helper: cuts the line from start in direction d into segments of nearly equal length
+  private void addLine(int start, int d, int axis, List<Integer> cells, List<Integer> starts,
+                       List<Integer> directions) {
+    List<Integer> line = new ArrayList<>();
+    for (int i = start; i >= 0; i = geometry.neighbor(i, d)) {
+      line.add(i);
+    }
+    for (int cell : line) {
+      cellSegment[cell * axes + axis] = -1;
+    }
+    //a line of two cells or fewer has no room to flip anything
+    if (line.size() < 3) {
+      return;
+    }
+
+    int pieces = (line.size() + SEGMENT_LENGTH - 1) / SEGMENT_LENGTH;
+    int at = 0;
+    for (int p = 0; p < pieces; p++) {
+      int length = line.size() / pieces + (p < line.size() % pieces ? 1 : 0);
+      starts.add(cells.size());
+      directions.add(d);
+      for (int k = 0; k < length; k++) {
+        int cell = line.get(at++);
+        cellSegment[cell * axes + axis] = starts.size() - 1;
+        cellPower[cell * axes + axis] = pow3(k);
+        cells.add(cell);
+      }
+    }
+  }
+
+  //helper: the default weights of every arrangement of discs on a segment
+  private short[] defaultTable(int segment) {
+    int first = segmentStart[segment];
+    int length = segmentStart[segment + 1] - first;
+    int d = segmentDirection[segment];
+    boolean startsAtEdge = geometry.neighbor(segmentCells[first], this.opposite(d)) < 0;
+    boolean endsAtEdge = geometry.neighbor(segmentCells[first + length - 1], d) < 0;
+    int[] owners = new int[length];
+    short[] table = new short[pow3(length)];
+
+    for (int pattern = 0; pattern < table.length; pattern++) {
+      for (int k = 0, rest = pattern; k < length; k++, rest /= 3) {
+        owners[k] = rest % 3;
+      }
+      int score = 0;
+      for (int k = 0; k < length; k++) {
+        if (owners[k] == 0) {
+          continue;
+        }
+        int sign = owners[k] == 1 ? 1 : -1;
+        score += sign * this.cellWeight(segment, k, owners);
+      }
+      //discs in a row from a closed end of the line cannot be flipped along it
+      if (startsAtEdge) {
+        score += ANCHORED * anchoredRun(owners, 0, 1);
+      }
+      if (endsAtEdge) {
+        score += ANCHORED * anchoredRun(owners, length - 1, -1);
+      }
+      table[pattern] = (short) score;
+    }
+    return table;
+  }
+
+  //helper: the default weight of the disc at position k of a segment
+  private int cellWeight(int segment, int k, int[] owners) {
+    int cell = segmentCells[segmentStart[segment] + k];
+    if (this.isCorner(cell)) {
+      return CORNER;
+    }
+    for (int side = -1; side <= 1; side += 2) {
+      int j = k + side;
+      if (j >= 0 && j < owners.length && owners[j] == 0
+              && this.isCorner(segmentCells[segmentStart[segment] + j])) {
+        return NEXT_TO_EMPTY_CORNER;
+      }
+    }
+    return this.isOnEdge(cell) ? EDGE : INSIDE;
+  }
+
+  //helper: signed length of the run of one player's discs from position from, +1 per disc
+  // of player 1 and -1 per disc of player 2
+  private static int anchoredRun(int[] owners, int from, int step) {
+    int owner = owners[from];
+    if (owner == 0) {
+      return 0;
+    }
+    int run = 0;
+    for (int k = from; k >= 0 && k < owners.length && owners[k] == owner; k += step) {
+      run++;
+    }
+    return owner == 1 ? run : -run;
+  }
+
+  //helper: determines if the cell is on the edge of the board
+  private boolean isOnEdge(int cell) {
+    for (int d = 0; d < geometry.directionCount(); d++) {
+      if (geometry.neighbor(cell, d) < 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  //helper: determines if the cell has exactly three neighbors, as in CornersFirstOrdering
+  private boolean isCorner(int cell) {
+    int neighbors = 0;
+    for (int d = 0; d < geometry.directionCount(); d++) {
+      if (geometry.neighbor(cell, d) >= 0) {
+        neighbors++;
+      }
+    }
+    return neighbors == 3;
+  }
+
+  //helper: 3 to the given power
+  private static int pow3(int power) {
+    int value = 1;
+    for (int i = 0; i < power; i++) {
+      value *= 3;
+    }
+    return value;
+  }
+}
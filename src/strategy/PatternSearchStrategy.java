@@ -0,0 +1,124 @@
+package strategy;
+
+import java.util.List;
+import java.util.function.Function;
+
+import model.BoardGeometry;
+import model.Coordinate;
+import model.MoveRecord;
+import model.ReadonlyReversiModel;
+import model.ReversiModel;
+
+/**
+ * This Reversi strategy searches with alpha-beta like AlphaBetaStrategy, but scores the
+ * positions at its max depth with a PatternEvaluator instead of playing another strategy
+ * and counting discs. The evaluator follows every move the search makes and takes back,
+ * so a position costs a few table loads to score, and finished games still count discs,
+ * weighted so that any win beats any evaluation.
+ */
+public class PatternSearchStrategy implements ReversiStrategy {
+  //a finished game is scored by its disc difference times this
+  private static final int WIN_WEIGHT = 1 << 16;
+
+  private final int depth;
+  private final Function<BoardGeometry, PatternEvaluator> evaluators;
+  private final MoveOrdering ordering;
+
+  private PatternEvaluator evaluator; // for the board of the last search
+  private long nodeCount;
+
+  /**
+   * Pattern search strategy for reversi takes in a depth, and a way to make an evaluator
+   * for a board, such as one with tuned tables.
+   * @param depth the max number of moves it looks down for a particular possible move.
+   * @param evaluators makes the evaluator for a board.
+   */
+  public PatternSearchStrategy(int depth, Function<BoardGeometry, PatternEvaluator> evaluators) {
+    if (depth < 1) {
+      throw new IllegalArgumentException("Depth should be 1 or more.");
+    }
+    this.depth = depth;
+    this.evaluators = evaluators;
+    this.ordering = new CornersFirstOrdering();
+  }
+
+  /**
+   * Pattern search strategy for reversi takes in a depth, and uses the default tables.
+   * @param depth the max number of moves it looks down for a particular possible move.
+   */
+  public PatternSearchStrategy(int depth) {
+    this(depth, PatternEvaluator::new);
+  }
+
+  @Override
+  public Coordinate chooseCoord(ReadonlyReversiModel model, int player) {
+    if (evaluator == null || evaluator.getGeometry() != model.getGeometry()) {
+      evaluator = evaluators.apply(model.getGeometry());
+    }
+    evaluator.load(model);
+    nodeCount = 0;
+
+    ReversiModel board = model.clone();
+    Coordinate bestMove = null;
+    int bestScore = Integer.MIN_VALUE;
+    for (Coordinate coord : ordering.order(board, board.getAvailableMoves(player), player)) {
+      //a move only replaces the best one if it is strictly better, so ties keep the first
+      int alpha = bestMove == null ? -Integer.MAX_VALUE : bestScore;
+      int score = this.scoreMove(board, coord, player, depth - 1, alpha, Integer.MAX_VALUE);
+      if (bestMove == null || score > bestScore) {
+        bestMove = coord;
+        bestScore = score;
+      }
+    }
+    return bestMove;
+  }
+
+  /**
+   * Gets the number of positions the last call to chooseCoord looked at.
+   * @return the number of positions searched.
+   */
+  public long getNodeCount() {
+    return nodeCount;
+  }
+
+  //helper: the score of player's move, from player's view, by searching what follows it
+  private int scoreMove(ReversiModel model, Coordinate coord, int player, int remaining,
+                        int alpha, int beta) {
+    MoveRecord move = model.makeMove(coord, player);
+    evaluator.apply(move);
+    //the model passes for a player without moves, so the same player may go again
+    int score = model.getCurrentTurn() == player
+            ? this.negamax(model, remaining, alpha, beta)
+            : -this.negamax(model, remaining, -beta, -alpha);
+    evaluator.undo(move);
+    model.unmakeMove(move);
+    return score;
+  }
+
+  //helper: the score of the position for the player to move, if it lies between alpha and
+  // beta, otherwise a score on the same side of the window as the real one
+  private int negamax(ReversiModel model, int remaining, int alpha, int beta) {
+    nodeCount++;
+    int player = model.getCurrentTurn();
+    if (model.isGameOver()) {
+      return WIN_WEIGHT * (model.getScore(player) - model.getScore(3 - player));
+    }
+    if (remaining == 0) {
+      return evaluator.evaluate(player);
+    }
+
+    List<Coordinate> moves = model.getAvailableMoves(player);
+    int best = -Integer.MAX_VALUE;
+    for (Coordinate coord : ordering.order(model, moves, player)) {
+      int score = this.scoreMove(model, coord, player, remaining - 1, alpha, beta);
+      if (score > best) {
+        best = score;
+        alpha = Math.max(alpha, best);
+        if (alpha >= beta) {
+          break;
+        }
+      }
+    }
+    return best;
+  }
+}
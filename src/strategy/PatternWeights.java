@@ -0,0 +1,118 @@
+package strategy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.function.Function;
+
+import model.BoardGeometry;
+
+/**
+ * Reads and writes the tables of a PatternEvaluator as a compact binary file: a header
+ * naming the board, then the length of each segment and its table of shorts. A file only
+ * fits the board it was made for, which its name and header both record.
+ */
+public final class PatternWeights {
+  private static final int MAGIC = 0x52565057; // "RVPW"
+  private static final int VERSION = 1;
+
+  private PatternWeights() {
+    //only static methods
+  }
+
+  /**
+   * Gets the name of the weight file of a board, such as hexagon-37.weights.
+   * @param geometry the board.
+   * @return the file name.
+   */
+  public static String fileName(BoardGeometry geometry) {
+    String shape = geometry.directionCount() == 6 ? "hexagon" : "square";
+    return shape + "-" + geometry.size() + ".weights";
+  }
+
+  /**
+   * Writes tables to a file, replacing it at once so a reader never sees half a file.
+   * @param file where to write the tables.
+   * @param geometry the board the tables are for.
+   * @param tables one table for each segment of the board, as PatternEvaluator uses.
+   * @throws IOException if the file cannot be written.
+   */
+  public static void write(Path file, BoardGeometry geometry, short[][] tables)
+          throws IOException {
+    //checks that the tables fit the board before anything is written
+    new PatternEvaluator(geometry, tables);
+    Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+    try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(geometry.size());
+      out.writeInt(geometry.directionCount());
+      out.writeInt(tables.length);
+      for (short[] table : tables) {
+        out.writeInt(table.length);
+        for (short weight : table) {
+          out.writeShort(weight);
+        }
+      }
+    }
+    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Reads tables from a file.
+   * @param file the file to read.
+   * @param geometry the board the tables should be for.
+   * @return the tables, one for each segment of the board.
+   * @throws IOException if the file cannot be read.
+   * @throws IllegalArgumentException if the file is not a weight file for the board.
+   */
+  public static short[][] read(Path file, BoardGeometry geometry) throws IOException {
+    try (DataInputStream in = new DataInputStream(
+            new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readInt() != geometry.size()
+              || in.readInt() != geometry.directionCount()) {
+        throw new IllegalArgumentException("Not a weight file for this board: " + file);
+      }
+      short[][] tables = new short[in.readInt()][];
+      for (int s = 0; s < tables.length; s++) {
+        tables[s] = new short[in.readInt()];
+        for (int i = 0; i < tables[s].length; i++) {
+          tables[s][i] = in.readShort();
+        }
+      }
+      //checks that the tables fit the board
+      new PatternEvaluator(geometry, tables);
+      return tables;
+    }
+  }
+
+  /**
+   * Makes evaluators that use the weight file of their board from a directory, and the
+   * default tables for boards that have none there.
+   * @param directory the directory holding weight files.
+   * @return a way to make an evaluator for a board, for PatternSearchStrategy.
+   * @throws UncheckedIOException if a weight file exists but cannot be read.
+   */
+  public static Function<BoardGeometry, PatternEvaluator> evaluators(Path directory) {
+    return geometry -> {
+      Path file = directory.resolve(fileName(geometry));
+      if (!Files.exists(file)) {
+        return new PatternEvaluator(geometry);
+      }
+      try {
+        return new PatternEvaluator(geometry, read(file, geometry));
+      }
+      catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    };
+  }
+}
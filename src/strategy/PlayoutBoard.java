@@ -0,0 +1,162 @@
+package strategy;
+
+import model.BoardGeometry;
+import model.ReadonlyReversiModel;
+
+/**
+ * A bare two player Reversi board for playing out games quickly, with no checks, observers
+ * or history. Cells are the indices of a BoardGeometry, so it works for any board shape.
+ * Once made, nothing it does allocates memory, which keeps random playouts cheap.
+ */
+final class PlayoutBoard {
+  private final BoardGeometry geometry;
+  private final int directions;
+
+  /**
+   * INVARIANT: cells.length == geometry.size(), every cell is 0, 1 or 2.
+   * INTERPRETATION: cells[i] is the owner of cell i, 0 if it is empty. next[i * directions
+   * + d] is the neighbor of cell i in direction d, or -1 off the board.
+   */
+  private final byte[] cells;
+  private final int[] next;
+  private int turn;
+  private int passes; // passes in a row, the game is over at 2
+
+  /**
+   * Constructs an empty board of the given geometry, with player 1 to move.
+   * @param geometry the shape of the board.
+   */
+  PlayoutBoard(BoardGeometry geometry) {
+    this.geometry = geometry;
+    this.directions = geometry.directionCount();
+    this.cells = new byte[geometry.size()];
+    this.next = new int[geometry.size() * directions];
+    for (int i = 0; i < geometry.size(); i++) {
+      for (int d = 0; d < directions; d++) {
+        next[i * directions + d] = geometry.neighbor(i, d);
+      }
+    }
+    this.turn = 1;
+  }
+
+  /**
+   * Copies the discs of a game onto this board.
+   * @param model a game with the same geometry as this board.
+   * @param player the player to move.
+   */
+  void load(ReadonlyReversiModel model, int player) {
+    for (int i = 0; i < cells.length; i++) {
+      cells[i] = (byte) model.getOwnerAt(i);
+    }
+    this.turn = player;
+    this.passes = 0;
+  }
+
+  /**
+   * Copies another board of the same geometry onto this one.
+   * @param other the board to copy.
+   */
+  void copyFrom(PlayoutBoard other) {
+    System.arraycopy(other.cells, 0, cells, 0, cells.length);
+    this.turn = other.turn;
+    this.passes = other.passes;
+  }
+
+  /**
+   * Gets the geometry of the board.
+   * @return the shape of the board.
+   */
+  BoardGeometry getGeometry() {
+    return geometry;
+  }
+
+  /**
+   * Gets the player to move.
+   * @return 1 or 2.
+   */
+  int getTurn() {
+    return turn;
+  }
+
+  /**
+   * Writes the legal moves of the player to move into moves, in board order.
+   * @param moves a buffer of at least geometry.size() cells.
+   * @return the number of moves written.
+   */
+  int legalMoves(int[] moves) {
+    int count = 0;
+    for (int i = 0; i < cells.length; i++) {
+      if (cells[i] == 0 && flips(i, false)) {
+        moves[count++] = i;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Places a disc of the player to move, flips what it captures, and passes the turn.
+   * @param index a legal move of the player to move.
+   */
+  void play(int index) {
+    cells[index] = (byte) turn;
+    flips(index, true);
+    turn = 3 - turn;
+    passes = 0;
+  }
+
+  /**
+   * Passes the turn without placing a disc.
+   */
+  void pass() {
+    turn = 3 - turn;
+    passes++;
+  }
+
+  /**
+   * Checks if both players have passed in a row.
+   * @return true if the game is over.
+   */
+  boolean isOver() {
+    return passes >= 2;
+  }
+
+  /**
+   * Decides the game by disc count.
+   * @return the player with more discs, or 0 for a draw.
+   */
+  int winner() {
+    int difference = 0;
+    for (byte cell : cells) {
+      difference += cell == 1 ? 1 : cell == 2 ? -1 : 0;
+    }
+    return difference > 0 ? 1 : difference < 0 ? 2 : 0;
+  }
+
+  //helper: checks if a disc of the player to move at index would flip anything, and flips
+  // it all if apply is set
+  private boolean flips(int index, boolean apply) {
+    byte own = (byte) turn;
+    byte opp = (byte) (3 - turn);
+    boolean any = false;
+    for (int d = 0; d < directions; d++) {
+      int cell = next[index * directions + d];
+      int run = 0;
+      while (cell >= 0 && cells[cell] == opp) {
+        cell = next[cell * directions + d];
+        run++;
+      }
+      if (run == 0 || cell < 0 || cells[cell] != own) {
+        continue;
+      }
+      if (!apply) {
+        return true;
+      }
+      any = true;
+      for (cell = next[index * directions + d]; cells[cell] == opp;
+           cell = next[cell * directions + d]) {
+        cells[cell] = own;
+      }
+    }
+    return any;
+  }
+}
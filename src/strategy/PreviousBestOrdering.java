@@ -0,0 +1,70 @@
+package strategy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import model.BoardSymmetry;
+import model.Coordinate;
+import model.ReadonlyReversiModel;
+import model.ReversiModel;
+
+/**
+ * Searches first the move an earlier search found best in the same position, then the
+ * rest in the order of another policy. Positions are remembered in their canonical
+ * orientation, see BoardSymmetry, so a best move found in one position is also tried first
+ * in its rotations and reflections. The memory is cleared once it holds too many positions.
+ */
+public class PreviousBestOrdering implements MoveOrdering {
+  private static final int MAX_POSITIONS = 1 << 16;
+
+  private final MoveOrdering fallback;
+  private final Map<Long, Integer> bestMoves; // canonical move index by canonical key
+
+  /**
+   * Remembers earlier best moves, ordering the others corners first.
+   */
+  public PreviousBestOrdering() {
+    this(new CornersFirstOrdering());
+  }
+
+  /**
+   * Remembers earlier best moves, ordering the others with the given policy.
+   * @param fallback the ordering of the moves after the remembered one.
+   */
+  public PreviousBestOrdering(MoveOrdering fallback) {
+    this.fallback = fallback;
+    this.bestMoves = new HashMap<>();
+  }
+
+  @Override
+  public List<Coordinate> order(ReversiModel model, List<Coordinate> moves, int player) {
+    List<Coordinate> ordered = new ArrayList<>(fallback.order(model, moves, player));
+    BoardSymmetry symmetry = model.getGeometry().getSymmetry();
+    int canonical = symmetry.canonicalSymmetry(model);
+    Integer best = bestMoves.get(symmetry.key(model, canonical));
+    if (best != null) {
+      Coordinate move = model.getGeometry().coordinateAt(symmetry.preimage(canonical, best));
+      if (ordered.remove(move)) {
+        ordered.add(0, move);
+      }
+    }
+    return ordered;
+  }
+
+  @Override
+  public void bestMoveFound(ReadonlyReversiModel model, Coordinate move) {
+    if (move == null) {
+      return;
+    }
+    if (bestMoves.size() >= MAX_POSITIONS) {
+      bestMoves.clear();
+    }
+    BoardSymmetry symmetry = model.getGeometry().getSymmetry();
+    int canonical = symmetry.canonicalSymmetry(model);
+    bestMoves.put(symmetry.key(model, canonical),
+            symmetry.image(canonical, model.getGeometry().indexOf(move)));
+    fallback.bestMoveFound(model, move);
+  }
+}
@@ -1,6 +1,5 @@
 package strategy;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
@@ -13,7 +12,7 @@ import model.ReadonlyReversiModel;
 public class RandomValidMoveStrategy implements ReversiStrategy {
   @Override
   public Coordinate chooseCoord(ReadonlyReversiModel model, int player) {
-    List<Coordinate> keysAsArray = new ArrayList<Coordinate>(model.getBoard().keySet());
+    List<Coordinate> keysAsArray = model.getGeometry().getCoordinates();
 
     Random r = new Random();
     Coordinate randomCoord = keysAsArray.get(r.nextInt(keysAsArray.size()));
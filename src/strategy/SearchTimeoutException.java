@@ -0,0 +1,16 @@
+package strategy;
+
+/**
+ * Thrown inside a search when its time runs out or it is told to stop, to unwind it from
+ * any depth at once.
+ * The search only ever plays moves on its own copy of the game, so nothing needs to be
+ * taken back when it is thrown.
+ */
+class SearchTimeoutException extends RuntimeException {
+  private static final long serialVersionUID = 1L;
+
+  SearchTimeoutException() {
+    //no stack trace, it is thrown often and never reported
+    super("The search ran out of time", null, false, false);
+  }
+}
@@ -0,0 +1,200 @@
+package strategy;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size table of positions a search has already scored, looked up by position key.
+ * The table is split into buckets of two entries. The first entry of a bucket keeps the
+ * deepest search seen for it, and the second always takes the latest entry that did not
+ * fit in the first, so deep results survive while recent ones are still found.
+ * Entries are packed into longs and returned the same way, so probing never allocates.
+ * A table can outlive a single search, letting later moves of a game reuse earlier work.
+ * Several threads may share one table without locking: each slot keeps its key XORed with
+ * its entry, so a slot caught halfway through another thread's write no longer matches
+ * any key and is treated as empty. When shared, the counters are only approximate.
+ */
+public class TranspositionTable {
+
+  /**
+   * The stored score is the exact score of the position.
+   */
+  public static final int EXACT = 0;
+
+  /**
+   * The real score of the position is at least the stored score.
+   */
+  public static final int LOWER_BOUND = 1;
+
+  /**
+   * The real score of the position is at most the stored score.
+   */
+  public static final int UPPER_BOUND = 2;
+
+  /**
+   * Returned by probe when the table holds nothing for a position.
+   */
+  public static final long NO_ENTRY = 0L;
+
+  private static final int BYTES_PER_ENTRY = 16;
+
+  /**
+   * INVARIANT: keys.length == entries.length, a power of two of at least 2.
+   * INTERPRETATION: entries[i] is the packed entry of the position with key
+   * keys[i] ^ entries[i], or NO_ENTRY if slot i is empty. Slots 2b and 2b + 1 form bucket
+   * b. An entry packs, from the lowest bit up, a present bit, 2 bits of bound, 8 bits of
+   * depth, 21 bits of move index plus one, and the 32 bit score.
+   */
+  private final long[] keys;
+  private final long[] entries;
+  private final int bucketMask;
+
+  private long hits;
+  private long misses;
+  private long collisions;
+
+  /**
+   * Constructs an empty table that uses at most the given amount of memory.
+   * @param megabytes the memory for the table, in MB.
+   * @throws IllegalArgumentException if megabytes is not positive.
+   */
+  public TranspositionTable(int megabytes) {
+    if (megabytes <= 0) {
+      throw new IllegalArgumentException("Table size should be positive.");
+    }
+    long maxEntries = ((long) megabytes << 20) / BYTES_PER_ENTRY;
+    int slots = Integer.highestOneBit((int) Math.min(maxEntries, 1 << 30));
+    this.keys = new long[slots];
+    this.entries = new long[slots];
+    this.bucketMask = slots / 2 - 1;
+  }
+
+  /**
+   * Looks up a position.
+   * @param key the key of the position.
+   * @return the packed entry for the position, or NO_ENTRY if there is none.
+   */
+  public long probe(long key) {
+    int slot = bucketOf(key);
+    for (int i = slot; i < slot + 2; i++) {
+      //read each array once, another thread may be writing the slot meanwhile
+      long entry = entries[i];
+      if (entry != NO_ENTRY && (keys[i] ^ entry) == key) {
+        hits++;
+        return entry;
+      }
+    }
+    misses++;
+    if (entries[slot] != NO_ENTRY || entries[slot + 1] != NO_ENTRY) {
+      collisions++;
+    }
+    return NO_ENTRY;
+  }
+
+  /**
+   * Stores the result of searching a position.
+   * @param key the key of the position.
+   * @param depth how many moves deep the position was searched, from 0 to 255.
+   * @param bound whether score is EXACT, a LOWER_BOUND or an UPPER_BOUND.
+   * @param score the score of the position.
+   * @param move the index of the best move found, or -1 if there was none.
+   */
+  public void store(long key, int depth, int bound, int score, int move) {
+    long entry = 1L | (long) bound << 1 | (long) Math.min(depth, 255) << 3
+            | (long) (move + 1) << 11 | (long) score << 32;
+    int slot = bucketOf(key);
+    long first = entries[slot];
+    //the depth-preferred entry is only given up for a search at least as deep
+    if (first == NO_ENTRY || (keys[slot] ^ first) == key || depth >= depthOf(first)) {
+      entries[slot] = entry;
+      keys[slot] = key ^ entry;
+    }
+    else {
+      entries[slot + 1] = entry;
+      keys[slot + 1] = key ^ entry;
+    }
+  }
+
+  /**
+   * Empties the table, and resets its counters.
+   */
+  public void clear() {
+    Arrays.fill(entries, NO_ENTRY);
+    hits = 0;
+    misses = 0;
+    collisions = 0;
+  }
+
+  /**
+   * Gets the number of entries the table can hold.
+   * @return the capacity of the table.
+   */
+  public int capacity() {
+    return entries.length;
+  }
+
+  /**
+   * Gets the number of probes that found their position.
+   * @return the number of hits since the table was made or cleared.
+   */
+  public long getHits() {
+    return hits;
+  }
+
+  /**
+   * Gets the number of probes that did not find their position.
+   * @return the number of misses since the table was made or cleared.
+   */
+  public long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Gets the number of misses where the bucket was taken by other positions.
+   * @return the number of collisions since the table was made or cleared.
+   */
+  public long getCollisions() {
+    return collisions;
+  }
+
+  /**
+   * Gets the depth of a packed entry.
+   * @param entry an entry returned by probe.
+   * @return how many moves deep the position was searched.
+   */
+  public static int depthOf(long entry) {
+    return (int) (entry >>> 3) & 0xFF;
+  }
+
+  /**
+   * Gets the bound of a packed entry.
+   * @param entry an entry returned by probe.
+   * @return EXACT, LOWER_BOUND or UPPER_BOUND.
+   */
+  public static int boundOf(long entry) {
+    return (int) (entry >>> 1) & 0x3;
+  }
+
+  /**
+   * Gets the score of a packed entry.
+   * @param entry an entry returned by probe.
+   * @return the stored score.
+   */
+  public static int scoreOf(long entry) {
+    return (int) (entry >>> 32);
+  }
+
+  /**
+   * Gets the best move of a packed entry.
+   * @param entry an entry returned by probe.
+   * @return the index of the best move, or -1 if there was none.
+   */
+  public static int moveOf(long entry) {
+    return ((int) (entry >>> 11) & 0x1FFFFF) - 1;
+  }
+
+  //helper: the first slot of the bucket a key belongs to
+  private int bucketOf(long key) {
+    //the low bits of a Zobrist key are as random as any, but mix in the high ones anyway
+    return ((int) (key ^ (key >>> 32)) & bucketMask) << 1;
+  }
+}
@@ -0,0 +1,450 @@
+package tuning;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import model.BitboardHexagonReversi;
+import model.BitboardSquareReversi;
+import model.BoardGeometry;
+import model.Coordinate;
+import model.ReversiModel;
+import strategy.AvoidCornerNeighborStrategy;
+import strategy.CaptureMaxCellsThisMove;
+import strategy.EndgameSolver;
+import strategy.GoForCornersStrategy;
+import strategy.PatternEvaluator;
+import strategy.PatternSearchStrategy;
+import strategy.PatternWeights;
+import strategy.ReversiStrategy;
+
+/**
+ * Tunes the tables of a PatternEvaluator offline, from games the existing strategies play
+ * against each other. Every position of those games is labeled with the disc difference
+ * the game ended with, or, once few enough cells are empty, the exact result of perfect
+ * play from an EndgameSolver. The tables are then fit to the labels by mini-batch
+ * gradient descent, spread over every core, and written as a PatternWeights file.
+ * Everything is kept in a working directory: the positions once they are played, and a
+ * checkpoint after every epoch, so a long run that is stopped picks up where it was.
+ */
+public class EvaluationTuner {
+  //evaluation units a disc is worth, so tuned tables have room to spare in a short
+  private static final int LABEL_SCALE = 16;
+  //positions with this few empty cells are labeled by solving them
+  private static final int SOLVE_EMPTIES = 10;
+  private static final int RANDOM_OPENING_MOVES = 4;
+  private static final double RANDOM_MOVE_CHANCE = 0.1;
+  //used by main, larger steps make the fit diverge on small boards
+  private static final int BATCH_SIZE = 256;
+  private static final double LEARNING_RATE = 0.1;
+
+  private static final int POSITIONS_MAGIC = 0x52565053; // "RVPS"
+  private static final int CHECKPOINT_MAGIC = 0x52565443; // "RVTC"
+  private static final String POSITIONS_FILE = "positions.bin";
+  private static final String CHECKPOINT_FILE = "checkpoint.bin";
+
+  private final String boardType;
+  private final int sideLength;
+  private final Path workDirectory;
+  private final BoardGeometry geometry;
+  private final ForkJoinPool pool;
+
+  /**
+   * INVARIANT: features.length == targets.length, and weights[s].length is the size of
+   * the table of segment s.
+   * INTERPRETATION: position i had features[i][s] as the index of segment s, and is worth
+   * targets[i] evaluation units to player 1. weights are the tables being fit, null until
+   * training starts, after epochsDone passes over every position.
+   */
+  private int[][] features;
+  private float[] targets;
+  private float[][] weights;
+  private int epochsDone;
+
+  /**
+   * Constructs a tuner for one board.
+   * @param boardType the shape of the board, square or hexagon.
+   * @param sideLength the length of one edge of the board.
+   * @param workDirectory where positions and checkpoints are kept, which must exist.
+   * @param threads the number of threads to play and train with.
+   * @throws IllegalArgumentException if the board type is unknown.
+   */
+  public EvaluationTuner(String boardType, int sideLength, Path workDirectory, int threads) {
+    this.boardType = boardType;
+    this.sideLength = sideLength;
+    this.workDirectory = workDirectory;
+    this.geometry = this.newGame().getGeometry();
+    this.pool = new ForkJoinPool(threads);
+  }
+
+  /**
+   * Plays games to tune with, or reads the positions of an earlier run if there are any.
+   * @param games the number of games to play.
+   * @param seed the seed of the random moves that make the games different.
+   * @return the number of positions to tune with.
+   * @throws IOException if the positions cannot be written or read.
+   */
+  public int generatePositions(int games, long seed) throws IOException {
+    Path file = workDirectory.resolve(POSITIONS_FILE);
+    if (Files.exists(file)) {
+      this.readPositions(file);
+      return targets.length;
+    }
+
+    List<List<float[]>> played = pool.submit(() -> IntStream.range(0, games).parallel()
+            .mapToObj(game -> this.playGame(new Random(seed * 31 + game)))
+            .collect(Collectors.toList())).join();
+    List<float[]> positions = new ArrayList<>();
+    played.forEach(positions::addAll);
+    int segments = new PatternEvaluator(geometry).getTables().length;
+    features = new int[positions.size()][segments];
+    targets = new float[positions.size()];
+    for (int i = 0; i < positions.size(); i++) {
+      float[] position = positions.get(i);
+      for (int s = 0; s < segments; s++) {
+        features[i][s] = (int) position[s];
+      }
+      targets[i] = position[segments];
+    }
+    this.writePositions(file);
+    return targets.length;
+  }
+
+  /**
+   * Trains until the given number of epochs is done, starting from the last checkpoint if
+   * there is one, and writes a checkpoint after each epoch.
+   * @param epochs the number of passes over the positions to have done when it returns.
+   * @param batchSize the number of positions in each step of gradient descent.
+   * @param learningRate the size of each step.
+   * @param seed the seed the positions are shuffled with, the same for a restarted run.
+   * @return the root mean squared error of the last epoch, in discs, or NaN if no epoch
+   *         was left to do.
+   * @throws IllegalStateException if there are no positions yet.
+   * @throws IOException if a checkpoint cannot be written or read.
+   */
+  public double train(int epochs, int batchSize, double learningRate, long seed)
+          throws IOException {
+    if (targets == null) {
+      throw new IllegalStateException("Positions should be generated first.");
+    }
+    if (weights == null) {
+      this.startWeights();
+    }
+    double error = Double.NaN;
+    for (; epochsDone < epochs; epochsDone++) {
+      error = this.runEpoch(batchSize, learningRate, new Random(seed + epochsDone));
+      this.writeCheckpoint(epochsDone + 1);
+    }
+    return error;
+  }
+
+  /**
+   * Loads the last checkpoint if there is one, so getEpochsDone counts the epochs of an
+   * earlier run before any training. Training resumes by itself, so this is only needed to
+   * know where a restarted run stands.
+   * @throws IOException if the checkpoint cannot be read.
+   * @throws IllegalArgumentException if the checkpoint is for another board.
+   */
+  public void resume() throws IOException {
+    if (weights == null) {
+      this.startWeights();
+    }
+  }
+
+  /**
+   * Gets the number of epochs trained so far, including those of a restarted run.
+   * @return the number of epochs done.
+   */
+  public int getEpochsDone() {
+    return epochsDone;
+  }
+
+  /**
+   * Gets the tuned tables, rounded to fit a PatternEvaluator.
+   * @return one table for each segment of the board.
+   * @throws IllegalStateException if training has not started.
+   */
+  public short[][] getTables() {
+    if (weights == null) {
+      throw new IllegalStateException("Training has not started.");
+    }
+    short[][] tables = new short[weights.length][];
+    for (int s = 0; s < weights.length; s++) {
+      tables[s] = new short[weights[s].length];
+      for (int i = 0; i < weights[s].length; i++) {
+        float weight = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, weights[s][i]));
+        tables[s][i] = (short) Math.round(weight);
+      }
+    }
+    return tables;
+  }
+
+  /**
+   * Writes the tuned tables into a directory, named so PatternWeights.evaluators finds them.
+   * @param directory the directory to write to.
+   * @return the file written.
+   * @throws IOException if the file cannot be written.
+   */
+  public Path writeWeights(Path directory) throws IOException {
+    Path file = directory.resolve(PatternWeights.fileName(geometry));
+    PatternWeights.write(file, geometry, this.getTables());
+    return file;
+  }
+
+  //helper: a new game on the board being tuned
+  private ReversiModel newGame() {
+    return newGame(boardType, sideLength);
+  }
+
+  //helper: a new, started game of a type Reversi knows, for the tools of this package
+  static ReversiModel newGame(String boardType, int sideLength) {
+    ReversiModel model;
+    switch (boardType.toLowerCase()) {
+      case "hexagon":
+        model = new BitboardHexagonReversi();
+        break;
+      case "square":
+        model = new BitboardSquareReversi();
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown game type: " + boardType);
+    }
+    model.startGame(sideLength, 2);
+    return model;
+  }
+
+  //helper: plays one game between two strategies picked at random, and returns every
+  // position of it as its segment indices followed by its label
+  private List<float[]> playGame(Random random) {
+    ReversiStrategy[] strategies = {new GoForCornersStrategy(), new CaptureMaxCellsThisMove(),
+        new AvoidCornerNeighborStrategy(), new PatternSearchStrategy(2)};
+    ReversiStrategy[] players = {strategies[random.nextInt(strategies.length)],
+        strategies[random.nextInt(strategies.length)]};
+    ReversiModel model = this.newGame();
+    PatternEvaluator evaluator = new PatternEvaluator(geometry);
+    EndgameSolver solver = new EndgameSolver();
+    int segments = evaluator.getTables().length;
+
+    List<float[]> positions = new ArrayList<>();
+    List<float[]> unsolved = new ArrayList<>();
+    for (int ply = 0; !model.isGameOver(); ply++) {
+      int player = model.getCurrentTurn();
+      float[] position = new float[segments + 1];
+      evaluator.load(model);
+      for (int s = 0; s < segments; s++) {
+        position[s] = evaluator.getIndex(s);
+      }
+      int empty = geometry.size() - model.getScore(1) - model.getScore(2);
+      if (empty <= SOLVE_EMPTIES) {
+        int solved = solver.solve(model, player).second();
+        position[segments] = (player == 1 ? solved : -solved) * LABEL_SCALE;
+      }
+      else {
+        unsolved.add(position);
+      }
+      positions.add(position);
+
+      List<Coordinate> moves = model.getAvailableMoves(player);
+      Coordinate move = ply < RANDOM_OPENING_MOVES || random.nextDouble() < RANDOM_MOVE_CHANCE
+              ? moves.get(random.nextInt(moves.size()))
+              : players[player - 1].chooseCoord(model, player);
+      model.flipCell(move, player);
+    }
+    for (float[] position : unsolved) {
+      position[segments] = (model.getScore(1) - model.getScore(2)) * LABEL_SCALE;
+    }
+    return positions;
+  }
+
+  //helper: starts from the last checkpoint, or else from the default tables
+  private void startWeights() throws IOException {
+    Path file = workDirectory.resolve(CHECKPOINT_FILE);
+    if (Files.exists(file)) {
+      this.readCheckpoint(file);
+      return;
+    }
+    short[][] tables = new PatternEvaluator(geometry).getTables();
+    weights = new float[tables.length][];
+    for (int s = 0; s < tables.length; s++) {
+      weights[s] = new float[tables[s].length];
+      for (int i = 0; i < tables[s].length; i++) {
+        weights[s][i] = tables[s][i];
+      }
+    }
+    epochsDone = 0;
+  }
+
+  //helper: one pass over the positions in a random order, returns its error in discs
+  private double runEpoch(int batchSize, double learningRate, Random random) {
+    int[] order = IntStream.range(0, targets.length).toArray();
+    for (int i = order.length - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      int swap = order[i];
+      order[i] = order[j];
+      order[j] = swap;
+    }
+
+    float[] errors = new float[batchSize];
+    double squaredError = 0;
+    for (int start = 0; start < order.length; start += batchSize) {
+      int end = Math.min(start + batchSize, order.length);
+      int first = start;
+      //the predictions of a batch are independent of each other
+      pool.submit(() -> IntStream.range(first, end).parallel().forEach(i ->
+              errors[i - first] = this.predict(order[i]) - targets[order[i]])).join();
+      for (int i = 0; i < end - start; i++) {
+        squaredError += (double) errors[i] * errors[i];
+      }
+
+      //each thread updates whole segments, so no two threads write the same weight
+      float step = (float) (learningRate / (end - start));
+      pool.submit(() -> IntStream.range(0, weights.length).parallel().forEach(s -> {
+        float[] table = weights[s];
+        for (int i = first; i < end; i++) {
+          table[features[order[i]][s]] -= step * errors[i - first];
+        }
+      })).join();
+    }
+    return Math.sqrt(squaredError / order.length) / LABEL_SCALE;
+  }
+
+  //helper: the current evaluation of position i for player 1
+  private float predict(int i) {
+    float sum = 0;
+    for (int s = 0; s < weights.length; s++) {
+      sum += weights[s][features[i][s]];
+    }
+    return sum;
+  }
+
+  private void writePositions(Path file) throws IOException {
+    Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+    try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+      out.writeInt(POSITIONS_MAGIC);
+      out.writeInt(targets.length);
+      out.writeInt(features.length == 0 ? 0 : features[0].length);
+      for (int i = 0; i < targets.length; i++) {
+        for (int index : features[i]) {
+          //segments have at most 3 ^ 8 arrangements, which fit in a short
+          out.writeShort(index);
+        }
+        out.writeFloat(targets[i]);
+      }
+    }
+    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private void readPositions(Path file) throws IOException {
+    try (DataInputStream in = new DataInputStream(
+            new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != POSITIONS_MAGIC) {
+        throw new IllegalArgumentException("Not a positions file: " + file);
+      }
+      int count = in.readInt();
+      int segments = in.readInt();
+      //a directory used for another board holds positions of other segments
+      if (count > 0 && segments != new PatternEvaluator(geometry).getTables().length) {
+        throw new IllegalArgumentException("The positions in " + file + " are for another "
+                + "board");
+      }
+      features = new int[count][segments];
+      targets = new float[count];
+      for (int i = 0; i < count; i++) {
+        for (int s = 0; s < segments; s++) {
+          features[i][s] = in.readUnsignedShort();
+        }
+        targets[i] = in.readFloat();
+      }
+    }
+  }
+
+  private void writeCheckpoint(int epochs) throws IOException {
+    Path file = workDirectory.resolve(CHECKPOINT_FILE);
+    Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+    try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+      out.writeInt(CHECKPOINT_MAGIC);
+      out.writeInt(epochs);
+      out.writeInt(weights.length);
+      for (float[] table : weights) {
+        out.writeInt(table.length);
+        for (float weight : table) {
+          out.writeFloat(weight);
+        }
+      }
+    }
+    //a run stopped while writing keeps the previous checkpoint
+    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private void readCheckpoint(Path file) throws IOException {
+    try (DataInputStream in = new DataInputStream(
+            new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != CHECKPOINT_MAGIC) {
+        throw new IllegalArgumentException("Not a checkpoint file: " + file);
+      }
+      short[][] tables = new PatternEvaluator(geometry).getTables();
+      epochsDone = in.readInt();
+      weights = new float[in.readInt()][];
+      if (weights.length != tables.length) {
+        weights = null;
+        throw new IllegalArgumentException("The checkpoint " + file + " is for another board");
+      }
+      for (int s = 0; s < weights.length; s++) {
+        int length = in.readInt();
+        if (length != tables[s].length) {
+          weights = null;
+          throw new IllegalArgumentException("The checkpoint " + file + " is for another "
+                  + "board");
+        }
+        weights[s] = new float[length];
+        for (int i = 0; i < weights[s].length; i++) {
+          weights[s][i] = in.readFloat();
+        }
+      }
+    }
+  }
+
+  /**
+   * Runs a whole tuning, or resumes one, and writes the weight file.
+   * @param args the board type, side length, number of games, number of epochs and the
+   *             working directory, which the weight file is also written to.
+   * @throws IOException if the working directory cannot be used.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 5) {
+      System.out.println("Usage: EvaluationTuner <gameType> <sideLength> <games> <epochs> "
+              + "<workDirectory>");
+      System.exit(1);
+    }
+    Path directory = Paths.get(args[4]);
+    Files.createDirectories(directory);
+    EvaluationTuner tuner = new EvaluationTuner(args[0], Integer.parseInt(args[1]), directory,
+            Runtime.getRuntime().availableProcessors());
+    int positions = tuner.generatePositions(Integer.parseInt(args[2]), 1);
+    System.out.println(positions + " positions");
+    int epochs = Integer.parseInt(args[3]);
+    //a restarted run only reports the epochs it has left
+    tuner.resume();
+    for (int epoch = tuner.getEpochsDone() + 1; epoch <= epochs; epoch++) {
+      double error = tuner.train(epoch, BATCH_SIZE, LEARNING_RATE, 1);
+      System.out.println("epoch " + epoch + ": error " + error + " discs");
+    }
+    System.out.println("wrote " + tuner.writeWeights(directory));
+  }
+}
@@ -0,0 +1,163 @@
+package tuning;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import model.BoardGeometry;
+import model.BoardSymmetry;
+import model.Coordinate;
+import model.ReadonlyReversiModel;
+import model.ReversiModel;
+import strategy.EndgameStrategy;
+import strategy.OpeningBook;
+import strategy.PatternSearchStrategy;
+import strategy.PatternWeights;
+import strategy.ReversiStrategy;
+
+/**
+ * Grows an opening book, from an existing book, from moves found by deep searches, and
+ * from games a searching strategy plays against itself. A position already in the book
+ * keeps its move unless a move with a score replaces it, so a book can be grown in
+ * several runs without searching a position twice.
+ */
+public class OpeningBookBuilder {
+  //how deep the book player of main searches
+  private static final int SEARCH_DEPTH = 7;
+  private static final double DEVIATION_CHANCE = 0.25;
+  private static final int ENDGAME_EMPTIES = 12;
+
+  //entries by key, sorted the way the book file wants them
+  private final Map<Long, int[]> entries = new TreeMap<>();
+
+  /**
+   * Adds every entry of a book, such as the last version of the one being grown.
+   * @param book the book to add.
+   */
+  public void addAll(OpeningBook book) {
+    for (int i = 0; i < book.size(); i++) {
+      entries.put(book.keyAt(i), new int[] {book.moveAt(i), book.scoreAt(i)});
+    }
+  }
+
+  /**
+   * Adds the result of a search, replacing any move the book had for the position.
+   * @param model the position.
+   * @param move the move to play there.
+   * @param score the score the search gave the move, from the view of the player to move.
+   */
+  public void add(ReadonlyReversiModel model, Coordinate move, int score) {
+    entries.put(OpeningBook.keyOf(model),
+            new int[] {OpeningBook.moveOf(model, model.getGeometry().indexOf(move)), score});
+  }
+
+  /**
+   * Plays games where both sides play the searcher's move, except that now and then a
+   * side plays a random move instead so the book also covers other lines. The searcher's
+   * move in every position it meets, up to a number of moves into the game, is added to
+   * the book unless the book already has one.
+   * @param newGame makes the started game to play from.
+   * @param searcher the strategy to fill the book with.
+   * @param games the number of games to play.
+   * @param plies how many moves into each game to add positions for.
+   * @param seed the seed of the random moves.
+   * @return the number of positions added.
+   */
+  public int addSelfPlay(Supplier<ReversiModel> newGame, ReversiStrategy searcher, int games,
+                         int plies, long seed) {
+    Random random = new Random(seed);
+    int added = 0;
+    for (int game = 0; game < games; game++) {
+      ReversiModel model = newGame.get();
+      for (int ply = 0; ply < plies && !model.isGameOver(); ply++) {
+        int player = model.getCurrentTurn();
+        long key = OpeningBook.keyOf(model);
+        if (!entries.containsKey(key)) {
+          this.add(model, searcher.chooseCoord(model, player), 0);
+          added++;
+        }
+        Coordinate move = this.moveIn(model, entries.get(key)[0]);
+        if (random.nextDouble() < DEVIATION_CHANCE) {
+          List<Coordinate> moves = model.getAvailableMoves(player);
+          move = moves.get(random.nextInt(moves.size()));
+        }
+        model.flipCell(move, player);
+      }
+    }
+    return added;
+  }
+
+  //helper: the move of an entry, turned back from canonical orientation to fit the model
+  private Coordinate moveIn(ReadonlyReversiModel model, int canonicalMove) {
+    BoardSymmetry symmetry = model.getGeometry().getSymmetry();
+    return model.getGeometry().coordinateAt(
+            symmetry.preimage(symmetry.canonicalSymmetry(model), canonicalMove));
+  }
+
+  /**
+   * Gets the number of positions in the book being built.
+   * @return the number of entries.
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Writes the book.
+   * @param file where to write it.
+   * @param geometry the board its positions are on.
+   * @throws IOException if the file cannot be written.
+   */
+  public void write(Path file, BoardGeometry geometry) throws IOException {
+    long[] keys = new long[entries.size()];
+    int[] moves = new int[keys.length];
+    int[] scores = new int[keys.length];
+    int i = 0;
+    for (Map.Entry<Long, int[]> entry : entries.entrySet()) {
+      keys[i] = entry.getKey();
+      moves[i] = entry.getValue()[0];
+      scores[i++] = entry.getValue()[1];
+    }
+    OpeningBook.write(file, geometry, keys, moves, scores);
+  }
+
+  /**
+   * Grows the book of a board by self-play of the pattern search player, starting from
+   * the book already in the directory if there is one.
+   * @param args the board type, side length, number of games, number of moves into each
+   *             game to add, and the directory of the book, which may also hold weights.
+   * @throws IOException if the book cannot be read or written.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 5) {
+      System.out.println("Usage: OpeningBookBuilder <gameType> <sideLength> <games> <plies> "
+              + "<directory>");
+      System.exit(1);
+    }
+    String boardType = args[0];
+    int sideLength = Integer.parseInt(args[1]);
+    Path directory = Paths.get(args[4]);
+    Files.createDirectories(directory);
+    BoardGeometry geometry = EvaluationTuner.newGame(boardType, sideLength).getGeometry();
+    Path file = directory.resolve(OpeningBook.fileName(geometry));
+
+    OpeningBookBuilder builder = new OpeningBookBuilder();
+    if (Files.exists(file)) {
+      builder.addAll(OpeningBook.open(file));
+    }
+    ReversiStrategy searcher = new EndgameStrategy(new PatternSearchStrategy(SEARCH_DEPTH,
+            PatternWeights.evaluators(directory)), ENDGAME_EMPTIES);
+    //a new seed for each run, so growing a book again plays different games
+    int added = builder.addSelfPlay(() -> EvaluationTuner.newGame(boardType, sideLength),
+            searcher, Integer.parseInt(args[2]), Integer.parseInt(args[3]), builder.size());
+    builder.write(file, geometry);
+    System.out.println("added " + added + " positions, wrote " + builder.size() + " to "
+            + file);
+  }
+}
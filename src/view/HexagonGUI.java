@@ -14,11 +14,9 @@ import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
 
-import java.util.Map;
 import java.util.Objects;
 
 import controller.ControllerFeatures;
-import model.Cell;
 import model.Coordinate;
 import model.ReadonlyReversiModel;
 
@@ -92,7 +90,8 @@ public class HexagonGUI extends AbstractGUI {
 
 
   private void drawHexagonBoard(Graphics g, int centerX, int centerY) {
-    for (Coordinate cubicCoord : model.getBoard().keySet()) {
+    ReadonlyReversiModel board = model.snapshot();
+    for (Coordinate cubicCoord : board.getGeometry().getCoordinates()) {
 
       // Calculate screen coordinates based on the cubic coordinate offsets
       int horizontalSpacing = (int) (Math.sqrt(3) * hexRadius);
@@ -104,10 +103,11 @@ public class HexagonGUI extends AbstractGUI {
 
       drawHexagon(g, screenX, screenY, hexRadius, Color.GRAY);
 
-      if (model.getBoard().get(cubicCoord).getOwner() == 1) {
+      int owner = board.getOwnerAt(cubicCoord);
+      if (owner == 1) {
         drawCircle(g, screenX, screenY, hexRadius * 2 / 3, Color.BLACK);
       }
-      else if (model.getBoard().get(cubicCoord).getOwner() == 2) {
+      else if (owner == 2) {
         drawCircle(g, screenX, screenY, hexRadius * 2 / 3, Color.WHITE);
       }
 
@@ -161,7 +161,7 @@ public class HexagonGUI extends AbstractGUI {
    * @return cubic coordinate of hexagon clicked.
    */
   public Coordinate findCoordClicked(int mouseX, int mouseY) {
-    for (Coordinate coordinate: model.getBoard().keySet()) {
+    for (Coordinate coordinate: model.getGeometry().getCoordinates()) {
       // Calculate screen coordinates based on the cubic coordinate offsets
       int screenX = (int) (getWidth() / 2 + hexRadius * (Math.sqrt(3) * coordinate.getX() +
               Math.sqrt(3) / 2 * coordinate.getZ()));
@@ -179,7 +179,6 @@ public class HexagonGUI extends AbstractGUI {
     public void mouseClicked(MouseEvent e) {
       int mouseX = e.getX();
       int mouseY = e.getY();
-      Map<Coordinate, Cell> board = model.getBoard();
       Graphics g = getGraphics();
       int verticalSpacing = (int) (1.5 * hexRadius);
       String message = "Mouse clicked at coordinates (" + mouseX + ", " + mouseY + ")";
@@ -191,7 +190,7 @@ public class HexagonGUI extends AbstractGUI {
                 Math.sqrt(3) / 2 * coordClicked.getZ()));
         int screenY = getHeight() / 2 + (verticalSpacing * coordClicked.getZ());
         message += " in hexagon " + coordClicked;
-        if (board.get(coordClicked).getOwner() == 0) {
+        if (model.getOwnerAt(coordClicked) == 0) {
           // Unhighlight the previously selected hexagon (if any)
           unhighlightHexagon(g, verticalSpacing);
           // deselects or selects hexagon
@@ -78,7 +78,7 @@ public class SquareGUI extends AbstractGUI {
 
   @Override
   public Coordinate findCoordClicked(int mouseX, int mouseY) {
-    for (Coordinate coordinate : model.getBoard().keySet()) {
+    for (Coordinate coordinate : model.getGeometry().getCoordinates()) {
       // Calculate screen coordinates based on the cubic coordinate offsets
       int squareCenterX = (int) coordinate.getX() * squareLength + (squareLength / 2);
       int squareCenterY = (int) coordinate.getY() * squareLength + (squareLength / 2);
@@ -108,16 +108,18 @@ public class SquareGUI extends AbstractGUI {
 
 
   private void drawSquareBoard(Graphics g, int screenWidth, int screenHeight) {
-    for (Coordinate coord : model.getBoard().keySet()) {
+    ReadonlyReversiModel board = model.snapshot();
+    for (Coordinate coord : board.getGeometry().getCoordinates()) {
       int screenX = coord.getX() * squareLength;
       int screenY = coord.getY() * squareLength;
 
       drawSquare(g, screenX, screenY, squareLength, Color.GRAY);
 
-      if (model.getBoard().get(coord).getOwner() == 1) {
+      int owner = board.getOwnerAt(coord);
+      if (owner == 1) {
         drawCircle(g, screenX + squareLength / 2, screenY + squareLength / 2,
                 squareLength * 2 / 3, Color.BLACK);
-      } else if (model.getBoard().get(coord).getOwner() == 2) {
+      } else if (owner == 2) {
         drawCircle(g, screenX + squareLength / 2, screenY + squareLength / 2,
                 squareLength * 2 / 3, Color.WHITE);
       }
@@ -148,7 +150,7 @@ public class SquareGUI extends AbstractGUI {
       if (coordClicked != null) {
         int screenX = coordClicked.getX() * squareLength;
         int screenY = coordClicked.getY() * squareLength;
-        if (model.getBoard().get(coordClicked).getOwner() == 0) {
+        if (model.getOwnerAt(coordClicked) == 0) {
           unhighlightSquare(getGraphics());
           deselectOrSelectSquare(coordClicked, screenX, screenY);
         }
@@ -0,0 +1,300 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import model.BitboardHexagonReversi;
+import model.BitboardSquareReversi;
+import model.CartesianCoordinate;
+import model.Coordinate;
+import model.CubicCoordinate;
+import model.HexagonReversi;
+import model.MoveList;
+import model.MoveRecord;
+import model.ReversiModel;
+import model.SquareReversi;
+import strategy.CaptureMaxCellsThisMove;
+import strategy.MiniMaxStrategy;
+
+/**
+ * Tests the bitboard implementations of reversi against the map based models.
+ */
+public class BitboardReversiTests {
+
+  private BitboardSquareReversi squareGame = new BitboardSquareReversi();
+  private BitboardHexagonReversi hexGame = new BitboardHexagonReversi();
+
+  //plays the same random game on both models and checks they always agree
+  private void assertSameGame(ReversiModel expected, ReversiModel actual, int sideLength,
+                              long seed) {
+    Random r = new Random(seed);
+    expected.startGame(sideLength, 2);
+    actual.startGame(sideLength, 2);
+    assertSameState(expected, actual);
+
+    while (!expected.isGameOver()) {
+      int p = expected.getCurrentTurn();
+      List<Coordinate> moves = expected.getAvailableMoves(p);
+      if (moves.isEmpty()) {
+        expected.passMove(p);
+        actual.passMove(p);
+      }
+      else {
+        Coordinate move = moves.get(r.nextInt(moves.size()));
+        Assert.assertEquals(expected.howManyCellsDoesThisMoveFlip(move, p),
+                actual.howManyCellsDoesThisMoveFlip(move, p));
+        expected.flipCell(move, p);
+        actual.flipCell(move, p);
+      }
+      assertSameState(expected, actual);
+    }
+    Assert.assertTrue(actual.isGameOver());
+  }
+
+  private void assertSameState(ReversiModel expected, ReversiModel actual) {
+    Assert.assertEquals(expected.getBoard(), actual.getBoard());
+    Assert.assertEquals(expected.getCurrentTurn(), actual.getCurrentTurn());
+    Assert.assertEquals(expected.isGameOver(), actual.isGameOver());
+    Assert.assertEquals(expected.positionKey(), actual.positionKey());
+    for (int p = 1; p <= 2; p++) {
+      Assert.assertEquals(expected.getScore(p), actual.getScore(p));
+      Assert.assertEquals(expected.getAvailableMoves(p), actual.getAvailableMoves(p));
+    }
+  }
+
+  //tries every move of a random game with makeMove, and checks unmakeMove undoes it exactly
+  private void assertUnmakeRestores(ReversiModel game, int sideLength, long seed) {
+    Random r = new Random(seed);
+    game.startGame(sideLength, 2);
+    while (!game.isGameOver()) {
+      int p = game.getCurrentTurn();
+      List<Coordinate> moves = game.getAvailableMoves(p);
+      if (moves.isEmpty()) {
+        game.passMove(p);
+        continue;
+      }
+      ReversiModel before = game.clone();
+      int[] counts = new int[game.getGeometry().size()];
+      game.countFlips(p, counts);
+      int movesCounted = 0;
+      for (int count : counts) {
+        movesCounted += count > 0 ? 1 : 0;
+      }
+      Assert.assertEquals(moves.size(), movesCounted);
+      MoveList generated = game.generateMoves(p);
+      Assert.assertEquals(moves.size(), generated.size());
+      for (Coordinate move : moves) {
+        int flips = game.howManyCellsDoesThisMoveFlip(move, p);
+        Assert.assertEquals(flips, counts[game.getGeometry().indexOf(move)]);
+        int listed = generated.indexOf(game.getGeometry().indexOf(move));
+        MoveRecord record = game.makeMove(move, p);
+        Assert.assertEquals(flips, record.getFlipCount());
+        //the generated flips are the cells the move really flipped, in any order
+        Assert.assertEquals(flips, generated.flipCount(listed));
+        Set<Integer> flipped = new HashSet<>();
+        for (int i = 0; i < flips; i++) {
+          flipped.add(record.getFlippedIndex(i));
+        }
+        for (int i = 0; i < flips; i++) {
+          Assert.assertTrue(flipped.remove(generated.flippedAt(listed, i)));
+        }
+        Assert.assertEquals(before.getScore(p) + flips + 1, game.getScore(p));
+        game.unmakeMove(record);
+        assertSameState(before, game);
+      }
+      game.flipCell(moves.get(r.nextInt(moves.size())), p);
+    }
+  }
+
+  @Test
+  public void testMakeUnmakeRestoresEveryModel() {
+    for (long seed = 0; seed < 3; seed++) {
+      assertUnmakeRestores(new SquareReversi(), 8, seed);
+      assertUnmakeRestores(new BitboardSquareReversi(), 8, seed);
+      assertUnmakeRestores(new HexagonReversi(), 5, seed);
+      assertUnmakeRestores(new BitboardHexagonReversi(), 5, seed);
+    }
+  }
+
+  @Test
+  public void testUnmakeRejectsStaleRecord() {
+    squareGame.startGame(8, 2);
+    MoveRecord record = squareGame.makeMove(squareGame.getAvailableMoves(1).get(0), 1);
+    squareGame.unmakeMove(record);
+    Assert.assertThrows(IllegalArgumentException.class, () -> squareGame.unmakeMove(record));
+    Assert.assertThrows(IllegalStateException.class, () ->
+            squareGame.makeMove(squareGame.getAvailableMoves(2).get(0), 2));
+  }
+
+  @Test
+  public void testPositionKeyFollowsPositionNotHistory() {
+    ReversiModel first = new SquareReversi();
+    ReversiModel second = new BitboardSquareReversi();
+    first.startGame(8, 2);
+    second.startGame(8, 2);
+    long start = first.positionKey();
+    Assert.assertEquals(start, second.positionKey());
+
+    //the same four moves in a different order reach the same position
+    first.flipCell(new CartesianCoordinate(2, 4), 1);
+    first.flipCell(new CartesianCoordinate(2, 5), 2);
+    first.flipCell(new CartesianCoordinate(5, 3), 1);
+    first.flipCell(new CartesianCoordinate(5, 2), 2);
+    second.flipCell(new CartesianCoordinate(5, 3), 1);
+    second.flipCell(new CartesianCoordinate(5, 2), 2);
+    second.flipCell(new CartesianCoordinate(2, 4), 1);
+    second.flipCell(new CartesianCoordinate(2, 5), 2);
+    Assert.assertEquals(first.getBoard(), second.getBoard());
+    Assert.assertEquals(first.positionKey(), second.positionKey());
+    Assert.assertEquals(first.positionKey(), first.clone().positionKey());
+    Assert.assertNotEquals(start, first.positionKey());
+
+    //passing only changes whose turn it is, which changes the key
+    long beforePass = first.positionKey();
+    first.passMove(1);
+    Assert.assertNotEquals(beforePass, first.positionKey());
+  }
+
+  // SQUARE BITBOARD TESTS
+
+  @Test
+  public void testSquareInitialBoard() {
+    squareGame.startGame(8, 2);
+    Assert.assertEquals(64, squareGame.getBoard().size());
+    Assert.assertEquals(1, squareGame.getBoard().get(new CartesianCoordinate(3, 3)).getOwner());
+    Assert.assertEquals(2, squareGame.getBoard().get(new CartesianCoordinate(4, 3)).getOwner());
+    Assert.assertEquals(1, squareGame.getBoard().get(new CartesianCoordinate(4, 4)).getOwner());
+    Assert.assertEquals(2, squareGame.getBoard().get(new CartesianCoordinate(3, 4)).getOwner());
+    Assert.assertEquals(2, squareGame.getScore(1));
+    Assert.assertEquals(2, squareGame.getScore(2));
+  }
+
+  @Test
+  public void testSquareOddSideLengthThrows() {
+    Assert.assertThrows(IllegalArgumentException.class, () -> squareGame.startGame(5, 2));
+  }
+
+  @Test
+  public void testSquareFlipCell() {
+    squareGame.startGame(4, 2);
+    squareGame.flipCell(new CartesianCoordinate(3, 1), 1);
+    Assert.assertEquals(1, squareGame.getBoard().get(new CartesianCoordinate(2, 1)).getOwner());
+    Assert.assertEquals(1, squareGame.getBoard().get(new CartesianCoordinate(3, 1)).getOwner());
+    Assert.assertEquals(2, squareGame.getCurrentTurn());
+  }
+
+  @Test
+  public void testSquareInvalidMoves() {
+    squareGame.startGame(8, 2);
+    Assert.assertFalse(squareGame.isMoveValid(new CartesianCoordinate(0, 0), 1));
+    Assert.assertFalse(squareGame.isMoveValid(new CartesianCoordinate(8, 0), 1));
+    Assert.assertFalse(squareGame.isMoveValid(new CubicCoordinate(0, 0, 0), 1));
+    Assert.assertThrows(IllegalArgumentException.class, () ->
+            squareGame.flipCell(new CartesianCoordinate(0, 0), 1));
+    Assert.assertThrows(IllegalArgumentException.class, () ->
+            squareGame.flipCell(new CartesianCoordinate(-1, 3), 1));
+    Assert.assertThrows(IllegalStateException.class, () ->
+            squareGame.flipCell(new CartesianCoordinate(2, 4), 2));
+    //already owned cell
+    Assert.assertThrows(IllegalArgumentException.class, () ->
+            squareGame.flipCell(new CartesianCoordinate(3, 4), 1));
+  }
+
+  @Test
+  public void testSquareCloneIsIndependent() {
+    squareGame.startGame(8, 2);
+    ReversiModel clone = squareGame.clone();
+    clone.flipCell(clone.getAvailableMoves(1).get(0), 1);
+    Assert.assertEquals(2, squareGame.getScore(1));
+    Assert.assertEquals(4, clone.getScore(1));
+  }
+
+  @Test
+  public void testSquareMatchesMapModelOnSingleWordBoards() {
+    for (int side = 4; side <= 8; side += 2) {
+      for (long seed = 0; seed < 10; seed++) {
+        assertSameGame(new SquareReversi(), new BitboardSquareReversi(), side, seed);
+      }
+    }
+  }
+
+  @Test
+  public void testSquareMatchesMapModelOnMultiWordBoards() {
+    for (int side = 10; side <= 16; side += 2) {
+      for (long seed = 0; seed < 3; seed++) {
+        assertSameGame(new SquareReversi(), new BitboardSquareReversi(), side, seed);
+      }
+    }
+  }
+
+  @Test
+  public void testSquareStrategiesRunUnchanged() {
+    SquareReversi mapGame = new SquareReversi();
+    mapGame.startGame(6, 2);
+    squareGame.startGame(6, 2);
+    Assert.assertEquals(new MiniMaxStrategy(2).chooseCoord(mapGame, 1),
+            new MiniMaxStrategy(2).chooseCoord(squareGame, 1));
+    Assert.assertEquals(new CaptureMaxCellsThisMove().chooseCoord(mapGame, 1),
+            new CaptureMaxCellsThisMove().chooseCoord(squareGame, 1));
+  }
+
+  // HEXAGON BITBOARD TESTS
+
+  @Test
+  public void testHexInitialBoard() {
+    hexGame.startGame(3, 2);
+    Assert.assertEquals(19, hexGame.getBoard().size());
+    Assert.assertEquals(1, hexGame.getBoard().get(new CubicCoordinate(1, -1, 0)).getOwner());
+    Assert.assertEquals(2, hexGame.getBoard().get(new CubicCoordinate(1, 0, -1)).getOwner());
+    Assert.assertEquals(1, hexGame.getBoard().get(new CubicCoordinate(0, 1, -1)).getOwner());
+    Assert.assertEquals(0, hexGame.getBoard().get(new CubicCoordinate(0, 0, 0)).getOwner());
+  }
+
+  @Test
+  public void testHexInvalidMoves() {
+    hexGame.startGame(3, 2);
+    //empty, but invalid cell (center of board)
+    Assert.assertFalse(hexGame.isMoveValid(new CubicCoordinate(0, 0, 0), 1));
+    //already owned cell
+    Assert.assertFalse(hexGame.isMoveValid(new CubicCoordinate(-1, 0, 1), 1));
+    //off the board, or not a cubic coordinate at all
+    Assert.assertFalse(hexGame.isMoveValid(new CubicCoordinate(5, 0, -5), 1));
+    Assert.assertFalse(hexGame.isMoveValid(new CubicCoordinate(1, 1, 0), 1));
+    Assert.assertFalse(hexGame.isMoveValid(new CartesianCoordinate(0, 0), 1));
+    Assert.assertTrue(hexGame.isMoveValid(new CubicCoordinate(2, -1, -1), 1));
+    Assert.assertThrows(IllegalArgumentException.class, () ->
+            hexGame.flipCell(new CubicCoordinate(2, 0, -2), 1));
+  }
+
+  @Test
+  public void testHexFlipCell() {
+    hexGame.startGame(3, 2);
+    hexGame.flipCell(new CubicCoordinate(2, -1, -1), 1);
+    Assert.assertEquals(1, hexGame.getBoard().get(new CubicCoordinate(1, 0, -1)).getOwner());
+    Assert.assertEquals(5, hexGame.getScore(1));
+    Assert.assertEquals(2, hexGame.getScore(2));
+  }
+
+  @Test
+  public void testHexMatchesMapModel() {
+    for (int side = 3; side <= 9; side++) {
+      for (long seed = 0; seed < 4; seed++) {
+        assertSameGame(new HexagonReversi(), new BitboardHexagonReversi(), side, seed);
+      }
+    }
+  }
+
+  @Test
+  public void testHexStrategiesRunUnchanged() {
+    HexagonReversi mapGame = new HexagonReversi();
+    mapGame.startGame(4, 2);
+    hexGame.startGame(4, 2);
+    Assert.assertEquals(new MiniMaxStrategy(2).chooseCoord(mapGame, 1),
+            new MiniMaxStrategy(2).chooseCoord(hexGame, 1));
+    Assert.assertEquals(new CaptureMaxCellsThisMove().chooseCoord(mapGame, 1),
+            new CaptureMaxCellsThisMove().chooseCoord(hexGame, 1));
+  }
+}
@@ -0,0 +1,102 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import model.BitboardHexagonReversi;
+import model.BitboardSquareReversi;
+import model.BoardGeometry;
+import model.BoardSymmetry;
+import model.CartesianCoordinate;
+import model.Coordinate;
+import model.ReversiModel;
+import strategy.OpeningBook;
+
+/**
+ * Tests the symmetries of boards, and the canonical keys and moves they give.
+ */
+public class BoardSymmetryTests {
+
+  private ReversiModel newSquare() {
+    ReversiModel game = new BitboardSquareReversi();
+    game.startGame(8, 2);
+    return game;
+  }
+
+  private ReversiModel newHexagon() {
+    ReversiModel game = new BitboardHexagonReversi();
+    game.startGame(5, 2);
+    return game;
+  }
+
+  @Test
+  public void boardsHaveTheirRotationsAndReflections() {
+    Assert.assertEquals(8, BoardGeometry.square(8).getSymmetry().count());
+    Assert.assertEquals(12, BoardGeometry.hexagon(5).getSymmetry().count());
+    //a 3 by 2 board can only be flipped, not turned
+    BoardGeometry rectangle = new BoardGeometry(Arrays.asList(new CartesianCoordinate(0, 0),
+            new CartesianCoordinate(1, 0), new CartesianCoordinate(2, 0),
+            new CartesianCoordinate(0, 1), new CartesianCoordinate(1, 1),
+            new CartesianCoordinate(2, 1)));
+    BoardSymmetry symmetry = rectangle.getSymmetry();
+    Assert.assertEquals(4, symmetry.count());
+    for (int t = 0; t < symmetry.count(); t++) {
+      for (int i = 0; i < rectangle.size(); i++) {
+        Assert.assertEquals(i, symmetry.preimage(t, symmetry.image(t, i)));
+      }
+    }
+  }
+
+  @Test
+  public void symmetricGamesShareKeysAndBookMoves() {
+    assertSymmetricGames(this::newSquare, 1);
+    assertSymmetricGames(this::newHexagon, 2);
+  }
+
+  //plays a random game, and its image under every symmetry the start is unchanged by
+  private void assertSymmetricGames(Supplier<ReversiModel> newGame, long seed) {
+    ReversiModel start = newGame.get();
+    BoardSymmetry symmetry = start.getGeometry().getSymmetry();
+    Assert.assertEquals(start.positionKey(), symmetry.key(start, 0));
+    int mirrored = 0;
+    for (int t = 1; t < symmetry.count(); t++) {
+      if (symmetry.key(start, t) != start.positionKey()) {
+        continue;
+      }
+      mirrored++;
+      Random random = new Random(seed);
+      ReversiModel game = newGame.get();
+      ReversiModel image = newGame.get();
+      while (!game.isGameOver()) {
+        Assert.assertEquals(symmetry.key(game, t), image.positionKey());
+        Assert.assertEquals(OpeningBook.keyOf(game), OpeningBook.keyOf(image));
+        int player = game.getCurrentTurn();
+        List<Coordinate> moves = game.getAvailableMoves(player);
+        int move = game.getGeometry().indexOf(moves.get(random.nextInt(moves.size())));
+        int imageMove = symmetry.image(t, move);
+        //both games file their move the same way, unless a symmetric position lets them
+        // file it as either of two equal moves
+        if (!isSymmetric(game)) {
+          Assert.assertEquals(OpeningBook.moveOf(game, move),
+                  OpeningBook.moveOf(image, imageMove));
+        }
+        game.flipCell(game.getGeometry().coordinateAt(move), player);
+        image.flipCell(image.getGeometry().coordinateAt(imageMove), player);
+      }
+    }
+    Assert.assertTrue(mirrored > 0);
+  }
+
+  private static boolean isSymmetric(ReversiModel game) {
+    BoardSymmetry symmetry = game.getGeometry().getSymmetry();
+    for (int t = 1; t < symmetry.count(); t++) {
+      if (symmetry.key(game, t) == game.positionKey()) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,79 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import model.BitboardHexagonReversi;
+import model.ConcurrentReversiModel;
+import model.Coordinate;
+import model.HexagonReversi;
+import model.ReadonlyReversiModel;
+import model.ReversiModel;
+
+/**
+ * Tests reading a ConcurrentReversiModel while it is played.
+ */
+public class ConcurrentReversiModelTests {
+
+  //counts the discs on a snapshot cell by cell, to check against its scores
+  private static int countDiscs(ReadonlyReversiModel board) {
+    int discs = 0;
+    for (int i = 0; i < board.getGeometry().size(); i++) {
+      if (board.getOwnerAt(i) != 0) {
+        discs++;
+      }
+    }
+    return discs;
+  }
+
+  @Test
+  public void snapshotsKeepTheirPosition() {
+    ReversiModel model = new ConcurrentReversiModel(new HexagonReversi());
+    model.startGame(5, 2);
+    ReadonlyReversiModel before = model.snapshot();
+    long key = before.positionKey();
+    Coordinate move = model.getAvailableMoves(1).get(0);
+
+    model.flipCell(move, 1);
+    Assert.assertEquals(key, before.positionKey());
+    Assert.assertEquals(0, before.getOwnerAt(move));
+    Assert.assertEquals(1, before.getCurrentTurn());
+    Assert.assertEquals(1, model.getOwnerAt(move));
+    Assert.assertEquals(2, model.getCurrentTurn());
+    Assert.assertNotSame(before, model.snapshot());
+    Assert.assertEquals(model.positionKey(), model.clone().positionKey());
+  }
+
+  @Test
+  public void readersSeeWholeMovesWhileTheGameIsPlayed() throws Exception {
+    ReversiModel model = new ConcurrentReversiModel(new BitboardHexagonReversi());
+    model.startGame(8, 2);
+    AtomicBoolean playing = new AtomicBoolean(true);
+    AtomicReference<String> torn = new AtomicReference<>();
+    Thread reader = new Thread(() -> {
+      while (playing.get()) {
+        ReadonlyReversiModel board = model.snapshot();
+        if (countDiscs(board) != board.getScore(1) + board.getScore(2)) {
+          torn.set("a snapshot changed while it was read");
+        }
+      }
+    });
+    reader.start();
+    while (!model.isGameOver()) {
+      int p = model.getCurrentTurn();
+      List<Coordinate> moves = model.getAvailableMoves(p);
+      if (moves.isEmpty()) {
+        model.passMove(p);
+      }
+      else {
+        model.flipCell(moves.get(moves.size() / 2), p);
+      }
+    }
+    playing.set(false);
+    reader.join();
+    Assert.assertNull(torn.get());
+    Assert.assertEquals(countDiscs(model), model.getScore(1) + model.getScore(2));
+  }
+}
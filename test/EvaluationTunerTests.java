@@ -0,0 +1,77 @@
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import model.BoardGeometry;
+import strategy.PatternEvaluator;
+import strategy.PatternWeights;
+import tuning.EvaluationTuner;
+
+/**
+ * Tests tuning pattern weights, and reading and writing weight files.
+ */
+public class EvaluationTunerTests {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void tunerResumesFromItsCheckpoint() throws IOException {
+    Path work = folder.getRoot().toPath();
+    EvaluationTuner tuner = new EvaluationTuner("hexagon", 4, work, 2);
+    int positions = tuner.generatePositions(20, 7);
+    Assert.assertTrue(positions > 0);
+    double first = tuner.train(1, 64, 0.1, 7);
+    Assert.assertFalse(Double.isNaN(first));
+
+    //a new tuner in the same directory carries on after the first epoch
+    EvaluationTuner resumed = new EvaluationTuner("hexagon", 4, work, 2);
+    Assert.assertEquals(positions, resumed.generatePositions(20, 7));
+    resumed.resume();
+    Assert.assertEquals(1, resumed.getEpochsDone());
+    resumed.train(3, 64, 0.1, 7);
+    Assert.assertEquals(3, resumed.getEpochsDone());
+    Assert.assertTrue(Double.isNaN(resumed.train(3, 64, 0.1, 7)));
+
+    Path file = resumed.writeWeights(work);
+    Assert.assertEquals("hexagon-37.weights", file.getFileName().toString());
+    Assert.assertArrayEquals(resumed.getTables(),
+            PatternWeights.read(file, BoardGeometry.hexagon(4)));
+  }
+
+  @Test
+  public void workDirectoriesOnlyFitTheirBoard() throws IOException {
+    Path work = folder.getRoot().toPath();
+    EvaluationTuner tuner = new EvaluationTuner("hexagon", 4, work, 1);
+    tuner.generatePositions(5, 3);
+    tuner.train(1, 64, 0.1, 3);
+
+    EvaluationTuner other = new EvaluationTuner("square", 6, work, 1);
+    Assert.assertThrows(IllegalArgumentException.class, () -> other.generatePositions(5, 3));
+    Assert.assertThrows(IllegalArgumentException.class, other::resume);
+  }
+
+  @Test
+  public void weightFilesOnlyFitTheirBoard() throws IOException {
+    Path directory = folder.getRoot().toPath();
+    BoardGeometry hexagon = BoardGeometry.hexagon(4);
+    short[][] tables = new PatternEvaluator(hexagon).getTables();
+    tables[0][1] = 123;
+    PatternWeights.write(directory.resolve(PatternWeights.fileName(hexagon)), hexagon, tables);
+
+    Assert.assertEquals(123,
+            PatternWeights.evaluators(directory).apply(hexagon).getTables()[0][1]);
+    //a board without a file gets the default tables
+    BoardGeometry square = BoardGeometry.square(6);
+    Assert.assertArrayEquals(new PatternEvaluator(square).getTables(),
+            PatternWeights.evaluators(directory).apply(square).getTables());
+    Assert.assertThrows(IllegalArgumentException.class, () -> PatternWeights.read(
+            directory.resolve(PatternWeights.fileName(hexagon)), BoardGeometry.hexagon(5)));
+    Assert.assertFalse(Files.exists(directory.resolve(PatternWeights.fileName(square))));
+  }
+}
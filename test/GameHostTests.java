@@ -0,0 +1,60 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import host.GameHost;
+import host.GameSession;
+import model.BitboardHexagonReversi;
+import model.BitboardSquareReversi;
+import model.PlayerImpl;
+import strategy.CaptureMaxCellsThisMove;
+import strategy.GoForCornersStrategy;
+
+/**
+ * Tests playing many headless games at once with a GameHost.
+ */
+public class GameHostTests {
+
+  @Test
+  public void hostPlaysEveryGameToTheEnd() {
+    GameHost host = new GameHost(8, true);
+    List<CompletableFuture<GameSession>> sessions = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      sessions.add(host.play(i % 2 == 0 ? BitboardHexagonReversi::new
+                      : BitboardSquareReversi::new, i % 2 == 0 ? 4 : 6,
+              new PlayerImpl(new CaptureMaxCellsThisMove(), 1),
+              new PlayerImpl(new GoForCornersStrategy(), 2)));
+    }
+    if (!host.usesVirtualThreads()) {
+      //games waiting for a slot wait in a queue, not on threads of their own
+      Assert.assertTrue(Thread.getAllStackTraces().keySet().stream()
+              .filter(thread -> thread.getName().equals("reversi-game")).count() <= 8);
+    }
+    long moves = 0;
+    for (CompletableFuture<GameSession> session : sessions) {
+      GameSession game = session.join();
+      Assert.assertTrue(game.getModel().isGameOver());
+      Assert.assertTrue(game.getMoves() > 0);
+      //one message says who won
+      Assert.assertEquals(1, game.getMessages().stream()
+              .filter(message -> message.endsWith("wins!") || message.equals("Tie!")).count());
+      moves += game.getMoves();
+    }
+    Assert.assertEquals(50, host.getGamesPlayed());
+    Assert.assertEquals(moves, host.getMovesPlayed());
+    Assert.assertTrue(host.getGamesPerSecond() > 0);
+    Assert.assertTrue(host.getMovesPerSecond() > host.getGamesPerSecond());
+  }
+
+  @Test
+  public void hostOnlyTakesComputerPlayers() {
+    GameHost host = new GameHost(1, false);
+    Assert.assertThrows(IllegalArgumentException.class, () -> host.play(
+        BitboardHexagonReversi::new, 4, new PlayerImpl(null, 1),
+        new PlayerImpl(new GoForCornersStrategy(), 2)));
+    Assert.assertThrows(IllegalArgumentException.class, () -> new GameHost(0, false));
+  }
+}
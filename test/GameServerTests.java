@@ -0,0 +1,199 @@
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import host.GameServer;
+import host.Protocol;
+import model.BoardGeometry;
+
+/**
+ * Tests playing games on a GameServer through clients on 127.0.0.1.
+ */
+public class GameServerTests {
+  private GameServer server;
+
+  //a blocking client that speaks the protocol, and plays the first move it finds
+  private static class Client implements AutoCloseable {
+    private final SocketChannel channel;
+    private final BoardGeometry geometry = BoardGeometry.hexagon(4);
+    private int player;
+
+    Client(int port) throws IOException {
+      this.channel = SocketChannel.open(new InetSocketAddress("127.0.0.1", port));
+    }
+
+    void send(byte type, int... values) throws IOException {
+      ByteBuffer frame = ByteBuffer.allocate(5 + 4 * values.length);
+      frame.putInt(1 + 4 * values.length).put(type);
+      for (int value : values) {
+        frame.putInt(value);
+      }
+      frame.flip();
+      while (frame.hasRemaining()) {
+        channel.write(frame);
+      }
+    }
+
+    //joins a game, and waits to hear which player this is
+    void join(int id) throws IOException {
+      ByteBuffer frame = ByteBuffer.allocate(11);
+      frame.putInt(7).put(Protocol.JOIN).put(Protocol.HEXAGON).put((byte) 4).putInt(id);
+      frame.flip();
+      while (frame.hasRemaining()) {
+        channel.write(frame);
+      }
+      ByteBuffer joined = this.receive();
+      Assert.assertEquals(Protocol.JOINED, joined.get());
+      player = joined.get();
+    }
+
+    ByteBuffer receive() throws IOException {
+      ByteBuffer length = this.fill(ByteBuffer.allocate(4));
+      return this.fill(ByteBuffer.allocate(length.getInt()));
+    }
+
+    String receiveMessage() throws IOException {
+      ByteBuffer frame = this.receive();
+      Assert.assertEquals(Protocol.MESSAGE, frame.get());
+      return StandardCharsets.UTF_8.decode(frame).toString();
+    }
+
+    //plays until the game is over, and returns the scores
+    int[] play() throws IOException {
+      while (true) {
+        ByteBuffer frame = this.receive();
+        byte type = frame.get();
+        if (type == Protocol.TURN) {
+          Assert.assertEquals(player, frame.get());
+          int cell = this.firstMove(frame);
+          if (cell < 0) {
+            this.send(Protocol.PASS);
+          }
+          else {
+            this.send(Protocol.MOVE, cell);
+          }
+        }
+        else if (type == Protocol.GAME_OVER) {
+          return new int[] {frame.getInt(), frame.getInt()};
+        }
+        else {
+          //the controller of the last mover says who won before the scores are sent
+          Assert.assertEquals(Protocol.MESSAGE, type);
+        }
+      }
+    }
+
+    //the first empty cell that flips a line of the other player's discs, or -1
+    private int firstMove(ByteBuffer owners) {
+      int start = owners.position();
+      for (int cell = 0; cell < geometry.size(); cell++) {
+        if (owners.get(start + cell) != 0) {
+          continue;
+        }
+        for (int dir = 0; dir < geometry.directionCount(); dir++) {
+          int next = geometry.neighbor(cell, dir);
+          int passed = 0;
+          while (next >= 0 && owners.get(start + next) == 3 - player) {
+            next = geometry.neighbor(next, dir);
+            passed++;
+          }
+          if (passed > 0 && next >= 0 && owners.get(start + next) == player) {
+            return cell;
+          }
+        }
+      }
+      return -1;
+    }
+
+    private ByteBuffer fill(ByteBuffer buffer) throws IOException {
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer) < 0) {
+          throw new IOException("closed");
+        }
+      }
+      return buffer.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+
+  @Before
+  public void startServer() throws IOException {
+    server = new GameServer(new InetSocketAddress("127.0.0.1", 0), 2);
+  }
+
+  @After
+  public void stopServer() throws IOException {
+    server.close();
+  }
+
+  @Test
+  public void remotePlayersFinishAGame() throws Exception {
+    ExecutorService clients = Executors.newFixedThreadPool(2);
+    try (Client first = new Client(server.getPort());
+         Client second = new Client(server.getPort())) {
+      first.join(7);
+      Future<int[]> firstScores = clients.submit(first::play);
+      second.join(7);
+      Future<int[]> secondScores = clients.submit(second::play);
+
+      int[] scores = firstScores.get(30, TimeUnit.SECONDS);
+      Assert.assertArrayEquals(scores, secondScores.get(30, TimeUnit.SECONDS));
+      Assert.assertEquals(1, first.player);
+      Assert.assertEquals(2, second.player);
+      Assert.assertTrue(scores[0] + scores[1] > 6);
+      Assert.assertEquals(0, server.getOpenGames());
+    }
+    finally {
+      clients.shutdownNow();
+    }
+  }
+
+  @Test
+  public void mistakesAndLeavingAreReported() throws Exception {
+    //the first player leaves partway through, so it is closed by hand
+    Client first = new Client(server.getPort());
+    try (Client second = new Client(server.getPort())) {
+      first.send(Protocol.PASS);
+      Assert.assertEquals("Join a game first", first.receiveMessage());
+      //a MOVE too short to hold a cell, sent together with the next request
+      ByteBuffer frames = ByteBuffer.allocate(10);
+      frames.putInt(1).put(Protocol.MOVE).putInt(1).put(Protocol.PASS).flip();
+      first.channel.write(frames);
+      Assert.assertEquals("Unknown request", first.receiveMessage());
+      Assert.assertEquals("Join a game first", first.receiveMessage());
+      first.join(8);
+      second.join(8);
+      Assert.assertEquals(2, second.player);
+      Assert.assertEquals(Protocol.TURN, first.receive().get());
+
+      second.send(Protocol.PASS);
+      Assert.assertTrue(second.receiveMessage().startsWith("Not your turn"));
+      first.send(Protocol.MOVE, 1000);
+      Assert.assertEquals("Not a cell of the board", first.receiveMessage());
+      first.send(Protocol.MOVE, 0);
+      Assert.assertFalse(first.receiveMessage().isEmpty());
+
+      first.close();
+      Assert.assertEquals("Your opponent left", second.receiveMessage());
+      Assert.assertEquals(0, server.getOpenGames());
+    }
+    finally {
+      first.close();
+    }
+  }
+}
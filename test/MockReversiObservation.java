@@ -1,10 +1,8 @@
-import java.util.LinkedHashMap;
-
 import model.AbstractReversi;
-import model.Cell;
-import model.Coordinate;
+import model.BoardGeometry;
 import controller.ObserverInterface;
 import model.ReversiModel;
+import model.SharedCells;
 
 /**
  * Mock of the model to determine of observation pattern behaves as expected.
@@ -26,7 +24,7 @@ public class MockReversiObservation extends AbstractReversi {
   }
 
   @Override
-  protected ReversiModel cloneChild(LinkedHashMap<Coordinate, Cell> board,
+  protected ReversiModel cloneChild(BoardGeometry geometry, SharedCells cells,
                                     int sideLength, int currentPlayerTurn, boolean gameStarted,
                                     int numPasses, int numPlayers) {
     return null;
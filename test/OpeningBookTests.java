@@ -0,0 +1,90 @@
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import model.BitboardHexagonReversi;
+import model.Coordinate;
+import model.ReversiModel;
+import strategy.BookStrategy;
+import strategy.CaptureMaxCellsThisMove;
+import strategy.GoForCornersStrategy;
+import strategy.OpeningBook;
+import strategy.ReversiStrategy;
+import tuning.OpeningBookBuilder;
+
+/**
+ * Tests building opening books, and playing from them.
+ */
+public class OpeningBookTests {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private ReversiModel newGame() {
+    ReversiModel game = new BitboardHexagonReversi();
+    game.startGame(5, 2);
+    return game;
+  }
+
+  @Test
+  public void bookPlaysItsMovesAndFallsBackOutsideIt() throws IOException {
+    ReversiStrategy searcher = new GoForCornersStrategy();
+    OpeningBookBuilder builder = new OpeningBookBuilder();
+    int added = builder.addSelfPlay(this::newGame, searcher, 10, 6, 3);
+    Assert.assertEquals(added, builder.size());
+    Path file = folder.getRoot().toPath().resolve("book");
+    builder.write(file, newGame().getGeometry());
+
+    OpeningBook book = OpeningBook.open(file);
+    Assert.assertEquals(added, book.size());
+    Assert.assertTrue(book.fits(newGame().getGeometry()));
+    for (int i = 1; i < book.size(); i++) {
+      Assert.assertTrue(book.keyAt(i - 1) < book.keyAt(i));
+    }
+
+    //the fallback is never asked while the game is in the book
+    ReversiStrategy fallback = (model, player) -> {
+      throw new AssertionError("Book position was searched");
+    };
+    ReversiModel game = newGame();
+    Coordinate first = new BookStrategy(book, fallback).chooseCoord(game, 1);
+    Assert.assertEquals(searcher.chooseCoord(game, 1), first);
+
+    //a position no game reached is left to the fallback
+    game.flipCell(new CaptureMaxCellsThisMove().chooseCoord(game, 1), 1);
+    while (book.lookup(OpeningBook.keyOf(game)) != OpeningBook.NO_MOVE) {
+      int p = game.getCurrentTurn();
+      game.flipCell(game.getAvailableMoves(p).get(game.getAvailableMoves(p).size() - 1), p);
+    }
+    Assert.assertEquals(searcher.chooseCoord(game, game.getCurrentTurn()),
+            new BookStrategy(book, searcher).chooseCoord(game, game.getCurrentTurn()));
+  }
+
+  @Test
+  public void growingBookKeepsOldEntries() throws IOException {
+    Path file = folder.getRoot().toPath().resolve("book");
+    OpeningBookBuilder builder = new OpeningBookBuilder();
+    builder.addSelfPlay(this::newGame, new GoForCornersStrategy(), 5, 4, 1);
+    builder.write(file, newGame().getGeometry());
+    int before = builder.size();
+
+    OpeningBookBuilder grown = new OpeningBookBuilder();
+    grown.addAll(OpeningBook.open(file));
+    Assert.assertEquals(0, grown.addSelfPlay(this::newGame, new GoForCornersStrategy(), 5, 4, 1));
+    ReversiModel game = newGame();
+    grown.add(game, game.getAvailableMoves(1).get(0), 7);
+    grown.write(file, game.getGeometry());
+
+    OpeningBook book = OpeningBook.open(file);
+    Assert.assertEquals(before, book.size());
+    Assert.assertEquals(game.getGeometry().indexOf(game.getAvailableMoves(1).get(0)),
+            book.lookup(game));
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> OpeningBook.write(file, game.getGeometry(), new long[] {2, 1}, new int[2],
+                new int[2]));
+  }
+}
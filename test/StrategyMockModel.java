@@ -1,10 +1,14 @@
 import java.util.LinkedHashMap;
 import java.util.Objects;
 
+import model.BoardGeometry;
 import model.Cell;
 import model.Coordinate;
 import model.HexagonReversi;
+import model.MoveList;
+import model.MoveRecord;
 import model.ReversiModel;
+import model.SharedCells;
 
 /**
  * This mock model of Reversi prints out the coord that is trying to be flipped.
@@ -34,7 +38,7 @@ public class StrategyMockModel extends HexagonReversi {
   public StrategyMockModel(StringBuilder log, LinkedHashMap<Coordinate, Cell> board) {
     super();
     this.log = Objects.requireNonNull(log);
-    this.board = board;
+    this.loadBoard(board);
 
   }
 
@@ -51,7 +55,30 @@ public class StrategyMockModel extends HexagonReversi {
   public StrategyMockModel(LinkedHashMap<Coordinate, Cell> board,
                            int sideLength, int currentPlayerTurn,
                            boolean gameStarted, int numPasses, int numPlayers, StringBuilder log) {
-    this.board = board;
+    this.loadBoard(board);
+    this.sideLength = sideLength;
+    this.currentPlayerTurn = currentPlayerTurn;
+    this.gameStarted = gameStarted;
+    this.numPasses = numPasses;
+    this.numPlayers = numPlayers;
+    this.log = log;
+  }
+
+  /**
+   * Takes in a state of the game, used when cloning the mock.
+   * @param geometry          the geometry of the game board.
+   * @param cells             the owner of every cell of the board.
+   * @param sideLength        the length of one edge of the board.
+   * @param currentPlayerTurn the current players turn.
+   * @param gameStarted       if the game has started.
+   * @param numPasses         number of passes in a row so far.
+   * @param numPlayers        number of players in the game.
+   * @param log               the log of the game.
+   */
+  public StrategyMockModel(BoardGeometry geometry, SharedCells cells,
+                           int sideLength, int currentPlayerTurn,
+                           boolean gameStarted, int numPasses, int numPlayers, StringBuilder log) {
+    this.loadBoard(geometry, cells);
     this.sideLength = sideLength;
     this.currentPlayerTurn = currentPlayerTurn;
     this.gameStarted = gameStarted;
@@ -66,10 +93,33 @@ public class StrategyMockModel extends HexagonReversi {
     log.append("FLIPCELL: (" + c.getX() + " " + c.getY() + " " + c.getZ() + ") \n");
   }
 
-  protected ReversiModel cloneChild(LinkedHashMap<Coordinate, Cell> board,
+  // logs the coord like flipCell, without playing it
+  @Override
+  public MoveRecord makeMove(Coordinate c, int p) {
+    this.flipCell(c, p);
+    return null;
+  }
+
+  // logs every legal move like flipCell, since strategies read what each move does from
+  // here instead of trying it
+  @Override
+  public void generateMoves(int p, MoveList moves) {
+    super.generateMoves(p, moves);
+    for (int move = 0; move < moves.size(); move++) {
+      this.flipCell(getGeometry().coordinateAt(moves.cellAt(move)), p);
+    }
+  }
+
+  // no move was played, so there is nothing to take back
+  @Override
+  public void unmakeMove(MoveRecord move) {
+    log.append("");
+  }
+
+  protected ReversiModel cloneChild(BoardGeometry geometry, SharedCells cells,
                                     int sideLength, int currentPlayerTurn,
                                     boolean gameStarted, int numPasses, int numPlayers) {
-    return new StrategyMockModel(board, sideLength, currentPlayerTurn,
+    return new StrategyMockModel(geometry, cells, sideLength, currentPlayerTurn,
             gameStarted, numPasses, numPlayers, this.log);
   }
 }
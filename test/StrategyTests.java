@@ -3,17 +3,39 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import model.Coordinate;
 import model.CubicCoordinate;
+import model.MoveRecord;
+import model.Pair;
 import model.Player;
 import model.PlayerImpl;
+import model.ReversiModel;
+import model.SquareReversi;
+import strategy.AlphaBetaStrategy;
 import strategy.CaptureMaxCellsThisMove;
 import strategy.CheckCornersFirstStrategy;
+import strategy.CornersFirstOrdering;
+import strategy.EndgameSolver;
+import strategy.EndgameStrategy;
+import strategy.FewestRepliesOrdering;
 import strategy.MiniMaxStrategy;
+import strategy.MoveOrdering;
+import strategy.PatternEvaluator;
+import strategy.PatternSearchStrategy;
+import strategy.ParallelAlphaBetaStrategy;
+import strategy.PreviousBestOrdering;
 import strategy.RandomValidMoveStrategy;
+import strategy.ReversiStrategy;
+import strategy.TranspositionTable;
 import strategy.GoForCornersStrategy;
+import strategy.IterativeDeepeningStrategy;
+import strategy.LazySmpStrategy;
+import strategy.MonteCarloTreeSearchStrategy;
 import strategy.AvoidCornerNeighborStrategy;
 
 import view.TextualView;
@@ -400,6 +422,390 @@ public class StrategyTests {
   }
 
 
+  //alpha-beta tests
+
+  //plays a game where player 2 uses minimax, checking alpha-beta agrees on every move
+  private void assertAlphaBetaMatchesMiniMax(int depth, MoveOrdering ordering) {
+    game.startGame(4, 2);
+    MiniMaxStrategy miniMax = new MiniMaxStrategy(depth, captureMaxCellsThisMoveStrategy);
+    AlphaBetaStrategy alphaBeta =
+            new AlphaBetaStrategy(depth, captureMaxCellsThisMoveStrategy, ordering);
+    long miniMaxNodes = 0;
+    long alphaBetaNodes = 0;
+    while (!game.isGameOver()) {
+      int p = game.getCurrentTurn();
+      Coordinate move;
+      if (p == 1) {
+        move = goForCornersStrategy.chooseCoord(game, 1);
+      }
+      else {
+        move = miniMax.chooseCoord(game, 2);
+        Assert.assertEquals(move, alphaBeta.chooseCoord(game, 2));
+        miniMaxNodes += miniMax.getNodeCount();
+        alphaBetaNodes += alphaBeta.getNodeCount();
+      }
+      game.flipCell(move, p);
+    }
+    Assert.assertTrue(alphaBetaNodes < miniMaxNodes);
+  }
+
+  @Test
+  public void alphaBetaMatchesMiniMaxCornersFirst() {
+    assertAlphaBetaMatchesMiniMax(3, new CornersFirstOrdering());
+  }
+
+  @Test
+  public void alphaBetaMatchesMiniMaxFewestReplies() {
+    assertAlphaBetaMatchesMiniMax(3, new FewestRepliesOrdering());
+  }
+
+  @Test
+  public void alphaBetaMatchesMiniMaxPreviousBest() {
+    assertAlphaBetaMatchesMiniMax(3, new PreviousBestOrdering());
+  }
+
+  @Test
+  public void alphaBetaUsesAnotherStrategyWhenMaxDepthReached() {
+    AlphaBetaStrategy alphaBeta = new AlphaBetaStrategy(0);
+    game.startGame(4, 2);
+    game.flipCell(captureMaxCellsThisMoveStrategy.chooseCoord(game, 1), 1);
+    Assert.assertEquals(avoidCornerNeighborStrategy.chooseCoord(game, 2),
+            alphaBeta.chooseCoord(game, 2));
+    Assert.assertEquals(1, alphaBeta.getNodeCount());
+  }
+
+  @Test
+  public void cornersFirstOrderingPutsCornersFirst() {
+    game.startGame(4, 2);
+    List<Coordinate> moves = Arrays.asList(new CubicCoordinate(1,1,-2),
+            new CubicCoordinate(3,0,-3), new CubicCoordinate(2,-1,-1),
+            new CubicCoordinate(0,-3,3));
+    Assert.assertEquals(Arrays.asList(new CubicCoordinate(3,0,-3),
+            new CubicCoordinate(0,-3,3), new CubicCoordinate(1,1,-2),
+            new CubicCoordinate(2,-1,-1)), new CornersFirstOrdering().order(game, moves, 1));
+  }
+
+  @Test
+  public void iterativeDeepeningMatchesMiniMaxWhenItFinishes() {
+    game.startGame(4, 2);
+    game.flipCell(captureMaxCellsThisMoveStrategy.chooseCoord(game, 1), 1);
+    IterativeDeepeningStrategy iterative =
+            new IterativeDeepeningStrategy(60_000, 3, captureMaxCellsThisMoveStrategy);
+    Assert.assertEquals(new MiniMaxStrategy(3, captureMaxCellsThisMoveStrategy)
+            .chooseCoord(game, 2), iterative.chooseCoord(game, 2));
+    Assert.assertEquals(3, iterative.getLastDepth());
+  }
+
+  @Test
+  public void iterativeDeepeningStopsWhenTimeRunsOut() {
+    game.startGame(8, 2);
+    IterativeDeepeningStrategy iterative = new IterativeDeepeningStrategy(50);
+    long start = System.currentTimeMillis();
+    Coordinate move = iterative.chooseCoord(game, 1);
+    Assert.assertTrue(System.currentTimeMillis() - start < 1000);
+    Assert.assertTrue(game.isMoveValid(move, 1));
+    Assert.assertTrue(iterative.getLastDepth() < 169);
+    Assert.assertThrows(IllegalArgumentException.class, () -> new IterativeDeepeningStrategy(0));
+  }
+
+  //parallel alpha-beta tests
+
+  @Test
+  public void parallelAlphaBetaMatchesSerialSearch() {
+    game.startGame(4, 2);
+    AlphaBetaStrategy serial = new AlphaBetaStrategy(3, captureMaxCellsThisMoveStrategy,
+            new CornersFirstOrdering());
+    List<ParallelAlphaBetaStrategy> parallel = Arrays.asList(
+            new ParallelAlphaBetaStrategy(3, captureMaxCellsThisMoveStrategy,
+                    CornersFirstOrdering::new, 1),
+            new ParallelAlphaBetaStrategy(3, captureMaxCellsThisMoveStrategy,
+                    CornersFirstOrdering::new, 2),
+            new ParallelAlphaBetaStrategy(3, captureMaxCellsThisMoveStrategy,
+                    CornersFirstOrdering::new, 4));
+    while (!game.isGameOver()) {
+      int p = game.getCurrentTurn();
+      Coordinate move = serial.chooseCoord(game, p);
+      for (ParallelAlphaBetaStrategy strategy : parallel) {
+        Assert.assertEquals(move, strategy.chooseCoord(game, p));
+      }
+      game.flipCell(move, p);
+    }
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> new ParallelAlphaBetaStrategy(3, 0));
+  }
+
+  //lazy smp tests
+
+  @Test
+  public void lazySmpMatchesSerialSearch() {
+    game.startGame(4, 2);
+    AlphaBetaStrategy serial = new AlphaBetaStrategy(3, captureMaxCellsThisMoveStrategy,
+            new CornersFirstOrdering());
+    LazySmpStrategy lazySmp = new LazySmpStrategy(3, captureMaxCellsThisMoveStrategy, 4);
+    while (!game.isGameOver()) {
+      int p = game.getCurrentTurn();
+      Coordinate move = serial.chooseCoord(game, p);
+      Assert.assertEquals(move, lazySmp.chooseCoord(game, p));
+      game.flipCell(move, p);
+    }
+    Assert.assertTrue(lazySmp.getTable().getHits() > 0);
+    Assert.assertThrows(IllegalArgumentException.class, () -> new LazySmpStrategy(3, 0));
+  }
+
+  //monte carlo tree search tests
+
+  @Test
+  public void monteCarloPlaysValidMovesForWholeGame() {
+    game.startGame(5, 2);
+    MonteCarloTreeSearchStrategy mcts = new MonteCarloTreeSearchStrategy(500, 60_000, 1, 7);
+    while (!game.isGameOver()) {
+      int p = game.getCurrentTurn();
+      Coordinate move = mcts.chooseCoord(game, p);
+      Assert.assertTrue(game.isMoveValid(move, p));
+      Assert.assertTrue(mcts.getLastPlayouts() == 500 || game.getAvailableMoves(p).size() == 1);
+      game.flipCell(move, p);
+    }
+  }
+
+  @Test
+  public void monteCarloStopsAtPlayoutsOrTime() {
+    game.startGame(8, 2);
+    MonteCarloTreeSearchStrategy threaded =
+            new MonteCarloTreeSearchStrategy(2000, 60_000, 4, 7);
+    Assert.assertTrue(game.isMoveValid(threaded.chooseCoord(game, 1), 1));
+    Assert.assertEquals(2000, threaded.getLastPlayouts());
+
+    MonteCarloTreeSearchStrategy timed = new MonteCarloTreeSearchStrategy(50);
+    long start = System.currentTimeMillis();
+    Assert.assertTrue(game.isMoveValid(timed.chooseCoord(game, 1), 1));
+    Assert.assertTrue(System.currentTimeMillis() - start < 1000);
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> new MonteCarloTreeSearchStrategy(0, 50, 1, 7));
+  }
+
+  //endgame solver tests
+
+  //the final disc difference for p by trying every line, without any pruning
+  private int perfectPlay(ReversiModel model, int p) {
+    List<Coordinate> moves = model.getAvailableMoves(p);
+    if (moves.isEmpty()) {
+      if (model.getAvailableMoves(3 - p).isEmpty()) {
+        return model.getScore(p) - model.getScore(3 - p);
+      }
+      return -perfectPlay(model, 3 - p);
+    }
+    int best = Integer.MIN_VALUE;
+    for (Coordinate coord : moves) {
+      MoveRecord move = model.makeMove(coord, p);
+      best = Math.max(best, -perfectPlay(model, 3 - p));
+      model.unmakeMove(move);
+    }
+    return best;
+  }
+
+  @Test
+  public void endgameSolverFindsPerfectPlay() {
+    EndgameSolver solver = new EndgameSolver();
+    Set<Integer> emptiesSolved = new HashSet<>();
+    game.startGame(4, 2);
+    this.solveToTheEnd(game, goForCornersStrategy, solver, emptiesSolved);
+    //games on a square board last until nearly every cell is full, and different openings
+    // reach different endings, so every solver of the last few empty cells is checked
+    for (ReversiStrategy opening : new ReversiStrategy[] {goForCornersStrategy,
+        captureMaxCellsThisMoveStrategy, avoidCornerNeighborStrategy, corners}) {
+      for (int side = 6; side <= 8; side += 2) {
+        ReversiModel square = new SquareReversi();
+        square.startGame(side, 2);
+        this.solveToTheEnd(square, opening, solver, emptiesSolved);
+      }
+    }
+    Assert.assertTrue(emptiesSolved.containsAll(Arrays.asList(2, 3, 4, 5)));
+  }
+
+  //helper: plays the opening until 9 cells are empty, then checks the solver against
+  // perfectPlay on every position until the game is over, noting how many cells were empty
+  private void solveToTheEnd(ReversiModel model, ReversiStrategy opening,
+                             EndgameSolver solver, Set<Integer> emptiesSolved) {
+    while (!model.isGameOver() && emptyCells(model) > 9) {
+      int p = model.getCurrentTurn();
+      if (model.getAvailableMoves(p).isEmpty()) {
+        model.passMove(p);
+      }
+      else {
+        model.flipCell(opening.chooseCoord(model, p), p);
+      }
+    }
+    while (!model.isGameOver()) {
+      int p = model.getCurrentTurn();
+      Pair<Coordinate, Integer> solved = solver.solve(model, p);
+      Assert.assertEquals(perfectPlay(model, p), (int) solved.second());
+      emptiesSolved.add(emptyCells(model));
+      if (solved.first() == null) {
+        model.passMove(p);
+        continue;
+      }
+      model.flipCell(solved.first(), p);
+      //perfect play keeps the outcome the same from one move to the next
+      if (!model.isGameOver()) {
+        int sign = model.getCurrentTurn() == p ? 1 : -1;
+        Assert.assertEquals(solved.second(), (Integer) (sign * perfectPlay(model,
+                model.getCurrentTurn())));
+      }
+    }
+  }
+
+  //helper: the number of empty cells of a game
+  private static int emptyCells(ReversiModel model) {
+    return model.getGeometry().size() - model.getScore(1) - model.getScore(2);
+  }
+
+  @Test
+  public void endgameStrategyOnlySolvesNearTheEnd() {
+    game.startGame(4, 2);
+    EndgameStrategy endgame = new EndgameStrategy(goForCornersStrategy, 11);
+    Assert.assertEquals(goForCornersStrategy.chooseCoord(game, 1), endgame.chooseCoord(game, 1));
+    Assert.assertNull(endgame.getLastDifference());
+    while (game.getGeometry().size() - game.getScore(1) - game.getScore(2) > 11) {
+      int p = game.getCurrentTurn();
+      game.flipCell(goForCornersStrategy.chooseCoord(game, p), p);
+    }
+    int p = game.getCurrentTurn();
+    Assert.assertTrue(game.isMoveValid(endgame.chooseCoord(game, p), p));
+    Assert.assertEquals(perfectPlay(game, p), (int) endgame.getLastDifference());
+  }
+
+  //pattern evaluation tests
+
+  @Test
+  public void patternEvaluatorFollowsMovesAndTakeBacks() {
+    game.startGame(5, 2);
+    PatternEvaluator incremental = new PatternEvaluator(game.getGeometry());
+    PatternEvaluator fresh = new PatternEvaluator(game.getGeometry());
+    incremental.load(game);
+    int start = incremental.evaluate(1);
+    List<MoveRecord> moves = new ArrayList<>();
+    while (!game.isGameOver()) {
+      int p = game.getCurrentTurn();
+      MoveRecord move = game.makeMove(goForCornersStrategy.chooseCoord(game, p), p);
+      incremental.apply(move);
+      moves.add(move);
+      fresh.load(game);
+      Assert.assertEquals(fresh.evaluate(1), incremental.evaluate(1));
+      Assert.assertEquals(-incremental.evaluate(1), incremental.evaluate(2));
+    }
+    for (int i = moves.size() - 1; i >= 0; i--) {
+      game.unmakeMove(moves.get(i));
+      incremental.undo(moves.get(i));
+    }
+    Assert.assertEquals(start, incremental.evaluate(1));
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> new PatternEvaluator(game.getGeometry(), new short[1][1]));
+  }
+
+  @Test
+  public void patternSearchBeatsCaptureMaxWithValidMoves() {
+    game.startGame(4, 2);
+    PatternSearchStrategy pattern = new PatternSearchStrategy(3);
+    while (!game.isGameOver()) {
+      int p = game.getCurrentTurn();
+      Coordinate move = p == 1 ? pattern.chooseCoord(game, p)
+              : captureMaxCellsThisMoveStrategy.chooseCoord(game, p);
+      Assert.assertTrue(game.isMoveValid(move, p));
+      game.flipCell(move, p);
+    }
+    Assert.assertTrue(game.getScore(1) > game.getScore(2));
+  }
+
+  //transposition table tests
+
+  @Test
+  public void transpositionTableStoresAndFindsEntries() {
+    TranspositionTable table = new TranspositionTable(1);
+    Assert.assertEquals(65536, table.capacity());
+    Assert.assertEquals(TranspositionTable.NO_ENTRY, table.probe(42L));
+    table.store(42L, 3, TranspositionTable.LOWER_BOUND, -17, 5);
+    long entry = table.probe(42L);
+    Assert.assertEquals(3, TranspositionTable.depthOf(entry));
+    Assert.assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.boundOf(entry));
+    Assert.assertEquals(-17, TranspositionTable.scoreOf(entry));
+    Assert.assertEquals(5, TranspositionTable.moveOf(entry));
+    Assert.assertEquals(1, table.getHits());
+    Assert.assertEquals(1, table.getMisses());
+    Assert.assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+  }
+
+  @Test
+  public void transpositionTableSharedBetweenThreadsNeverMixesEntries() throws Exception {
+    TranspositionTable table = new TranspositionTable(1);
+    //every thread stores scores derived from the key, into a few contended buckets
+    AtomicInteger mixed = new AtomicInteger();
+    Thread[] writers = new Thread[4];
+    for (int t = 0; t < writers.length; t++) {
+      int seed = t;
+      writers[t] = new Thread(() -> {
+        for (int i = 0; i < 100_000; i++) {
+          long key = (i * 31L + seed) & 0xFFFF;
+          table.store(key, i & 7, TranspositionTable.EXACT, (int) key * 3, -1);
+          long entry = table.probe(key ^ 1);
+          if (entry != TranspositionTable.NO_ENTRY
+                  && TranspositionTable.scoreOf(entry) != (int) (key ^ 1) * 3) {
+            mixed.incrementAndGet();
+          }
+        }
+      });
+      writers[t].start();
+    }
+    for (Thread writer : writers) {
+      writer.join();
+    }
+    Assert.assertEquals(0, mixed.get());
+    for (long key = 0; key <= 0xFFFF; key++) {
+      long entry = table.probe(key);
+      if (entry != TranspositionTable.NO_ENTRY) {
+        Assert.assertEquals((int) key * 3, TranspositionTable.scoreOf(entry));
+      }
+    }
+  }
+
+  @Test
+  public void transpositionTableKeepsDeepEntries() {
+    TranspositionTable table = new TranspositionTable(1);
+    //keys one table length apart land in the same bucket
+    long deep = 7L;
+    long shallow = 7L + (1L << 15);
+    long newest = 7L + (2L << 15);
+    table.store(deep, 6, TranspositionTable.EXACT, 1, -1);
+    table.store(shallow, 2, TranspositionTable.EXACT, 2, -1);
+    Assert.assertEquals(6, TranspositionTable.depthOf(table.probe(deep)));
+    Assert.assertEquals(2, TranspositionTable.depthOf(table.probe(shallow)));
+
+    //the always-replace entry gives way, the deep one stays
+    table.store(newest, 1, TranspositionTable.EXACT, 3, -1);
+    Assert.assertEquals(TranspositionTable.NO_ENTRY, table.probe(shallow));
+    Assert.assertEquals(1, table.getCollisions());
+    Assert.assertEquals(6, TranspositionTable.depthOf(table.probe(deep)));
+    Assert.assertEquals(3, TranspositionTable.scoreOf(table.probe(newest)));
+
+    table.clear();
+    Assert.assertEquals(TranspositionTable.NO_ENTRY, table.probe(deep));
+  }
+
+  @Test
+  public void alphaBetaWithTableMatchesMiniMaxAcrossMoves() {
+    game.startGame(4, 2);
+    TranspositionTable table = new TranspositionTable(1);
+    AlphaBetaStrategy alphaBeta = new AlphaBetaStrategy(3, captureMaxCellsThisMoveStrategy,
+            new CornersFirstOrdering(), table);
+    MiniMaxStrategy miniMax = new MiniMaxStrategy(3, captureMaxCellsThisMoveStrategy);
+    while (!game.isGameOver()) {
+      int p = game.getCurrentTurn();
+      Coordinate move = miniMax.chooseCoord(game, p);
+      Assert.assertEquals(move, alphaBeta.chooseCoord(game, p));
+      game.flipCell(move, p);
+    }
+    Assert.assertTrue(table.getHits() > 0);
+  }
+
   //mock tests
 
   @Test
@@ -0,0 +1,194 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import controller.ControllerFeatures;
+import controller.ReversiController;
+import controller.TurnScheduler;
+import model.BitboardHexagonReversi;
+import model.Coordinate;
+import model.PlayerImpl;
+import model.ReadonlyReversiModel;
+import model.ReversiModel;
+import strategy.CaptureMaxCellsThisMove;
+import strategy.ReversiStrategy;
+import view.ViewInterface;
+
+/**
+ * Tests running the turns of games between computer players with a TurnScheduler.
+ */
+public class TurnSchedulerTests {
+
+  //a view that shows nothing, keeps its messages, and counts down once the game is over
+  private static class QuietView implements ViewInterface {
+    private final ReversiModel model;
+    private final CountDownLatch gameOver;
+    private final List<String> messages = new CopyOnWriteArrayList<>();
+
+    QuietView(ReversiModel model, CountDownLatch gameOver) {
+      this.model = model;
+      this.gameOver = gameOver;
+    }
+
+    @Override
+    public Coordinate findCoordClicked(int mouseX, int mouseY) {
+      return null;
+    }
+
+    @Override
+    public void addFeatures(ControllerFeatures features) {
+      //nothing to click
+    }
+
+    @Override
+    public void display() {
+      if (model.isGameOver()) {
+        gameOver.countDown();
+      }
+    }
+
+    @Override
+    public void displayMessage(String message) {
+      messages.add(message);
+    }
+  }
+
+  //captures as many cells as it can, and remembers where it was asked from
+  private static class StackDepthStrategy implements ReversiStrategy {
+    private final AtomicInteger deepest = new AtomicInteger();
+    private volatile Thread thread;
+
+    @Override
+    public Coordinate chooseCoord(ReadonlyReversiModel model, int player) {
+      deepest.accumulateAndGet(Thread.currentThread().getStackTrace().length, Math::max);
+      thread = Thread.currentThread();
+      return new CaptureMaxCellsThisMove().chooseCoord(model, player);
+    }
+  }
+
+  //starts a game between two players of the strategy, with controllers on the scheduler
+  private ReversiModel startGame(StackDepthStrategy strategy, TurnScheduler scheduler,
+                                 CountDownLatch gameOver) {
+    ReversiModel model = new BitboardHexagonReversi();
+    model.startGame(12, 2);
+    ViewInterface view = new QuietView(model, gameOver);
+    new ReversiController(model, new PlayerImpl(strategy, 1), view, scheduler);
+    new ReversiController(model, new PlayerImpl(strategy, 2), view, scheduler);
+    scheduler.schedule(model::notifyObserverTurn);
+    return model;
+  }
+
+  @Test
+  public void turnsQueuedBehindAFailedTurnStillRun() throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(2);
+    try {
+      //counts the calls of the game executor that are done, and keeps failures quiet
+      CountDownLatch queued = new CountDownLatch(2);
+      AtomicInteger failures = new AtomicInteger();
+      TurnScheduler scheduler = new TurnScheduler(Runnable::run, task -> pool.execute(() -> {
+        try {
+          task.run();
+        }
+        catch (RuntimeException e) {
+          failures.incrementAndGet();
+        }
+        finally {
+          queued.countDown();
+        }
+      }));
+      CountDownLatch ran = new CountDownLatch(1);
+      CountDownLatch started = new CountDownLatch(1);
+      //the first turn waits until the next two have been queued behind it
+      scheduler.schedule(() -> {
+        started.countDown();
+        try {
+          queued.await();
+        }
+        catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+      Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+      scheduler.schedule(() -> {
+        throw new IllegalStateException("broken turn");
+      });
+      scheduler.schedule(ran::countDown);
+
+      Assert.assertTrue(ran.await(10, TimeUnit.SECONDS));
+      Assert.assertEquals(1, failures.get());
+    }
+    finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  public void failedSearchesPassInsteadOfHanging() throws Exception {
+    ExecutorService search = Executors.newSingleThreadExecutor();
+    ExecutorService game = Executors.newSingleThreadExecutor();
+    try {
+      ReversiModel model = new BitboardHexagonReversi();
+      model.startGame(4, 2);
+      CountDownLatch gameOver = new CountDownLatch(1);
+      QuietView view = new QuietView(model, gameOver);
+      TurnScheduler scheduler = new TurnScheduler(search, game);
+      ReversiStrategy broken = (board, player) -> {
+        throw new IllegalStateException("broken strategy");
+      };
+      new ReversiController(model, new PlayerImpl(broken, 1), view, scheduler);
+      new ReversiController(model, new PlayerImpl(new CaptureMaxCellsThisMove(), 2), view,
+              scheduler);
+      scheduler.schedule(model::notifyObserverTurn);
+
+      Assert.assertTrue(gameOver.await(30, TimeUnit.SECONDS));
+      Assert.assertTrue(view.messages.contains(
+              "Player1 could not choose a move: broken strategy"));
+    }
+    finally {
+      search.shutdownNow();
+      game.shutdownNow();
+    }
+  }
+
+  @Test
+  public void longGamesKeepTheStackFlat() {
+    StackDepthStrategy strategy = new StackDepthStrategy();
+    CountDownLatch gameOver = new CountDownLatch(1);
+    int before = Thread.currentThread().getStackTrace().length;
+    ReversiModel model = this.startGame(strategy, new TurnScheduler(), gameOver);
+
+    //with the default scheduler the whole game is played before startGame returns
+    Assert.assertTrue(model.isGameOver());
+    Assert.assertEquals(0, gameOver.getCount());
+    Assert.assertTrue(model.getScore(1) + model.getScore(2) > 300);
+    //hundreds of moves were played, but never more than a few turns deep
+    Assert.assertTrue(strategy.deepest.get() - before < 40);
+  }
+
+  @Test
+  public void searchesRunOffTheGameThread() throws Exception {
+    ExecutorService search = Executors.newSingleThreadExecutor();
+    ExecutorService game = Executors.newSingleThreadExecutor();
+    try {
+      StackDepthStrategy strategy = new StackDepthStrategy();
+      CountDownLatch gameOver = new CountDownLatch(1);
+      ReversiModel model = this.startGame(strategy, new TurnScheduler(search, game),
+              gameOver);
+      Assert.assertTrue(gameOver.await(30, TimeUnit.SECONDS));
+      Assert.assertTrue(model.isGameOver());
+      Assert.assertNotEquals(game.submit(Thread::currentThread).get(), strategy.thread);
+      Assert.assertEquals(search.submit(Thread::currentThread).get(), strategy.thread);
+    }
+    finally {
+      search.shutdownNow();
+      game.shutdownNow();
+    }
+  }
+}